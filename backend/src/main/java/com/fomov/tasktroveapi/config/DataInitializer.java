@@ -5,7 +5,11 @@ import com.fomov.tasktroveapi.model.Administrator;
 import com.fomov.tasktroveapi.model.Role;
 import com.fomov.tasktroveapi.repository.AccountRepository;
 import com.fomov.tasktroveapi.repository.AdministratorRepository;
+import com.fomov.tasktroveapi.repository.ChatRepository;
+import com.fomov.tasktroveapi.repository.OrdersRepository;
+import com.fomov.tasktroveapi.repository.PerformerRepository;
 import com.fomov.tasktroveapi.service.RoleService;
+import com.fomov.tasktroveapi.service.impl.ChatLastMessageServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
@@ -21,21 +25,60 @@ public class DataInitializer implements CommandLineRunner {
     private final AccountRepository accountRepository;
     private final AdministratorRepository administratorRepository;
     private final PasswordEncoder passwordEncoder;
+    private final OrdersRepository ordersRepository;
+    private final PerformerRepository performerRepository;
+    private final ChatRepository chatRepository;
 
     public DataInitializer(RoleService roleService, 
                           AccountRepository accountRepository,
                           AdministratorRepository administratorRepository,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder,
+                          OrdersRepository ordersRepository,
+                          PerformerRepository performerRepository,
+                          ChatRepository chatRepository) {
         this.roleService = roleService;
         this.accountRepository = accountRepository;
         this.administratorRepository = administratorRepository;
         this.passwordEncoder = passwordEncoder;
+        this.ordersRepository = ordersRepository;
+        this.performerRepository = performerRepository;
+        this.chatRepository = chatRepository;
     }
 
     @Override
     public void run(String... args) throws Exception {
         initializeRoles();
         initializeAdmin();
+        synchronizeReplyCounts();
+        synchronizePerformerAggregates();
+        synchronizeChatLastMessages();
+    }
+    
+    private void synchronizeReplyCounts() {
+        // Заполняем счетчики откликов для заказов, созданных до появления колонки reply_count;
+        // уже заполненные заказы запрос не трогает
+        int updated = ordersRepository.backfillReplyCounts();
+        if (updated > 0) {
+            logger.info("Recalculated reply counters for {} orders", updated);
+        }
+    }
+    
+    private void synchronizePerformerAggregates() {
+        // Заполняем рейтинг и счетчик выполненных заказов для исполнителей, созданных до появления колонок;
+        // уже заполненные исполнители запрос не трогают
+        int updated = performerRepository.backfillAggregates();
+        if (updated > 0) {
+            logger.info("Recalculated rating aggregates for {} performers", updated);
+        }
+    }
+    
+    private void synchronizeChatLastMessages() {
+        // Заполняем данные последнего сообщения для чатов, созданных до появления колонок;
+        // уже заполненные чаты запрос не трогает
+        int updated = chatRepository.backfillLastMessages(ChatLastMessageServiceImpl.PREVIEW_LENGTH);
+        if (updated > 0) {
+            logger.info("Filled last message data for {} chats", updated);
+        }
     }
 
     private void initializeRoles() {
@@ -68,6 +68,8 @@ public class SecurityConfig {
                         .requestMatchers("/h2-console/**", "/api/auth/login", "/api/auth/register/**", "/api/auth/check-email", "/api/auth/send-verification", "/api/auth/verify-email", "/api/auth/forgot-password-public", "/api/auth/reset-password-public", "/ws/**", "/chat/**").permitAll()
                         .requestMatchers("/api/auth/forgot-password", "/api/auth/reset-password").authenticated()
                         .requestMatchers("/api/auth/**").authenticated()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAnyRole("Administrator", "SuperAdministrator")
                         .anyRequest().authenticated()
                 )
                 .headers(h -> h.frameOptions(fr -> fr.disable()));
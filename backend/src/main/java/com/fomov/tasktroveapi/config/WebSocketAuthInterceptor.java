@@ -1,7 +1,6 @@
 package com.fomov.tasktroveapi.config;
 
 import com.fomov.tasktroveapi.security.JwtTokenService;
-import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
@@ -37,9 +36,9 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                 String token = authToken.substring(7);
                 
                 try {
-                    Claims claims = jwtTokenService.parseToken(token);
-                    Integer userId = claims.get("userId", Integer.class);
-                    String role = claims.get("role", String.class);
+                    JwtTokenService.VerifiedToken verified = jwtTokenService.verify(token);
+                    Integer userId = verified.getUserId();
+                    String role = verified.getRole();
                     
                     if (userId != null && role != null) {
                         UsernamePasswordAuthenticationToken authentication = 
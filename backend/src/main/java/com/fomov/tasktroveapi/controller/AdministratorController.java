@@ -7,24 +7,31 @@ import com.fomov.tasktroveapi.mapper.OrdersMapper;
 import com.fomov.tasktroveapi.model.*;
 import com.fomov.tasktroveapi.service.AdministratorService;
 import com.fomov.tasktroveapi.service.PortfolioService;
+import com.fomov.tasktroveapi.service.ReplyService;
 import com.fomov.tasktroveapi.service.RegistrationService;
 import com.fomov.tasktroveapi.service.OrdersService;
 import com.fomov.tasktroveapi.service.CustomerService;
 import com.fomov.tasktroveapi.service.PerformerService;
 import com.fomov.tasktroveapi.service.WorkExperienceService;
 import com.fomov.tasktroveapi.service.NotificationService;
+import com.fomov.tasktroveapi.service.StatisticsService;
+import com.fomov.tasktroveapi.service.AdminRecipientService;
+import com.fomov.tasktroveapi.service.ResourceVersionService;
+import com.fomov.tasktroveapi.service.SavedSearchService;
 import com.fomov.tasktroveapi.dto.WorkExperienceDto;
+import com.fomov.tasktroveapi.event.OrderEvent;
+import com.fomov.tasktroveapi.event.OrderEventBus;
 import com.fomov.tasktroveapi.mapper.WorkExperienceMapper;
 import com.fomov.tasktroveapi.exception.NotFoundException;
 import com.fomov.tasktroveapi.security.SecurityUtils;
 import com.fomov.tasktroveapi.repository.AccountRepository;
-import com.fomov.tasktroveapi.repository.ReplyRepository;
 import com.fomov.tasktroveapi.repository.CustomerRepository;
 import com.fomov.tasktroveapi.repository.PerformerRepository;
 import com.fomov.tasktroveapi.repository.AdministratorRepository;
 import com.fomov.tasktroveapi.repository.RoleRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -47,7 +54,7 @@ public class AdministratorController {
     private final AdministratorService service;
     private final PortfolioService portfolioService;
     private final AccountRepository accountRepository;
-    private final ReplyRepository replyRepository;
+    private final ReplyService replyService;
     private final RegistrationService registrationService;
     private final OrdersService ordersService;
     private final CustomerRepository customerRepository;
@@ -62,11 +69,16 @@ public class AdministratorController {
     private final WorkExperienceMapper workExperienceMapper;
     private final NotificationService notificationService;
     private final com.fomov.tasktroveapi.service.EmailVerificationService emailVerificationService;
+    private final StatisticsService statisticsService;
+    private final AdminRecipientService adminRecipientService;
+    private final OrderEventBus orderEventBus;
+    private final ResourceVersionService resourceVersionService;
+    private final SavedSearchService savedSearchService;
 
     public AdministratorController(AdministratorService service, 
                                  PortfolioService portfolioService, 
                                  AccountRepository accountRepository, 
-                                 ReplyRepository replyRepository,
+                                 ReplyService replyService,
                                  RegistrationService registrationService,
                                  OrdersService ordersService,
                                  CustomerRepository customerRepository,
@@ -80,11 +92,16 @@ public class AdministratorController {
                                  WorkExperienceService workExperienceService,
                                  WorkExperienceMapper workExperienceMapper,
                                  NotificationService notificationService,
-                                 com.fomov.tasktroveapi.service.EmailVerificationService emailVerificationService) {
+                                 com.fomov.tasktroveapi.service.EmailVerificationService emailVerificationService,
+                                 StatisticsService statisticsService,
+                                 AdminRecipientService adminRecipientService,
+                                 OrderEventBus orderEventBus,
+                                 ResourceVersionService resourceVersionService,
+                                 SavedSearchService savedSearchService) {
         this.service = service;
         this.portfolioService = portfolioService;
         this.accountRepository = accountRepository;
-        this.replyRepository = replyRepository;
+        this.replyService = replyService;
         this.registrationService = registrationService;
         this.ordersService = ordersService;
         this.customerRepository = customerRepository;
@@ -99,6 +116,11 @@ public class AdministratorController {
         this.workExperienceMapper = workExperienceMapper;
         this.notificationService = notificationService;
         this.emailVerificationService = emailVerificationService;
+        this.statisticsService = statisticsService;
+        this.adminRecipientService = adminRecipientService;
+        this.orderEventBus = orderEventBus;
+        this.resourceVersionService = resourceVersionService;
+        this.savedSearchService = savedSearchService;
     }
 
     @GetMapping
@@ -264,7 +286,7 @@ public class AdministratorController {
 
     @DeleteMapping("/deletecomment")
     public ResponseEntity<?> deleteComment(@RequestParam("id") Integer id) {
-        replyRepository.deleteById(id);
+        replyService.deleteById(id);
         return ResponseEntity.ok().build();
     }
 
@@ -377,6 +399,7 @@ public class AdministratorController {
             administrator.setAccount(account);
             administrator.setName(name);
             administrator = administratorRepository.save(administrator);
+            adminRecipientService.invalidate();
             
             return ResponseEntity.ok(Map.of("success", true, "message", "Administrator created successfully", "id", administrator.getId()));
         } catch (Exception e) {
@@ -446,6 +469,8 @@ public class AdministratorController {
                 Role newRole = roleRepository.findByName(roleName)
                         .orElseThrow(() -> new RuntimeException("Role not found: " + roleName));
                 account.setRole(newRole);
+                // Список получателей уведомлений о модерации зависит от ролей
+                adminRecipientService.invalidate();
             }
             
             accountRepository.save(account);
@@ -557,6 +582,9 @@ public class AdministratorController {
             
             // Delete account
             accountRepository.deleteById(userId);
+            if ("Administrator".equals(roleName) || "SuperAdministrator".equals(roleName)) {
+                adminRecipientService.invalidate();
+            }
             
             return ResponseEntity.ok(Map.of("success", true, "message", "User deleted successfully"));
         } catch (Exception e) {
@@ -661,22 +689,31 @@ public class AdministratorController {
     // ========== Orders Management ==========
 
     @GetMapping("/orders")
-    @Transactional(readOnly = true)
-    public ResponseEntity<Map<String, Object>> getAllOrders() {
+    public ResponseEntity<Map<String, Object>> getAllOrders(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Orders> orders = ordersService.findAll();
-            List<AddOrderDto> orderDtos = orders.stream()
-                    .map(ordersMapper::toDto)
+            // Без транзакции на уровне метода: ответ 304 не должен занимать соединение с БД
+            String etag = resourceVersionService.etag(SecurityUtils.getCurrentUserId(),
+                    ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
+            List<AddOrderDto> orderDtos = ordersService.findAllListItems().stream()
+                    .map(ordersMapper::toListDto)
                     .collect(java.util.stream.Collectors.toList());
-            return ResponseEntity.ok(Map.of("orders", orderDtos));
+            return ConditionalResponses.ok(etag, Map.of("orders", orderDtos));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", "Error loading orders: " + e.getMessage()));
         }
     }
 
+    // Полная карточка заказа: в списках description содержит только начало описания
     @GetMapping("/orders/{orderId}")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getOrder(@PathVariable Integer orderId) {
         return ordersService.findById(orderId)
+                .map(ordersMapper::toDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -721,6 +758,13 @@ public class AdministratorController {
                 );
             }
             
+            // После коммита заказ сверяется с сохраненными поисками исполнителей;
+            // отметка в БД не даст потерять сверку, если событие не будет обработано
+            savedSearchService.markForMatching(order.getId());
+            orderEventBus.publish(OrderEvent.of(OrderEvent.Type.ORDER_PUBLISHED, order.getId(), order.getTitle(),
+                    order.getCustomer() != null ? order.getCustomer().getId() : null, null, null,
+                    null, null, null));
+            
             return ResponseEntity.ok(Map.of("success", true, "message", "Заказ успешно одобрен"));
         } catch (NotFoundException e) {
             return ResponseEntity.status(404).body(Map.of("success", false, "error", "Заказ не найден"));
@@ -772,14 +816,20 @@ public class AdministratorController {
     }
 
     @GetMapping("/orders/review")
-    @Transactional(readOnly = true)
-    public ResponseEntity<Map<String, Object>> getOrdersOnReview() {
+    public ResponseEntity<Map<String, Object>> getOrdersOnReview(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Orders> orders = ordersService.findByStatus(com.fomov.tasktroveapi.model.OrderStatus.ON_REVIEW);
-            List<AddOrderDto> orderDtos = orders.stream()
-                    .map(ordersMapper::toDto)
+            String etag = resourceVersionService.etag(SecurityUtils.getCurrentUserId(),
+                    ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
+            List<AddOrderDto> orderDtos = ordersService
+                    .findListItemsByStatus(com.fomov.tasktroveapi.model.OrderStatus.ON_REVIEW).stream()
+                    .map(ordersMapper::toListDto)
                     .collect(java.util.stream.Collectors.toList());
-            return ResponseEntity.ok(Map.of("orders", orderDtos));
+            return ConditionalResponses.ok(etag, Map.of("orders", orderDtos));
         } catch (Exception e) {
             logger.error("Error loading orders on review: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", "Error loading orders on review: " + e.getMessage()));
@@ -796,23 +846,7 @@ public class AdministratorController {
 
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getStatistics() {
-        long totalUsers = accountRepository.count();
-        long totalCustomers = customerRepository.count();
-        long totalPerformers = performerRepository.count();
-        long totalAdministrators = administratorRepository.count();
-        long totalOrders = ordersService.findAll().size();
-        long activeOrders = ordersService.findByStatus(OrderStatus.ACTIVE).size();
-        long doneOrders = ordersService.findByStatus(OrderStatus.DONE).size();
-        
-        return ResponseEntity.ok(Map.of(
-            "totalUsers", totalUsers,
-            "totalCustomers", totalCustomers,
-            "totalPerformers", totalPerformers,
-            "totalAdministrators", totalAdministrators,
-            "totalOrders", totalOrders,
-            "activeOrders", activeOrders,
-            "doneOrders", doneOrders
-        ));
+        return ResponseEntity.ok(statisticsService.getStatistics());
     }
 
     // ========== Customer Data for Admin ==========
@@ -1,7 +1,9 @@
 package com.fomov.tasktroveapi.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -24,8 +26,12 @@ public class ClientController {
     @GetMapping
     public Object listOrders(
             @RequestParam(value = "searchTerm", required = false) String searchTerm,
-            @RequestParam(value = "sortBy", required = false) String sortBy) {
-        return performerController.listOrders(searchTerm, sortBy, 1, 50);
+            @RequestParam(value = "sortBy", required = false) String sortBy,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @RequestParam(value = "pageSize", defaultValue = "50") int pageSize,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return performerController.listOrders(searchTerm, sortBy, cursor, page, pageSize, ifNoneMatch);
     }
     
     @GetMapping("/{id}")
@@ -34,18 +40,26 @@ public class ClientController {
     }
     
     @GetMapping("/replies")
-    public Object getAllReplies(@RequestParam(value = "tab", required = false) String tab) {
-        return performerController.getAllReplies(tab);
+    public Object getAllReplies(
+            @RequestParam(value = "tab", required = false) String tab,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return performerController.getAllReplies(tab, ifNoneMatch);
     }
     
     @GetMapping("/chats")
-    public Object getAllChats(@RequestParam(value = "tab", required = false) String tab) {
-        return performerController.getAllChats(tab);
+    public Object getAllChats(
+            @RequestParam(value = "tab", required = false) String tab,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return performerController.getAllChats(tab, ifNoneMatch);
     }
     
     @GetMapping("/messages")
-    public Object getAllMessage(@RequestParam("chatId") Integer chatId) {
-        return performerController.getAllMessage(chatId);
+    public Object getAllMessage(
+            @RequestParam("chatId") Integer chatId,
+            @RequestParam(value = "beforeId", required = false) Integer beforeId,
+            @RequestParam(value = "afterId", required = false) Integer afterId,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return performerController.getAllMessage(chatId, beforeId, afterId, limit);
     }
     
     @GetMapping("/info")
@@ -0,0 +1,47 @@
+package com.fomov.tasktroveapi.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Ответы на условные GET-запросы опрашиваемых эндпоинтов.
+ * Браузер хранит ответ с ETag и при следующем опросе сам присылает If-None-Match,
+ * а на 304 отдает приложению сохраненное тело - клиентский код не меняется.
+ */
+final class ConditionalResponses {
+
+    // Хранить можно только в кэше браузера пользователя и только с перепроверкой на каждом запросе.
+    // Заголовок, выставленный контроллером, Spring Security не перезаписывает своим no-store
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Совпадает ли ETag из If-None-Match с текущим; слабые ETag сравниваются без префикса W/
+     */
+    static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body);
+    }
+}
@@ -8,6 +8,7 @@ import com.fomov.tasktroveapi.security.SecurityUtils;
 import com.fomov.tasktroveapi.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -33,6 +34,7 @@ public class CustomerController {
     private final PerformerService performerService;
     private final com.fomov.tasktroveapi.mapper.OrdersMapper ordersMapper;
     private final com.fomov.tasktroveapi.mapper.WorkExperienceMapper workExperienceMapper;
+    private final ResourceVersionService resourceVersionService;
 
     public CustomerController(CustomerService customerService,
                              PortfolioService portfolioService,
@@ -41,7 +43,8 @@ public class CustomerController {
                              WorkExperienceService workExperienceService,
                              PerformerService performerService,
                              com.fomov.tasktroveapi.mapper.OrdersMapper ordersMapper,
-                             com.fomov.tasktroveapi.mapper.WorkExperienceMapper workExperienceMapper) {
+                             com.fomov.tasktroveapi.mapper.WorkExperienceMapper workExperienceMapper,
+                             ResourceVersionService resourceVersionService) {
         this.customerService = customerService;
         this.portfolioService = portfolioService;
         this.accountRepository = accountRepository;
@@ -50,21 +53,36 @@ public class CustomerController {
         this.performerService = performerService;
         this.ordersMapper = ordersMapper;
         this.workExperienceMapper = workExperienceMapper;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> listOrders(@RequestParam(value = "searchTerm", required = false) String searchTerm) {
+    public ResponseEntity<Map<String, Object>> listOrders(
+            @RequestParam(value = "searchTerm", required = false) String searchTerm,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "sortBy", required = false) String sortBy,
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @RequestParam(value = "pageSize", defaultValue = "50") int pageSize,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
-            Map<String, Object> result = customerService.getCustomerOrders(accountId, searchTerm);
-            return ResponseEntity.ok(result);
+            String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
+            Map<String, Object> result = customerService.getCustomerOrders(accountId, searchTerm, status, sortBy, page, pageSize);
+            return ConditionalResponses.ok(etag, result);
         } catch (NotFoundException e) {
             logger.error("Customer not found: {}", e.getMessage());
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid orders request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error listing orders: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().build();
@@ -72,10 +90,17 @@ public class CustomerController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<AddOrderDto> getOrder(@PathVariable Integer id) {
+    public ResponseEntity<AddOrderDto> getOrder(@PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            String etag = resourceVersionService.etag(SecurityUtils.getCurrentUserId(),
+                    ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
             AddOrderDto dto = customerService.getOrderWithReplies(id);
-            return ResponseEntity.ok(dto);
+            return ConditionalResponses.ok(etag, dto);
         } catch (NotFoundException e) {
             logger.error("Order not found: {}", e.getMessage());
             return ResponseEntity.notFound().build();
@@ -86,18 +111,30 @@ public class CustomerController {
     }
 
     @GetMapping("/done")
-    public ResponseEntity<Map<String, Object>> done() {
+    public ResponseEntity<Map<String, Object>> done(
+            @RequestParam(value = "sortBy", required = false) String sortBy,
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @RequestParam(value = "pageSize", defaultValue = "50") int pageSize,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
-            Map<String, Object> result = customerService.getDoneOrders(accountId);
-            return ResponseEntity.ok(result);
+            String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
+            Map<String, Object> result = customerService.getDoneOrders(accountId, sortBy, page, pageSize);
+            return ConditionalResponses.ok(etag, result);
         } catch (NotFoundException e) {
             logger.error("Customer not found: {}", e.getMessage());
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid done orders request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error getting done orders: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().build();
@@ -106,15 +143,22 @@ public class CustomerController {
 
     @GetMapping("/chats")
     public ResponseEntity<Map<String, Object>> getAllChats(
-            @RequestParam(value = "tab", required = false) String tab) {
+            @RequestParam(value = "tab", required = false) String tab,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
+            String etag = resourceVersionService.etag(accountId,
+                    ResourceVersionService.Resource.CHATS, ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
             Map<String, Object> result = customerService.getCustomerChats(accountId, tab);
-            return ResponseEntity.ok(result);
+            return ConditionalResponses.ok(etag, result);
         } catch (NotFoundException e) {
             logger.error("Customer not found: {}", e.getMessage());
             return ResponseEntity.notFound().build();
@@ -126,14 +170,17 @@ public class CustomerController {
 
     @GetMapping("/messages")
     public ResponseEntity<Map<String, Object>> getAllMessage(
-            @RequestParam("chatId") Integer chatId) {
+            @RequestParam("chatId") Integer chatId,
+            @RequestParam(value = "beforeId", required = false) Integer beforeId,
+            @RequestParam(value = "afterId", required = false) Integer afterId,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
-            Map<String, Object> result = customerService.getChatMessages(accountId, chatId);
+            Map<String, Object> result = customerService.getChatMessages(accountId, chatId, beforeId, afterId, limit);
             return ResponseEntity.ok(result);
         } catch (NotFoundException e) {
             logger.error("Chat or customer not found: {}", e.getMessage());
@@ -141,6 +188,9 @@ public class CustomerController {
         } catch (SecurityException e) {
             logger.error("Access denied: {}", e.getMessage());
             return ResponseEntity.status(403).build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid message cursor: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error getting messages: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().build();
@@ -631,24 +681,6 @@ public class CustomerController {
             List<Performer> performers = performerService.getTopPerformers();
             List<Map<String, Object>> performerDtos = performers.stream()
                     .map(performer -> {
-                        // Рассчитываем рейтинг на основе отзывов
-                        List<WorkExperience> reviews = workExperienceService.findReviewsAboutPerformer(performer.getId());
-                        int calculatedRating = 0;
-                        if (!reviews.isEmpty()) {
-                            double averageMark = reviews.stream()
-                                    .mapToInt(review -> review.getRate() != null ? review.getRate() : 0)
-                                    .average()
-                                    .orElse(0.0);
-                            // Преобразуем среднюю оценку (1-5) в рейтинг (0-100)
-                            calculatedRating = (int) Math.round(averageMark * 20);
-                        }
-                        
-                        // Подсчитываем количество выполненных заказов
-                        List<Orders> allOrders = ordersService.findByPerformerId(performer.getId());
-                        long completedOrdersCount = allOrders.stream()
-                                .filter(order -> order.getStatus() == com.fomov.tasktroveapi.model.OrderStatus.DONE)
-                                .count();
-                        
                         Map<String, Object> dto = new java.util.HashMap<>();
                         dto.put("id", performer.getId());
                         dto.put("lastName", performer.getLastName());
@@ -656,11 +688,12 @@ public class CustomerController {
                         dto.put("middleName", performer.getMiddleName());
                         dto.put("fullName", performer.getFullName());
                         dto.put("email", performer.getEmail());
-                        dto.put("rating", calculatedRating);
-                        dto.put("completedOrdersCount", completedOrdersCount);
+                        // Агрегаты хранятся в строке исполнителя и поддерживаются при изменении отзывов и заказов
+                        dto.put("rating", performer.getRating() != null ? performer.getRating() : 0);
+                        dto.put("completedOrdersCount", performer.getCompletedOrdersCount() != null
+                                ? performer.getCompletedOrdersCount().longValue() : 0L);
                         return dto;
                     })
-                    .sorted((a, b) -> Integer.compare((Integer) b.get("rating"), (Integer) a.get("rating")))
                     .collect(java.util.stream.Collectors.toList());
             return ResponseEntity.ok(Map.of("performers", performerDtos));
         } catch (Exception e) {
@@ -5,6 +5,8 @@ import com.fomov.tasktroveapi.mapper.NotificationMapper;
 import com.fomov.tasktroveapi.model.Notification;
 import com.fomov.tasktroveapi.security.SecurityUtils;
 import com.fomov.tasktroveapi.service.NotificationService;
+import com.fomov.tasktroveapi.service.ResourceVersionService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,19 +19,28 @@ public class NotificationController {
 
     private final NotificationService service;
     private final NotificationMapper mapper;
+    private final ResourceVersionService resourceVersionService;
 
-    public NotificationController(NotificationService service, NotificationMapper mapper) {
+    public NotificationController(NotificationService service, NotificationMapper mapper,
+                                  ResourceVersionService resourceVersionService) {
         this.service = service;
         this.mapper = mapper;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllNotifications() {
+    public ResponseEntity<Map<String, Object>> getAllNotifications(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Integer accountId = SecurityUtils.getCurrentUserId();
         if (accountId == null) {
             return ResponseEntity.status(401).build();
         }
         
+        String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.NOTIFICATIONS);
+        if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(etag);
+        }
+        
         List<Notification> notifications = service.findByAccountId(accountId);
         List<NotificationDto> notificationDtos = notifications.stream()
                 .map(mapper::toDto)
@@ -37,36 +48,74 @@ public class NotificationController {
         
         Long unreadCount = service.countUnreadByAccountId(accountId);
         
-        return ResponseEntity.ok(Map.of(
+        return ConditionalResponses.ok(etag, Map.of(
             "notifications", notificationDtos,
             "unreadCount", unreadCount
         ));
     }
 
     @GetMapping("/unread")
-    public ResponseEntity<Map<String, Object>> getUnreadNotifications() {
+    public ResponseEntity<Map<String, Object>> getUnreadNotifications(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Integer accountId = SecurityUtils.getCurrentUserId();
         if (accountId == null) {
             return ResponseEntity.status(401).build();
         }
         
+        String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.NOTIFICATIONS);
+        if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(etag);
+        }
+        
         List<Notification> notifications = service.findUnreadByAccountId(accountId);
         List<NotificationDto> notificationDtos = notifications.stream()
                 .map(mapper::toDto)
                 .toList();
         
-        return ResponseEntity.ok(Map.of("notifications", notificationDtos));
+        return ConditionalResponses.ok(etag, Map.of("notifications", notificationDtos));
+    }
+
+    @GetMapping("/since")
+    public ResponseEntity<Map<String, Object>> getNotificationsSince(
+            @RequestParam(value = "afterId", required = false, defaultValue = "0") Integer afterId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Integer accountId = SecurityUtils.getCurrentUserId();
+        if (accountId == null) {
+            return ResponseEntity.status(401).build();
+        }
+        
+        String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.NOTIFICATIONS);
+        if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(etag);
+        }
+        
+        List<NotificationDto> notificationDtos = service.findNewerThan(accountId, afterId).stream()
+                .map(mapper::toDto)
+                .toList();
+        
+        Long unreadCount = service.countUnreadByAccountId(accountId);
+        
+        return ConditionalResponses.ok(etag, Map.of(
+            "notifications", notificationDtos,
+            "unreadCount", unreadCount
+        ));
     }
 
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Long>> getUnreadCount() {
+    public ResponseEntity<Map<String, Long>> getUnreadCount(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Integer accountId = SecurityUtils.getCurrentUserId();
         if (accountId == null) {
             return ResponseEntity.status(401).build();
         }
         
+        String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.NOTIFICATIONS);
+        if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+            return ConditionalResponses.notModified(etag);
+        }
+        
         Long count = service.countUnreadByAccountId(accountId);
-        return ResponseEntity.ok(Map.of("count", count));
+        return ConditionalResponses.ok(etag, Map.of("count", count));
     }
 
     @PutMapping("/{id}/read")
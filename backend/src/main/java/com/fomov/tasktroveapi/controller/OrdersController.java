@@ -35,28 +35,28 @@ public class OrdersController {
         if (status != null && !status.isBlank()) {
             try {
                 OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-                return service.findByStatus(orderStatus).stream().map(mapper::toDto).collect(Collectors.toList());
+                return service.findListItemsByStatus(orderStatus).stream().map(mapper::toListDto).collect(Collectors.toList());
             } catch (IllegalArgumentException e) {
                 // Игнорируем неверный статус
             }
         }
         // Обратная совместимость со старыми параметрами
         if (Boolean.TRUE.equals(isActived)) {
-            return service.findByStatus(OrderStatus.ACTIVE).stream().map(mapper::toDto).collect(Collectors.toList());
+            return service.findListItemsByStatus(OrderStatus.ACTIVE).stream().map(mapper::toListDto).collect(Collectors.toList());
         }
         if (Boolean.TRUE.equals(isInProcess)) {
-            return service.findByStatus(OrderStatus.IN_PROCESS).stream().map(mapper::toDto).collect(Collectors.toList());
+            return service.findListItemsByStatus(OrderStatus.IN_PROCESS).stream().map(mapper::toListDto).collect(Collectors.toList());
         }
         if (Boolean.TRUE.equals(isOnCheck)) {
-            return service.findByStatus(OrderStatus.ON_CHECK).stream().map(mapper::toDto).collect(Collectors.toList());
+            return service.findListItemsByStatus(OrderStatus.ON_CHECK).stream().map(mapper::toListDto).collect(Collectors.toList());
         }
         if (Boolean.TRUE.equals(isDone)) {
-            return service.findByStatus(OrderStatus.DONE).stream().map(mapper::toDto).collect(Collectors.toList());
+            return service.findListItemsByStatus(OrderStatus.DONE).stream().map(mapper::toListDto).collect(Collectors.toList());
         }
         if (searchTerm != null && !searchTerm.isBlank()) {
-            return service.findByTitleContaining(searchTerm).stream().map(mapper::toDto).collect(Collectors.toList());
+            return service.findListItemsByTitleContaining(searchTerm).stream().map(mapper::toListDto).collect(Collectors.toList());
         }
-        return service.findAll().stream().map(mapper::toDto).collect(Collectors.toList());
+        return service.findAllListItems().stream().map(mapper::toListDto).collect(Collectors.toList());
     }
 
     @GetMapping("/{id}")
@@ -75,12 +75,10 @@ public class OrdersController {
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('Customer', 'Performer', 'Administrator')")
     public ResponseEntity<AddOrderDto> update(@PathVariable Integer id, @RequestBody AddOrderDto dto) {
-        return service.findById(id).map(existing -> {
-            Orders updated = mapper.toEntity(dto);
-            updated.setId(id);
-            Orders saved = service.save(updated);
-            return ResponseEntity.ok(mapper.toDto(saved));
-        }).orElse(ResponseEntity.notFound().build());
+        // Смена статуса через PUT должна учитываться в счетчике выполненных заказов исполнителя
+        return service.update(id, mapper.toEntity(dto))
+                .map(saved -> ResponseEntity.ok(mapper.toDto(saved)))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
@@ -8,6 +8,7 @@ import com.fomov.tasktroveapi.mapper.WorkExperienceMapper;
 import com.fomov.tasktroveapi.model.*;
 import com.fomov.tasktroveapi.security.SecurityUtils;
 import com.fomov.tasktroveapi.service.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -34,6 +35,9 @@ public class PerformerController {
     private final WorkExperienceService workExperienceService;
     private final OrdersMapper ordersMapper;
     private final WorkExperienceMapper workExperienceMapper;
+    private final SavedSearchService savedSearchService;
+    private final RecommendationService recommendationService;
+    private final ResourceVersionService resourceVersionService;
 
     public PerformerController(PerformerService service, 
                               PerformerMapper mapper,
@@ -42,7 +46,10 @@ public class PerformerController {
                               OrdersService ordersService,
                               WorkExperienceService workExperienceService,
                               OrdersMapper ordersMapper,
-                              WorkExperienceMapper workExperienceMapper) {
+                              WorkExperienceMapper workExperienceMapper,
+                              SavedSearchService savedSearchService,
+                              RecommendationService recommendationService,
+                              ResourceVersionService resourceVersionService) {
         this.service = service;
         this.mapper = mapper;
         this.portfolioService = portfolioService;
@@ -51,6 +58,9 @@ public class PerformerController {
         this.workExperienceService = workExperienceService;
         this.ordersMapper = ordersMapper;
         this.workExperienceMapper = workExperienceMapper;
+        this.savedSearchService = savedSearchService;
+        this.recommendationService = recommendationService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @GetMapping("/{id}")
@@ -105,16 +115,26 @@ public class PerformerController {
     public ResponseEntity<Map<String, Object>> listOrders(
             @RequestParam(value = "searchTerm", required = false) String searchTerm,
             @RequestParam(value = "sortBy", required = false) String sortBy,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "page", defaultValue = "1") int page,
-            @RequestParam(value = "pageSize", defaultValue = "50") int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "50") int pageSize,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
-            Map<String, Object> result = service.getAvailableOrders(accountId, searchTerm, sortBy, page, pageSize);
-            return ResponseEntity.ok(result);
+            String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
+            Map<String, Object> result = service.getAvailableOrders(accountId, searchTerm, sortBy, cursor, page, pageSize);
+            return ConditionalResponses.ok(etag, result);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid orders feed request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error listing orders", e);
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to list orders"));
@@ -123,31 +143,64 @@ public class PerformerController {
 
     @GetMapping("/my-orders")
     public ResponseEntity<Map<String, Object>> getMyActiveOrders(
-            @RequestParam(value = "searchTerm", required = false) String searchTerm) {
+            @RequestParam(value = "searchTerm", required = false) String searchTerm,
+            @RequestParam(value = "page", defaultValue = "1") int page,
+            @RequestParam(value = "pageSize", defaultValue = "50") int pageSize,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
-            Map<String, Object> result = service.getMyActiveOrders(accountId, searchTerm);
-            return ResponseEntity.ok(result);
+            String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
+            Map<String, Object> result = service.getMyActiveOrders(accountId, searchTerm, page, pageSize);
+            return ConditionalResponses.ok(etag, result);
         } catch (Exception e) {
             logger.error("Error getting my active orders", e);
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get active orders"));
         }
     }
 
+    @GetMapping("/recommended")
+    public ResponseEntity<Map<String, Object>> getRecommendedOrders(
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        try {
+            Integer accountId = SecurityUtils.getCurrentUserId();
+            if (accountId == null) {
+                return ResponseEntity.status(401).build();
+            }
+            
+            return ResponseEntity.ok(recommendationService.getRecommendedOrders(accountId, limit));
+        } catch (NotFoundException e) {
+            logger.error("Performer not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            logger.error("Error getting recommended orders", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get recommended orders"));
+        }
+    }
+
     @GetMapping("/orders/{id}")
-    public ResponseEntity<?> getOrderById(@PathVariable Integer id) {
+    public ResponseEntity<?> getOrderById(@PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
+            String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
             AddOrderDto dto = service.getOrderDetails(accountId, id);
-            return ResponseEntity.ok(dto);
+            return ConditionalResponses.ok(etag, dto);
         } catch (Exception e) {
             logger.error("Error getting order by id: {}", id, e);
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get order"));
@@ -156,15 +209,21 @@ public class PerformerController {
 
     @GetMapping("/replies")
     public ResponseEntity<Map<String, Object>> getAllReplies(
-            @RequestParam(value = "tab", required = false) String tab) {
+            @RequestParam(value = "tab", required = false) String tab,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
+            String etag = resourceVersionService.etag(accountId, ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
             Map<String, Object> result = service.getMyReplies(accountId, tab);
-            return ResponseEntity.ok(result);
+            return ConditionalResponses.ok(etag, result);
         } catch (Exception e) {
             logger.error("Error getting replies", e);
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get replies"));
@@ -173,15 +232,22 @@ public class PerformerController {
 
     @GetMapping("/chats")
     public ResponseEntity<Map<String, Object>> getAllChats(
-            @RequestParam(value = "tab", required = false) String tab) {
+            @RequestParam(value = "tab", required = false) String tab,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
+            String etag = resourceVersionService.etag(accountId,
+                    ResourceVersionService.Resource.CHATS, ResourceVersionService.Resource.ORDERS);
+            if (ConditionalResponses.isNotModified(ifNoneMatch, etag)) {
+                return ConditionalResponses.notModified(etag);
+            }
+            
             Map<String, Object> result = service.getMyChats(accountId, tab);
-            return ResponseEntity.ok(result);
+            return ConditionalResponses.ok(etag, result);
         } catch (Exception e) {
             logger.error("Error getting chats", e);
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get chats"));
@@ -190,18 +256,24 @@ public class PerformerController {
 
     @GetMapping("/messages")
     public ResponseEntity<Map<String, Object>> getAllMessage(
-            @RequestParam("chatId") Integer chatId) {
+            @RequestParam("chatId") Integer chatId,
+            @RequestParam(value = "beforeId", required = false) Integer beforeId,
+            @RequestParam(value = "afterId", required = false) Integer afterId,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         try {
             Integer accountId = SecurityUtils.getCurrentUserId();
             if (accountId == null) {
                 return ResponseEntity.status(401).build();
             }
             
-            Map<String, Object> result = service.getChatMessages(accountId, chatId);
+            Map<String, Object> result = service.getChatMessages(accountId, chatId, beforeId, afterId, limit);
             return ResponseEntity.ok(result);
         } catch (SecurityException e) {
             logger.warn("Access denied to chat: {}", chatId);
             return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid message cursor: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error getting messages for chat: {}", chatId, e);
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get messages"));
@@ -600,6 +672,67 @@ public class PerformerController {
         }
     }
 
+    // ========== Saved searches ==========
+
+    @GetMapping("/saved-searches")
+    public ResponseEntity<Map<String, Object>> getSavedSearches() {
+        try {
+            Integer accountId = SecurityUtils.getCurrentUserId();
+            if (accountId == null) {
+                return ResponseEntity.status(401).build();
+            }
+            
+            List<SavedSearchDto> savedSearches = savedSearchService.findByPerformerAccountId(accountId);
+            return ResponseEntity.ok(Map.of("savedSearches", savedSearches));
+        } catch (NotFoundException e) {
+            logger.error("Performer not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            logger.error("Error getting saved searches", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get saved searches"));
+        }
+    }
+
+    @PostMapping("/saved-searches")
+    public ResponseEntity<?> createSavedSearch(@RequestBody @Validated SavedSearchDto dto) {
+        try {
+            Integer accountId = SecurityUtils.getCurrentUserId();
+            if (accountId == null) {
+                return ResponseEntity.status(401).build();
+            }
+            
+            return ResponseEntity.ok(savedSearchService.create(accountId, dto));
+        } catch (NotFoundException e) {
+            logger.error("Performer not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid saved search: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error creating saved search", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to create saved search"));
+        }
+    }
+
+    @DeleteMapping("/saved-searches/{id}")
+    public ResponseEntity<?> deleteSavedSearch(@PathVariable Integer id) {
+        try {
+            Integer accountId = SecurityUtils.getCurrentUserId();
+            if (accountId == null) {
+                return ResponseEntity.status(401).build();
+            }
+            
+            savedSearchService.delete(accountId, id);
+            return ResponseEntity.noContent().build();
+        } catch (NotFoundException e) {
+            logger.warn("Saved search not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            logger.error("Error deleting saved search: {}", id, e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to delete saved search"));
+        }
+    }
+
     @DeleteMapping("/chats/{chatId}")
     public ResponseEntity<?> deleteChat(@PathVariable Integer chatId) {
         try {
@@ -632,24 +765,6 @@ public class PerformerController {
             List<Performer> performers = service.getTopPerformers();
             List<Map<String, Object>> performerDtos = performers.stream()
                     .map(performer -> {
-                        // Рассчитываем рейтинг на основе отзывов
-                        List<WorkExperience> reviews = workExperienceService.findReviewsAboutPerformer(performer.getId());
-                        int calculatedRating = 0;
-                        if (!reviews.isEmpty()) {
-                            double averageMark = reviews.stream()
-                                    .mapToInt(review -> review.getRate() != null ? review.getRate() : 0)
-                                    .average()
-                                    .orElse(0.0);
-                            // Преобразуем среднюю оценку (1-5) в рейтинг (0-100)
-                            calculatedRating = (int) Math.round(averageMark * 20);
-                        }
-                        
-                        // Подсчитываем количество выполненных заказов
-                        List<Orders> allOrders = ordersService.findByPerformerId(performer.getId());
-                        long completedOrdersCount = allOrders.stream()
-                                .filter(order -> order.getStatus() == com.fomov.tasktroveapi.model.OrderStatus.DONE)
-                                .count();
-                        
                         Map<String, Object> dto = new java.util.HashMap<>();
                         dto.put("id", performer.getId());
                         dto.put("lastName", performer.getLastName());
@@ -657,11 +772,12 @@ public class PerformerController {
                         dto.put("middleName", performer.getMiddleName());
                         dto.put("fullName", performer.getFullName());
                         dto.put("email", performer.getEmail());
-                        dto.put("rating", calculatedRating);
-                        dto.put("completedOrdersCount", completedOrdersCount);
+                        // Агрегаты хранятся в строке исполнителя и поддерживаются при изменении отзывов и заказов
+                        dto.put("rating", performer.getRating() != null ? performer.getRating() : 0);
+                        dto.put("completedOrdersCount", performer.getCompletedOrdersCount() != null
+                                ? performer.getCompletedOrdersCount().longValue() : 0L);
                         return dto;
                     })
-                    .sorted((a, b) -> Integer.compare((Integer) b.get("rating"), (Integer) a.get("rating")))
                     .collect(java.util.stream.Collectors.toList());
             return ResponseEntity.ok(Map.of("performers", performerDtos));
         } catch (Exception e) {
@@ -18,6 +18,13 @@ public class AddOrderDto {
     @JsonProperty("description")
     private String description;
     
+    // Только в ответах списков: начало описания вместо полного текста
+    @JsonProperty(value = "descriptionPreview", access = JsonProperty.Access.READ_ONLY)
+    private String descriptionPreview;
+    
+    @JsonProperty(value = "descriptionTruncated", access = JsonProperty.Access.READ_ONLY)
+    private Boolean descriptionTruncated;
+    
     @NotBlank(message = "Scope is required")
     @Size(max = 255, message = "Scope must not exceed 255 characters")
     @JsonProperty("scope")
@@ -89,6 +96,10 @@ public class AddOrderDto {
     public void setTitle(String title) { this.title = title; }
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+    public String getDescriptionPreview() { return descriptionPreview; }
+    public void setDescriptionPreview(String descriptionPreview) { this.descriptionPreview = descriptionPreview; }
+    public Boolean getDescriptionTruncated() { return descriptionTruncated; }
+    public void setDescriptionTruncated(Boolean descriptionTruncated) { this.descriptionTruncated = descriptionTruncated; }
     public String getScope() { return scope; }
     public void setScope(String scope) { this.scope = scope; }
     public String getStackS() { return stackS; }
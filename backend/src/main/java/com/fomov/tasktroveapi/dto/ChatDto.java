@@ -15,6 +15,8 @@ public class ChatDto {
     private Boolean deletedByCustomer;
     private Boolean deletedByPerformer;
     private java.time.OffsetDateTime lastMessageTime;
+    private Integer lastMessageId;
+    private String lastMessagePreview;
 
     public ChatDto() {}
 
@@ -53,6 +55,10 @@ public class ChatDto {
     public void setDeletedByPerformer(Boolean deletedByPerformer) { this.deletedByPerformer = deletedByPerformer; }
     public java.time.OffsetDateTime getLastMessageTime() { return lastMessageTime; }
     public void setLastMessageTime(java.time.OffsetDateTime lastMessageTime) { this.lastMessageTime = lastMessageTime; }
+    public Integer getLastMessageId() { return lastMessageId; }
+    public void setLastMessageId(Integer lastMessageId) { this.lastMessageId = lastMessageId; }
+    public String getLastMessagePreview() { return lastMessagePreview; }
+    public void setLastMessagePreview(String lastMessagePreview) { this.lastMessagePreview = lastMessagePreview; }
 }
 
 
@@ -0,0 +1,27 @@
+package com.fomov.tasktroveapi.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Изменение строки списка чатов, отправляемое участнику в /user/queue/chats
+ */
+public class ChatUpdateDto {
+    private Integer chatId;
+    private Integer lastMessageId;
+    private OffsetDateTime lastMessageTime;
+    private String lastMessagePreview;
+    private Integer unreadCount;
+
+    public ChatUpdateDto() {}
+
+    public Integer getChatId() { return chatId; }
+    public void setChatId(Integer chatId) { this.chatId = chatId; }
+    public Integer getLastMessageId() { return lastMessageId; }
+    public void setLastMessageId(Integer lastMessageId) { this.lastMessageId = lastMessageId; }
+    public OffsetDateTime getLastMessageTime() { return lastMessageTime; }
+    public void setLastMessageTime(OffsetDateTime lastMessageTime) { this.lastMessageTime = lastMessageTime; }
+    public String getLastMessagePreview() { return lastMessagePreview; }
+    public void setLastMessagePreview(String lastMessagePreview) { this.lastMessagePreview = lastMessagePreview; }
+    public Integer getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(Integer unreadCount) { this.unreadCount = unreadCount; }
+}
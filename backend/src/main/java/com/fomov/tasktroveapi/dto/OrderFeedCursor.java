@@ -0,0 +1,104 @@
+package com.fomov.tasktroveapi.dto;
+
+import com.fomov.tasktroveapi.model.Orders;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+
+/**
+ * Курсор для keyset-пагинации ленты активных заказов.
+ * Хранит значение ключа сортировки и id последнего заказа на странице,
+ * сериализуется в непрозрачную строку для передачи клиенту.
+ */
+public class OrderFeedCursor {
+
+    public enum SortField {
+        PUBLICATION_TIME, BUDGET
+    }
+
+    private final SortField field;
+    private final boolean descending;
+    private final OffsetDateTime publicationTime;
+    private final BigDecimal budget;
+    // Заказы без бюджета отдаются после всех заказов с бюджетом, упорядоченные по id
+    private final boolean nullBudgetPhase;
+    private final Integer id;
+
+    private OrderFeedCursor(SortField field, boolean descending, OffsetDateTime publicationTime,
+                            BigDecimal budget, boolean nullBudgetPhase, Integer id) {
+        this.field = field;
+        this.descending = descending;
+        this.publicationTime = publicationTime;
+        this.budget = budget;
+        this.nullBudgetPhase = nullBudgetPhase;
+        this.id = id;
+    }
+
+    /**
+     * Курсор, указывающий на позицию после последнего заказа страницы
+     */
+    public static OrderFeedCursor after(SortField field, boolean descending, Orders last) {
+        if (field == SortField.BUDGET) {
+            return new OrderFeedCursor(field, descending, null, last.getBudget(), last.getBudget() == null, last.getId());
+        }
+        return new OrderFeedCursor(field, descending, last.getPublicationTime(), null, false, last.getId());
+    }
+
+    /**
+     * Курсор для перехода к заказам без бюджета после исчерпания заказов с бюджетом
+     */
+    public static OrderFeedCursor startOfNullBudgets(boolean descending) {
+        return new OrderFeedCursor(SortField.BUDGET, descending, null, null, true,
+                descending ? Integer.MAX_VALUE : 0);
+    }
+
+    public String encode() {
+        String value;
+        if (field == SortField.BUDGET) {
+            value = nullBudgetPhase ? "" : budget.toPlainString();
+        } else {
+            value = publicationTime.toString();
+        }
+        String raw = (field == SortField.BUDGET ? "b" : "t") + "|" + (descending ? "d" : "a") + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор, полученный от клиента
+     * @throws IllegalArgumentException если курсор поврежден
+     */
+    public static OrderFeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            boolean descending = "d".equals(parts[1]);
+            Integer id = Integer.valueOf(parts[3]);
+            if ("b".equals(parts[0])) {
+                boolean nullPhase = parts[2].isEmpty();
+                BigDecimal budget = nullPhase ? null : new BigDecimal(parts[2]);
+                return new OrderFeedCursor(SortField.BUDGET, descending, null, budget, nullPhase, id);
+            }
+            if ("t".equals(parts[0])) {
+                return new OrderFeedCursor(SortField.PUBLICATION_TIME, descending,
+                        OffsetDateTime.parse(parts[2]), null, false, id);
+            }
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public SortField getField() { return field; }
+    public boolean isDescending() { return descending; }
+    public OffsetDateTime getPublicationTime() { return publicationTime; }
+    public BigDecimal getBudget() { return budget; }
+    public boolean isNullBudgetPhase() { return nullBudgetPhase; }
+    public Integer getId() { return id; }
+}
@@ -0,0 +1,106 @@
+package com.fomov.tasktroveapi.dto;
+
+import com.fomov.tasktroveapi.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * JPQL-проекция заказа для списков: только колонки, которые показываются в списке,
+ * ФИО и email заказчика и исполнителя читаются тем же запросом через JOIN.
+ * Вместо полного описания хранится его начало длиной до {@link #DESCRIPTION_PREVIEW_LENGTH} символов;
+ * запрос читает на символ больше, чтобы отличить обрезанное описание от описания ровно такой длины.
+ */
+public class OrderListItem {
+
+    public static final int DESCRIPTION_PREVIEW_LENGTH = 300;
+
+    private final Integer id;
+    private final String title;
+    private final String scope;
+    private final String techStack;
+    private final String descriptionPreview;
+    private final boolean descriptionTruncated;
+    private final OrderStatus status;
+    private final Boolean isDeletedByCustomer;
+    private final OffsetDateTime publicationTime;
+    private final OffsetDateTime startTime;
+    private final OffsetDateTime endTime;
+    private final BigDecimal budget;
+    private final Boolean isSpecSent;
+    private final Integer replyBind;
+    private final Integer replyCount;
+    private final Integer customerId;
+    private final String customerName;
+    private final String customerEmail;
+    private final Integer performerId;
+    private final String performerName;
+    private final String performerEmail;
+
+    public OrderListItem(Integer id, String title, String scope, String techStack, String descriptionPreview,
+                         OrderStatus status, Boolean isDeletedByCustomer, OffsetDateTime publicationTime,
+                         OffsetDateTime startTime, OffsetDateTime endTime, BigDecimal budget,
+                         Boolean isSpecSent, Integer replyBind, Integer replyCount,
+                         Integer customerId, String customerLastName, String customerFirstName,
+                         String customerMiddleName, String customerEmail,
+                         Integer performerId, String performerLastName, String performerFirstName,
+                         String performerMiddleName, String performerEmail) {
+        this.id = id;
+        this.title = title;
+        this.scope = scope;
+        this.techStack = techStack;
+        this.descriptionTruncated = descriptionPreview != null
+                && descriptionPreview.length() > DESCRIPTION_PREVIEW_LENGTH;
+        this.descriptionPreview = descriptionTruncated
+                ? descriptionPreview.substring(0, DESCRIPTION_PREVIEW_LENGTH) : descriptionPreview;
+        this.status = status;
+        this.isDeletedByCustomer = isDeletedByCustomer;
+        this.publicationTime = publicationTime;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.budget = budget;
+        this.isSpecSent = isSpecSent;
+        this.replyBind = replyBind;
+        this.replyCount = replyCount;
+        this.customerId = customerId;
+        this.customerName = fullName(customerLastName, customerFirstName, customerMiddleName);
+        this.customerEmail = customerEmail;
+        this.performerId = performerId;
+        this.performerName = fullName(performerLastName, performerFirstName, performerMiddleName);
+        this.performerEmail = performerEmail;
+    }
+
+    // Та же сборка ФИО, что и в Customer.getFullName() / Performer.getFullName()
+    private static String fullName(String lastName, String firstName, String middleName) {
+        StringBuilder fullName = new StringBuilder();
+        for (String part : new String[] {lastName, firstName, middleName}) {
+            if (part != null && !part.trim().isEmpty()) {
+                if (fullName.length() > 0) fullName.append(" ");
+                fullName.append(part.trim());
+            }
+        }
+        return fullName.length() > 0 ? fullName.toString() : null;
+    }
+
+    public Integer getId() { return id; }
+    public String getTitle() { return title; }
+    public String getScope() { return scope; }
+    public String getTechStack() { return techStack; }
+    public String getDescriptionPreview() { return descriptionPreview; }
+    public boolean isDescriptionTruncated() { return descriptionTruncated; }
+    public OrderStatus getStatus() { return status; }
+    public Boolean getIsDeletedByCustomer() { return isDeletedByCustomer; }
+    public OffsetDateTime getPublicationTime() { return publicationTime; }
+    public OffsetDateTime getStartTime() { return startTime; }
+    public OffsetDateTime getEndTime() { return endTime; }
+    public BigDecimal getBudget() { return budget; }
+    public Boolean getIsSpecSent() { return isSpecSent; }
+    public Integer getReplyBind() { return replyBind; }
+    public Integer getReplyCount() { return replyCount; }
+    public Integer getCustomerId() { return customerId; }
+    public String getCustomerName() { return customerName; }
+    public String getCustomerEmail() { return customerEmail; }
+    public Integer getPerformerId() { return performerId; }
+    public String getPerformerName() { return performerName; }
+    public String getPerformerEmail() { return performerEmail; }
+}
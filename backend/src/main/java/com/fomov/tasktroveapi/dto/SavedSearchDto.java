@@ -0,0 +1,31 @@
+package com.fomov.tasktroveapi.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Data
+public class SavedSearchDto {
+
+    private Integer id;
+
+    @Size(max = 100, message = "Name must not exceed 100 characters")
+    private String name;
+
+    @Size(max = 255, message = "Keywords must not exceed 255 characters")
+    private String keywords;
+
+    @Size(max = 255, message = "Tech stack must not exceed 255 characters")
+    private String techStack;
+
+    @DecimalMin(value = "0", message = "Budget must not be negative")
+    private BigDecimal budgetMin;
+
+    @DecimalMin(value = "0", message = "Budget must not be negative")
+    private BigDecimal budgetMax;
+
+    private OffsetDateTime createdAt;
+}
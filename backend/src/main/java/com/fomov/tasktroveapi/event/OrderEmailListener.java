@@ -0,0 +1,68 @@
+package com.fomov.tasktroveapi.event;
+
+import com.fomov.tasktroveapi.model.Customer;
+import com.fomov.tasktroveapi.model.Performer;
+import com.fomov.tasktroveapi.repository.CustomerRepository;
+import com.fomov.tasktroveapi.repository.PerformerRepository;
+import com.fomov.tasktroveapi.service.EmailNotificationService;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Письма участникам заказа. Выполняется в транзакции публикации: письмо попадает
+ * в outbox вместе с изменением заказа и не теряется при падении после коммита.
+ */
+@Component
+public class OrderEmailListener implements OrderEventListener {
+
+    private static final Set<OrderEvent.Type> SUPPORTED = EnumSet.of(
+            OrderEvent.Type.PERFORMER_REFUSED,
+            OrderEvent.Type.WORK_SUBMITTED,
+            OrderEvent.Type.ORDER_REFUSED_BY_PERFORMER);
+
+    private final EmailNotificationService emailNotificationService;
+    private final CustomerRepository customerRepository;
+    private final PerformerRepository performerRepository;
+
+    public OrderEmailListener(EmailNotificationService emailNotificationService,
+                              CustomerRepository customerRepository,
+                              PerformerRepository performerRepository) {
+        this.emailNotificationService = emailNotificationService;
+        this.customerRepository = customerRepository;
+        this.performerRepository = performerRepository;
+    }
+
+    @Override
+    public boolean supports(OrderEvent.Type type) {
+        return SUPPORTED.contains(type);
+    }
+
+    @Override
+    public boolean inTransaction() {
+        return true;
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        switch (event.type()) {
+            case PERFORMER_REFUSED -> emailNotificationService.sendPerformerRefusalEmail(
+                    findPerformer(event.performerId()), event.performerName(), event.customerName(), event.orderTitle());
+            case WORK_SUBMITTED -> emailNotificationService.sendWorkCompletionEmail(
+                    findCustomer(event.customerId()), event.performerName(), event.orderTitle());
+            case ORDER_REFUSED_BY_PERFORMER -> emailNotificationService.sendCustomerRefusalEmail(
+                    findCustomer(event.customerId()), event.performerName(), event.orderTitle());
+            default -> {
+            }
+        }
+    }
+
+    private Customer findCustomer(Integer customerId) {
+        return customerId != null ? customerRepository.findByIdWithAccount(customerId).orElse(null) : null;
+    }
+
+    private Performer findPerformer(Integer performerId) {
+        return performerId != null ? performerRepository.findByIdWithAccount(performerId).orElse(null) : null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.fomov.tasktroveapi.event;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Событие жизненного цикла заказа. Содержит снимок данных на момент изменения,
+ * поэтому обработчикам не нужны сущности из завершившейся транзакции.
+ */
+public record OrderEvent(Type type,
+                         Integer orderId,
+                         String orderTitle,
+                         Integer customerId,
+                         Integer customerAccountId,
+                         String customerName,
+                         Integer performerId,
+                         Integer performerAccountId,
+                         String performerName,
+                         OffsetDateTime occurredAt) {
+
+    public enum Type {
+        // Заказчик выбрал исполнителя
+        PERFORMER_ASSIGNED,
+        // Заказчик выбрал другого исполнителя; событие на каждого не выбранного исполнителя
+        PERFORMER_NOT_SELECTED,
+        // Заказчик отказался от исполнителя
+        PERFORMER_REFUSED,
+        // Исполнитель сдал работу на проверку
+        WORK_SUBMITTED,
+        // Заказчик принял работу
+        ORDER_COMPLETED,
+        // Исполнитель отказался от заказа
+        ORDER_REFUSED_BY_PERFORMER,
+        // Администратор одобрил заказ, и он появился в ленте
+        ORDER_PUBLISHED
+    }
+
+    public static OrderEvent of(Type type, Integer orderId, String orderTitle,
+                                Integer customerId, Integer customerAccountId, String customerName,
+                                Integer performerId, Integer performerAccountId, String performerName) {
+        return new OrderEvent(type, orderId, orderTitle, customerId, customerAccountId, customerName,
+                performerId, performerAccountId, performerName, OffsetDateTime.now());
+    }
+}
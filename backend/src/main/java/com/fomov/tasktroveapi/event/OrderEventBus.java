@@ -0,0 +1,115 @@
+package com.fomov.tasktroveapi.event;
+
+import com.fomov.tasktroveapi.util.DaemonThreadPools;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шина событий заказа внутри процесса.
+ * События публикуются в бизнес-транзакции. Транзакционные обработчики (письма в outbox)
+ * вызываются сразу, в той же транзакции; остальные (уведомления) запускаются после коммита
+ * в ограниченном пуле потоков, поэтому HTTP-ответ не ждет побочных эффектов.
+ * При откате транзакции отложенные события отбрасываются.
+ */
+@Component
+public class OrderEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventBus.class);
+
+    private static final int WORKER_THREADS = 4;
+    private static final int WORKER_QUEUE_CAPACITY = 1000;
+
+    // Прямая зависимость от обработчиков: Spring останавливает шину раньше них,
+    // и доставки, выполняемые при остановке, не попадают в уже закрытые бины
+    private final List<OrderEventListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor workers;
+    private final Counter rejected;
+    private final Map<String, Timer> listenerTimers = new ConcurrentHashMap<>();
+
+    public OrderEventBus(List<OrderEventListener> listeners, MeterRegistry meterRegistry) {
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("order.events.rejected")
+                .description("Order event deliveries executed on the publishing thread because the queue was full")
+                .register(meterRegistry);
+        // Переполнение очереди и остановка пула не теряют событий:
+        // обработчик выполняется в потоке, завершившем транзакцию
+        this.workers = DaemonThreadPools.newFixedPool("order-events", WORKER_THREADS, WORKER_QUEUE_CAPACITY,
+                (runnable, executor) -> {
+                    rejected.increment();
+                    runnable.run();
+                });
+        Gauge.builder("order.events.queue.size", workers, executor -> executor.getQueue().size())
+                .description("Order event deliveries waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Публикует событие. Транзакционные обработчики вызываются сразу, и их ошибка откатывает
+     * транзакцию; остальные внутри транзакции будут вызваны только после ее коммита.
+     */
+    public void publish(OrderEvent event) {
+        for (OrderEventListener listener : listeners) {
+            if (listener.inTransaction() && listener.supports(event.type())) {
+                listener.onOrderEvent(event);
+            }
+        }
+        TransactionCallbacks.afterCommit(() -> dispatch(event));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Runnable> pending = DaemonThreadPools.shutdown(workers, 10);
+        if (!pending.isEmpty()) {
+            logger.warn("Order event bus stopped with {} undelivered events", pending.size());
+        }
+    }
+
+    private void dispatch(OrderEvent event) {
+        for (OrderEventListener listener : listeners) {
+            if (!listener.inTransaction() && listener.supports(event.type())) {
+                workers.execute(() -> deliver(listener, event));
+            }
+        }
+    }
+
+    private void deliver(OrderEventListener listener, OrderEvent event) {
+        String listenerName = listener.getClass().getSimpleName();
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            listener.onOrderEvent(event);
+        } catch (Exception e) {
+            outcome = "failure";
+            logger.error("Order event listener {} failed for {} of order {}",
+                    listenerName, event.type(), event.orderId(), e);
+        } finally {
+            listenerTimer(listenerName, event.type(), outcome)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer listenerTimer(String listenerName, OrderEvent.Type type, String outcome) {
+        return listenerTimers.computeIfAbsent(listenerName + ':' + type + ':' + outcome,
+                key -> Timer.builder("order.events.listener")
+                        .description("Order event listener execution time")
+                        .tag("listener", listenerName)
+                        .tag("type", type.name())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,23 @@
+package com.fomov.tasktroveapi.event;
+
+/**
+ * Обработчик событий заказа. По умолчанию вызывается асинхронно после коммита транзакции,
+ * в которой событие было опубликовано.
+ */
+public interface OrderEventListener {
+
+    /**
+     * Нужно ли вызывать обработчик для события; неподходящие события не попадают в пул
+     */
+    boolean supports(OrderEvent.Type type);
+
+    /**
+     * Вызывать ли обработчик синхронно в транзакции публикации. Нужно обработчикам,
+     * которые пишут в транзакционный outbox: запись фиксируется или откатывается вместе с заказом
+     */
+    default boolean inTransaction() {
+        return false;
+    }
+
+    void onOrderEvent(OrderEvent event);
+}
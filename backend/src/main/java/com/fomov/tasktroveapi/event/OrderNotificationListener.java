@@ -0,0 +1,75 @@
+package com.fomov.tasktroveapi.event;
+
+import com.fomov.tasktroveapi.service.NotificationService;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Уведомления в приложении для участников заказа
+ */
+@Component
+public class OrderNotificationListener implements OrderEventListener {
+
+    private static final Set<OrderEvent.Type> SUPPORTED = EnumSet.of(
+            OrderEvent.Type.PERFORMER_ASSIGNED,
+            OrderEvent.Type.PERFORMER_NOT_SELECTED,
+            OrderEvent.Type.PERFORMER_REFUSED,
+            OrderEvent.Type.WORK_SUBMITTED,
+            OrderEvent.Type.ORDER_COMPLETED,
+            OrderEvent.Type.ORDER_REFUSED_BY_PERFORMER);
+
+    private final NotificationService notificationService;
+
+    public OrderNotificationListener(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @Override
+    public boolean supports(OrderEvent.Type type) {
+        return SUPPORTED.contains(type);
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        switch (event.type()) {
+            case PERFORMER_ASSIGNED -> {
+                if (event.performerAccountId() != null) {
+                    notificationService.createAssignedNotification(event.performerAccountId(),
+                            event.customerId(), event.orderId(), event.orderTitle(), event.customerName());
+                }
+            }
+            case PERFORMER_NOT_SELECTED -> {
+                if (event.performerAccountId() != null) {
+                    notificationService.createPerformerNotSelectedNotification(event.performerAccountId(),
+                            event.customerId(), event.orderId(), event.orderTitle(), event.customerName());
+                }
+            }
+            case PERFORMER_REFUSED -> {
+                if (event.performerAccountId() != null) {
+                    notificationService.createRefusedNotification(event.performerAccountId(),
+                            event.performerId(), event.orderId(), event.orderTitle(), event.customerName());
+                }
+            }
+            case WORK_SUBMITTED -> {
+                if (event.customerAccountId() != null) {
+                    notificationService.createCompletedNotification(event.customerAccountId(),
+                            event.performerId(), event.orderId(), event.orderTitle(), event.performerName());
+                }
+            }
+            case ORDER_COMPLETED -> {
+                if (event.performerAccountId() != null) {
+                    notificationService.createOrderCompletedByCustomerNotification(event.performerAccountId(),
+                            event.customerId(), event.orderId(), event.orderTitle(), event.customerName());
+                }
+            }
+            case ORDER_REFUSED_BY_PERFORMER -> {
+                if (event.customerAccountId() != null) {
+                    notificationService.createPerformerRefusedNotification(event.customerAccountId(),
+                            event.performerId(), event.orderId(), event.orderTitle(), event.performerName());
+                }
+            }
+        }
+    }
+}
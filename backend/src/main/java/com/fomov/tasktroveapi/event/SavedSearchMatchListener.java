@@ -0,0 +1,47 @@
+package com.fomov.tasktroveapi.event;
+
+import com.fomov.tasktroveapi.service.SavedSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сверка опубликованного заказа с сохраненными поисками исполнителей.
+ * Событие дает быструю сверку сразу после одобрения, а периодический проход
+ * дообрабатывает заказы, событие о которых потерялось или пришло до построения индекса
+ */
+@Component
+public class SavedSearchMatchListener implements OrderEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchMatchListener.class);
+
+    private static final int PENDING_BATCH_SIZE = 100;
+
+    private final SavedSearchService savedSearchService;
+
+    public SavedSearchMatchListener(SavedSearchService savedSearchService) {
+        this.savedSearchService = savedSearchService;
+    }
+
+    @Override
+    public boolean supports(OrderEvent.Type type) {
+        return type == OrderEvent.Type.ORDER_PUBLISHED;
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        savedSearchService.notifyMatchingPerformers(event.orderId());
+    }
+
+    @Scheduled(fixedDelay = 30000) // 30 секунд
+    public void matchPendingOrders() {
+        for (Integer orderId : savedSearchService.findPendingMatchOrderIds(PENDING_BATCH_SIZE)) {
+            try {
+                savedSearchService.notifyMatchingPerformers(orderId);
+            } catch (Exception e) {
+                logger.error("Saved search matching failed for orderId={}", orderId, e);
+            }
+        }
+    }
+}
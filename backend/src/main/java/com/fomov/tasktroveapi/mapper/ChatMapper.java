@@ -78,6 +78,8 @@ public class ChatMapper {
         dto.setDeletedByCustomer(entity.getDeletedByCustomer());
         dto.setDeletedByPerformer(entity.getDeletedByPerformer());
         dto.setLastMessageTime(entity.getLastMessageTime());
+        dto.setLastMessageId(entity.getLastMessageId());
+        dto.setLastMessagePreview(entity.getLastMessagePreview());
         
         return dto;
     }
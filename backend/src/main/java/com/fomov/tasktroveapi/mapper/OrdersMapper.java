@@ -3,6 +3,7 @@ package com.fomov.tasktroveapi.mapper;
 import com.fomov.tasktroveapi.model.OrderStatus;
 import com.fomov.tasktroveapi.model.Orders;
 import com.fomov.tasktroveapi.dto.AddOrderDto;
+import com.fomov.tasktroveapi.dto.OrderListItem;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -15,6 +16,8 @@ public interface OrdersMapper {
     @Mapping(target = "performer", ignore = true)
     @Mapping(target = "replies", ignore = true)
     @Mapping(target = "replyBind", ignore = true)
+    @Mapping(target = "replyCount", ignore = true)
+    @Mapping(target = "savedSearchMatchPending", ignore = true)
     @Mapping(target = "publicationTime", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "techStack", ignore = true)
@@ -35,8 +38,52 @@ public interface OrdersMapper {
     @Mapping(target = "done", ignore = true)
     @Mapping(target = "onReview", ignore = true)
     @Mapping(target = "rejected", ignore = true)
+    @Mapping(target = "descriptionPreview", ignore = true)
+    @Mapping(target = "descriptionTruncated", ignore = true)
     AddOrderDto toDto(Orders entity);
     
+    /**
+     * DTO для списков из JPQL-проекции; поля совпадают с {@link #toDto(Orders)},
+     * но вместо description заполняется descriptionPreview с началом описания
+     */
+    default AddOrderDto toListDto(OrderListItem item) {
+        AddOrderDto dto = new AddOrderDto();
+        dto.setId(item.getId());
+        dto.setTitle(item.getTitle());
+        // Полное описание в списках не передается, только его начало
+        dto.setDescriptionPreview(item.getDescriptionPreview());
+        dto.setDescriptionTruncated(item.isDescriptionTruncated());
+        dto.setScope(item.getScope());
+        dto.setStackS(item.getTechStack());
+        dto.setPublicationTime(item.getPublicationTime());
+        dto.setStartTime(item.getStartTime());
+        dto.setEndTime(item.getEndTime());
+        dto.setBudget(item.getBudget());
+        dto.setIsSpecSent(item.getIsSpecSent());
+        dto.setReplyBind(item.getReplyBind());
+        dto.setHowReplies(item.getReplyCount() != null ? item.getReplyCount() : 0);
+        if (item.getCustomerId() != null) {
+            dto.setCustomerId(item.getCustomerId());
+            dto.setCustomerName(item.getCustomerName() != null ? item.getCustomerName() : "");
+            dto.setCustomerEmail(item.getCustomerEmail() != null ? item.getCustomerEmail() : "");
+        }
+        if (item.getPerformerId() != null) {
+            dto.setPerformerId(item.getPerformerId());
+            dto.setPerformerName(item.getPerformerName() != null ? item.getPerformerName() : "");
+            dto.setPerformerEmail(item.getPerformerEmail() != null ? item.getPerformerEmail() : "");
+        }
+        if (item.getStatus() != null) {
+            dto.setStatus(item.getStatus().name());
+            dto.setActived(item.getStatus() == OrderStatus.ACTIVE);
+            dto.setInProcess(item.getStatus() == OrderStatus.IN_PROCESS);
+            dto.setOnCheck(item.getStatus() == OrderStatus.ON_CHECK);
+            dto.setDone(item.getStatus() == OrderStatus.DONE);
+            dto.setOnReview(item.getStatus() == OrderStatus.ON_REVIEW);
+            dto.setRejected(item.getStatus() == OrderStatus.REJECTED);
+        }
+        return dto;
+    }
+    
     @AfterMapping
     default void afterMappingToEntity(@MappingTarget Orders orders, AddOrderDto dto) {
         // Устанавливаем значения по умолчанию если они не заданы
@@ -113,17 +160,8 @@ public interface OrdersMapper {
         } catch (Exception e) {
             // Lazy loading exception - игнорируем
         }
-        // Устанавливаем количество replies
-        try {
-            if (orders.getReplies() != null) {
-                dto.setHowReplies(orders.getReplies().size());
-            } else {
-                dto.setHowReplies(0);
-            }
-        } catch (Exception e) {
-            // Если коллекция не инициализирована (lazy loading), устанавливаем 0
-            dto.setHowReplies(0);
-        }
+        // Количество откликов берем из денормализованного счетчика
+        dto.setHowReplies(orders.getReplyCount() != null ? orders.getReplyCount() : 0);
         // Маппинг techStack -> stackS для обратной совместимости
         if (orders.getTechStack() != null && dto.getStackS() == null) {
             dto.setStackS(orders.getTechStack());
@@ -55,9 +55,7 @@ public interface ReplyMapper {
             if (order.getPublicationTime() != null) {
                 dto.setOrderPublicationTime(order.getPublicationTime().toString());
             }
-            if (order.getReplies() != null) {
-                dto.setOrderHowReplies(order.getReplies().size());
-            }
+            dto.setOrderHowReplies(order.getReplyCount() != null ? order.getReplyCount() : 0);
         }
         
         // Имя исполнителя
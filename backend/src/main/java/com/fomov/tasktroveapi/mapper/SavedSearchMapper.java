@@ -0,0 +1,12 @@
+package com.fomov.tasktroveapi.mapper;
+
+import com.fomov.tasktroveapi.dto.SavedSearchDto;
+import com.fomov.tasktroveapi.model.SavedSearch;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface SavedSearchMapper {
+
+    SavedSearchDto toDto(SavedSearch savedSearch);
+}
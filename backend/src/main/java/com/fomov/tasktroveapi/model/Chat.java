@@ -40,9 +40,17 @@ public class Chat {
     @Column(name = "room_name", nullable = false, length = 100)
     private String roomName;
     
-    @Column(name = "last_message_time")
+    // Данные последнего сообщения пишет только ChatLastMessageService условным UPDATE,
+    // поэтому при сохранении сущности они не перезаписываются устаревшими значениями
+    @Column(name = "last_message_time", updatable = false)
     private OffsetDateTime lastMessageTime;
     
+    @Column(name = "last_message_id", updatable = false)
+    private Integer lastMessageId;
+    
+    @Column(name = "last_message_preview", length = 255, updatable = false)
+    private String lastMessagePreview;
+    
     @Column(name = "check_by_customer", nullable = false)
     private Boolean checkByCustomer = false;
     
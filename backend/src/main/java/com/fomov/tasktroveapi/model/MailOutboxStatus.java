@@ -0,0 +1,8 @@
+package com.fomov.tasktroveapi.model;
+
+public enum MailOutboxStatus {
+    PENDING,   // Ожидает отправки (в том числе повторной)
+    SENDING,   // Взято обработчиком
+    SENT,      // Отправлено
+    DEAD       // Исчерпаны попытки отправки
+}
@@ -14,7 +14,8 @@ import java.util.Objects;
 @Table(name = "messages", indexes = {
     @Index(name = "idx_messages_chat_id", columnList = "chat_id"),
     @Index(name = "idx_messages_created", columnList = "created"),
-    @Index(name = "idx_messages_sender_id", columnList = "sender_id")
+    @Index(name = "idx_messages_sender_id", columnList = "sender_id"),
+    @Index(name = "idx_messages_chat_created", columnList = "chat_id, created, id")
 })
 @Getter
 @Setter
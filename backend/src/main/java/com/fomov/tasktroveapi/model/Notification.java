@@ -11,6 +11,7 @@ import java.util.Objects;
 @Table(name = "notifications", indexes = {
     @Index(name = "idx_notifications_account_id", columnList = "account_id"),
     @Index(name = "idx_notifications_is_read", columnList = "is_read"),
+    @Index(name = "idx_notifications_account_read", columnList = "account_id, is_read"),
     @Index(name = "idx_notifications_created_at", columnList = "created_at")
 })
 @Getter
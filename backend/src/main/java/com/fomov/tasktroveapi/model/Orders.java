@@ -1,5 +1,7 @@
 package com.fomov.tasktroveapi.model;
 
+import com.fomov.tasktroveapi.search.OrderRecommendationListener;
+import com.fomov.tasktroveapi.search.OrderSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,8 +20,14 @@ import java.util.Objects;
     @Index(name = "idx_orders_performer_id", columnList = "performer_id"),
     @Index(name = "idx_orders_publication_time", columnList = "publication_time"),
     @Index(name = "idx_orders_status", columnList = "status"),
-    @Index(name = "idx_orders_title", columnList = "title")
+    @Index(name = "idx_orders_title", columnList = "title"),
+    @Index(name = "idx_orders_feed_publication", columnList = "status, publication_time, id"),
+    @Index(name = "idx_orders_feed_budget", columnList = "status, budget, id"),
+    @Index(name = "idx_orders_customer_list", columnList = "customer_id, is_deleted_by_customer, status, publication_time"),
+    @Index(name = "idx_orders_performer_list", columnList = "performer_id, status, publication_time"),
+    @Index(name = "idx_orders_saved_search_pending", columnList = "saved_search_match_pending, id")
 })
+@EntityListeners({OrderSearchIndexListener.class, OrderRecommendationListener.class})
 @Getter
 @Setter
 @ToString
@@ -79,6 +87,18 @@ public class Orders {
     @Column(name = "reply_bind", nullable = false)
     private Integer replyBind = 0;
     
+    // Денормализованное количество откликов. Меняется только атомарными UPDATE
+    // из ReplyService, поэтому исключено из UPDATE при сохранении сущности.
+    // NULL только у заказов, созданных до появления колонки: их заполняет DataInitializer
+    @Column(name = "reply_count", updatable = false)
+    private Integer replyCount = 0;
+    
+    // Одобренный заказ еще не сверен с сохраненными поисками исполнителей.
+    // Меняется только атомарными UPDATE из SavedSearchService, как и reply_count
+    @Column(name = "saved_search_match_pending", nullable = false, updatable = false,
+            columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private Boolean savedSearchMatchPending = false;
+    
     @OneToMany(mappedBy = "orders", cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE}, fetch = FetchType.LAZY)
     @ToString.Exclude
     private List<Reply> replies = new ArrayList<>();
@@ -101,6 +121,12 @@ public class Orders {
         if (this.isSpecSent == null) {
             this.isSpecSent = false;
         }
+        if (this.replyCount == null) {
+            this.replyCount = 0;
+        }
+        if (this.savedSearchMatchPending == null) {
+            this.savedSearchMatchPending = false;
+        }
     }
     
     public Orders(String title, String scope, String description, Customer customer, Performer performer) {
@@ -114,6 +140,7 @@ public class Orders {
         this.status = OrderStatus.ACTIVE;
         this.isDeletedByCustomer = false;
         this.isSpecSent = false;
+        this.replyCount = 0;
     }
     
     // Helper methods for backward compatibility
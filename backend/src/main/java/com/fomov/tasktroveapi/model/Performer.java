@@ -47,9 +47,22 @@ public class Performer {
     @Column(name = "middle_name", length = 50)
     private String middleName;
     
-    @Column
+    // Рейтинг 0-100, производный от rating_sum / rating_count; пересчитывается в БД вместе с ними
+    @Column(updatable = false)
     private Integer rating;
     
+    // Агрегаты по отзывам заказчиков и выполненным заказам поддерживаются атомарными UPDATE
+    // в PerformerRepository, поэтому при сохранении сущности не перезаписываются.
+    // NULL только у исполнителей, созданных до появления колонок: их заполняет DataInitializer
+    @Column(name = "rating_sum", updatable = false)
+    private Long ratingSum = 0L;
+    
+    @Column(name = "rating_count", updatable = false)
+    private Integer ratingCount = 0;
+    
+    @Column(name = "completed_orders_count", updatable = false)
+    private Integer completedOrdersCount = 0;
+    
     @OneToMany(mappedBy = "performer", cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE}, fetch = FetchType.LAZY)
     @ToString.Exclude
     @JsonIgnore
@@ -75,6 +88,11 @@ public class Performer {
     @JsonIgnore
     private List<Portfolio> portfolios = new ArrayList<>();
     
+    @OneToMany(mappedBy = "performer", cascade = {CascadeType.REMOVE}, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @JsonIgnore
+    private List<SavedSearch> savedSearches = new ArrayList<>();
+    
     // Методы для работы со связанными сущностями
     public void addChat(Chat chat) {
         chats.add(chat);
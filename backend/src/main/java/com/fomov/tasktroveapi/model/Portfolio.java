@@ -1,6 +1,7 @@
 package com.fomov.tasktroveapi.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fomov.tasktroveapi.search.PortfolioRecommendationListener;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,6 +18,7 @@ import java.util.Objects;
     @Index(name = "idx_portfolios_is_active", columnList = "is_active"),
     @Index(name = "idx_portfolios_owner_type", columnList = "owner_type")
 })
+@EntityListeners(PortfolioRecommendationListener.class)
 @Getter
 @Setter
 @ToString
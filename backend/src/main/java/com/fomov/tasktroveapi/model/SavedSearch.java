@@ -0,0 +1,91 @@
+package com.fomov.tasktroveapi.model;
+
+import com.fomov.tasktroveapi.search.SavedSearchIndexListener;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * Сохраненный поиск исполнителя: ключевые слова, технологии и диапазон бюджета.
+ * Новые одобренные заказы сверяются со всеми сохраненными поисками,
+ * совпавшие исполнители получают уведомление.
+ */
+@Entity
+@Table(name = "saved_searches", indexes = {
+    @Index(name = "idx_saved_searches_performer", columnList = "performer_id")
+})
+@EntityListeners(SavedSearchIndexListener.class)
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class SavedSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "performer_id", nullable = false,
+                foreignKey = @ForeignKey(name = "fk_saved_searches_performer"))
+    @ToString.Exclude
+    private Performer performer;
+
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "keywords", length = 255)
+    private String keywords;
+
+    @Column(name = "tech_stack", length = 255)
+    private String techStack;
+
+    @Column(name = "budget_min", precision = 15, scale = 2)
+    private BigDecimal budgetMin;
+
+    @Column(name = "budget_max", precision = 15, scale = 2)
+    private BigDecimal budgetMax;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @PrePersist
+    private void init() {
+        if (this.createdAt == null) {
+            this.createdAt = OffsetDateTime.now();
+        }
+    }
+
+    public SavedSearch(Performer performer, String name, String keywords, String techStack,
+                       BigDecimal budgetMin, BigDecimal budgetMax) {
+        this.performer = performer;
+        this.name = name;
+        this.keywords = keywords;
+        this.techStack = techStack;
+        this.budgetMin = budgetMin;
+        this.budgetMax = budgetMax;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+        Class<?> oEffectiveClass = o instanceof HibernateProxy proxy ? proxy.getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy proxy ? proxy.getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) return false;
+        SavedSearch savedSearch = (SavedSearch) o;
+        return getId() != null && Objects.equals(getId(), savedSearch.getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return this instanceof HibernateProxy proxy ? proxy.getHibernateLazyInitializer().getPersistentClass().hashCode() : getClass().hashCode();
+    }
+}
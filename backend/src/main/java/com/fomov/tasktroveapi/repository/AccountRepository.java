@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -21,6 +23,13 @@ public interface AccountRepository extends JpaRepository<Account, Integer> {
     @Query("SELECT a FROM Account a LEFT JOIN FETCH a.role")
     java.util.List<Account> findAllWithRole();
     
+    @Query("SELECT a.id FROM Account a WHERE a.role.name IN :roleNames ORDER BY a.id")
+    java.util.List<Integer> findIdsByRoleNames(@Param("roleNames") java.util.Collection<String> roleNames);
+    
+    // Существующие аккаунты из списка; FOR SHARE не дает удалить их до конца транзакции
+    @Query(value = "SELECT id FROM accounts WHERE id IN (:ids) FOR SHARE", nativeQuery = true)
+    List<Integer> lockExistingIds(@Param("ids") Collection<Integer> ids);
+    
     // Deprecated: Use findByEmail instead
     @Deprecated
     default Optional<Account> findByLogin(String login) {
@@ -2,10 +2,13 @@ package com.fomov.tasktroveapi.repository;
 
 import com.fomov.tasktroveapi.model.Chat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -80,6 +83,43 @@ public interface ChatRepository extends JpaRepository<Chat, Integer> {
     List<Chat> findByCustomerIdAndPerformerIdIgnoreDeleted(@Param("customerId") Integer customerId, 
                                                            @Param("performerId") Integer performerId);
     
+    // Данные последнего сообщения меняются только вперед: запоздавшее обновление не затрет более новое
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE chats SET last_message_id = :messageId, last_message_time = :created, " +
+                   "last_message_preview = :preview " +
+                   "WHERE id = :chatId AND (last_message_id IS NULL OR last_message_id < :messageId) " +
+                   // Сообщение могли удалить, пока обновление ждало записи
+                   "AND EXISTS (SELECT 1 FROM messages m WHERE m.id = :messageId)", nativeQuery = true)
+    int updateLastMessage(@Param("chatId") Integer chatId,
+                          @Param("messageId") Integer messageId,
+                          @Param("created") OffsetDateTime created,
+                          @Param("preview") String preview);
+    
+    // Заполнение данных последнего сообщения для чатов, созданных до появления колонок.
+    // Группировка идет только по сообщениям незаполненных чатов, поэтому повторный запуск почти бесплатен
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE chats c " +
+                   "JOIN (SELECT m2.chat_id, MAX(m2.id) AS max_id FROM messages m2 " +
+                   "      JOIN chats c2 ON c2.id = m2.chat_id WHERE c2.last_message_id IS NULL " +
+                   "      GROUP BY m2.chat_id) lm ON lm.chat_id = c.id " +
+                   "JOIN messages m ON m.id = lm.max_id " +
+                   "SET c.last_message_id = m.id, c.last_message_time = m.created, " +
+                   "c.last_message_preview = LEFT(m.text, :previewLength) " +
+                   "WHERE c.last_message_id IS NULL", nativeQuery = true)
+    int backfillLastMessages(@Param("previewLength") int previewLength);
+    
+    // Пересчет данных последнего сообщения чата по оставшимся сообщениям (после удаления)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE chats c " +
+                   "LEFT JOIN messages m ON m.id = (SELECT MAX(m2.id) FROM messages m2 WHERE m2.chat_id = :chatId) " +
+                   "SET c.last_message_id = m.id, c.last_message_time = m.created, " +
+                   "c.last_message_preview = LEFT(m.text, :previewLength) " +
+                   "WHERE c.id = :chatId", nativeQuery = true)
+    int recalculateLastMessage(@Param("chatId") Integer chatId, @Param("previewLength") int previewLength);
+    
     // Deprecated: Use findByRoomNameWithRelations instead
     @Deprecated
     List<Chat> findByRoomName(String roomName);
@@ -0,0 +1,54 @@
+package com.fomov.tasktroveapi.repository;
+
+import com.fomov.tasktroveapi.model.MailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Integer> {
+
+    // id писем, время отправки которых наступило
+    @Query("SELECT m.id FROM MailOutbox m WHERE m.status = com.fomov.tasktroveapi.model.MailOutboxStatus.PENDING " +
+           "AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt ASC")
+    List<Integer> findDueIds(@Param("now") OffsetDateTime now, Pageable pageable);
+
+    // Захват письма обработчиком: успешен только для одного из конкурирующих обработчиков
+    @Modifying
+    @Transactional
+    @Query("UPDATE MailOutbox m SET m.status = com.fomov.tasktroveapi.model.MailOutboxStatus.SENDING, m.nextAttemptAt = :now " +
+           "WHERE m.id = :id AND m.status = com.fomov.tasktroveapi.model.MailOutboxStatus.PENDING")
+    int claim(@Param("id") Integer id, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MailOutbox m SET m.status = com.fomov.tasktroveapi.model.MailOutboxStatus.SENT, m.sentAt = :now, " +
+           "m.attempts = m.attempts + 1, m.lastError = NULL WHERE m.id = :id")
+    int markSent(@Param("id") Integer id, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MailOutbox m SET m.status = com.fomov.tasktroveapi.model.MailOutboxStatus.PENDING, " +
+           "m.attempts = m.attempts + 1, m.nextAttemptAt = :nextAttemptAt, m.lastError = :error WHERE m.id = :id")
+    int scheduleRetry(@Param("id") Integer id, @Param("nextAttemptAt") OffsetDateTime nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MailOutbox m SET m.status = com.fomov.tasktroveapi.model.MailOutboxStatus.DEAD, " +
+           "m.attempts = m.attempts + 1, m.lastError = :error WHERE m.id = :id")
+    int markDead(@Param("id") Integer id, @Param("error") String error);
+
+    // Возврат в очередь писем, зависших в SENDING (например, после перезапуска приложения)
+    @Modifying
+    @Transactional
+    @Query("UPDATE MailOutbox m SET m.status = com.fomov.tasktroveapi.model.MailOutboxStatus.PENDING " +
+           "WHERE m.status = com.fomov.tasktroveapi.model.MailOutboxStatus.SENDING AND m.nextAttemptAt < :claimedBefore")
+    int releaseStuck(@Param("claimedBefore") OffsetDateTime claimedBefore);
+}
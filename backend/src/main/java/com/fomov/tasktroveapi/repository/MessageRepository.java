@@ -1,11 +1,16 @@
 package com.fomov.tasktroveapi.repository;
 
 import com.fomov.tasktroveapi.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +20,30 @@ public interface MessageRepository extends JpaRepository<Message, Integer> {
     @Query("SELECT m FROM Message m LEFT JOIN FETCH m.chat WHERE m.chat.id = :chatId ORDER BY m.created ASC")
     List<Message> findByChatIdWithChat(@Param("chatId") Integer chatId);
     
+    // Постраничная история чата по индексу idx_messages_chat_created: курсор - пара (created, id) сообщения
+    @Query("SELECT m FROM Message m LEFT JOIN FETCH m.chat WHERE m.chat.id = :chatId " +
+           "ORDER BY m.created DESC, m.id DESC")
+    List<Message> findLatestByChatId(@Param("chatId") Integer chatId, Pageable pageable);
+    
+    @Query("SELECT m FROM Message m LEFT JOIN FETCH m.chat WHERE m.chat.id = :chatId " +
+           "AND (m.created < :created OR (m.created = :created AND m.id < :id)) " +
+           "ORDER BY m.created DESC, m.id DESC")
+    List<Message> findByChatIdBefore(@Param("chatId") Integer chatId,
+                                     @Param("created") OffsetDateTime created,
+                                     @Param("id") Integer id,
+                                     Pageable pageable);
+    
+    @Query("SELECT m FROM Message m LEFT JOIN FETCH m.chat WHERE m.chat.id = :chatId " +
+           "AND (m.created > :created OR (m.created = :created AND m.id > :id)) " +
+           "ORDER BY m.created ASC, m.id ASC")
+    List<Message> findByChatIdAfter(@Param("chatId") Integer chatId,
+                                    @Param("created") OffsetDateTime created,
+                                    @Param("id") Integer id,
+                                    Pageable pageable);
+    
+    @Query("SELECT m.created FROM Message m WHERE m.id = :id AND m.chat.id = :chatId")
+    Optional<OffsetDateTime> findCreatedByIdAndChatId(@Param("id") Integer id, @Param("chatId") Integer chatId);
+    
     @Query("SELECT m FROM Message m LEFT JOIN FETCH m.chat WHERE m.id = :id")
     Optional<Message> findByIdWithChat(@Param("id") Integer id);
     
@@ -28,6 +57,26 @@ public interface MessageRepository extends JpaRepository<Message, Integer> {
                                           @Param("userId") Integer userId,
                                           @Param("lastCheckedTime") java.time.OffsetDateTime lastCheckedTime);
     
+    // Непрочитанные сообщения по нескольким чатам заказчика одним запросом: [Integer chatId, Long count].
+    // Отдельная транзакция: при REPEATABLE READ снимок внешней транзакции мог быть зафиксирован
+    // раньше, чем ChatUnreadCounterService запомнил версии счетчиков, и подсчет оказался бы устаревшим
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("SELECT c.id, COUNT(m) FROM Message m JOIN m.chat c WHERE c.id IN :chatIds " +
+           "AND m.sender.id <> :accountId " +
+           "AND (c.lastCheckedByCustomerTime IS NULL OR m.created > c.lastCheckedByCustomerTime) " +
+           "GROUP BY c.id")
+    List<Object[]> countUnreadForCustomer(@Param("chatIds") Collection<Integer> chatIds,
+                                          @Param("accountId") Integer accountId);
+    
+    // Непрочитанные сообщения по нескольким чатам исполнителя: [Integer chatId, Long count]; транзакция отдельная, как выше
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("SELECT c.id, COUNT(m) FROM Message m JOIN m.chat c WHERE c.id IN :chatIds " +
+           "AND m.sender.id <> :accountId " +
+           "AND (c.lastCheckedByPerformerTime IS NULL OR m.created > c.lastCheckedByPerformerTime) " +
+           "GROUP BY c.id")
+    List<Object[]> countUnreadForPerformer(@Param("chatIds") Collection<Integer> chatIds,
+                                           @Param("accountId") Integer accountId);
+    
     // Deprecated: Use findByChatIdWithChat instead
     @Deprecated
     List<Message> findByChat_Id(Integer chatId);
@@ -1,10 +1,14 @@
 package com.fomov.tasktroveapi.repository;
 
 import com.fomov.tasktroveapi.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -17,6 +21,24 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
     @Query("SELECT n FROM Notification n WHERE n.account.id = :accountId AND n.isRead = :isRead ORDER BY n.createdAt DESC")
     List<Notification> findByAccountIdAndIsReadOrderByCreatedAtDesc(@Param("accountId") Integer accountId, @Param("isRead") Boolean isRead);
     
+    // Уведомления, созданные после указанного (догрузка после переподключения к WebSocket)
+    @Query("SELECT n FROM Notification n WHERE n.account.id = :accountId AND n.id > :afterId ORDER BY n.id ASC")
+    List<Notification> findByAccountIdAndIdGreaterThan(@Param("accountId") Integer accountId, @Param("afterId") Integer afterId, Pageable pageable);
+    
+    // Массовая отметка о прочтении порциями (MySQL UPDATE ... LIMIT)
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE notifications SET is_read = true WHERE account_id = :accountId AND is_read = false LIMIT :limit", nativeQuery = true)
+    int markAllAsReadChunk(@Param("accountId") Integer accountId, @Param("limit") int limit);
+    
+    // Массовое удаление порциями (MySQL DELETE ... LIMIT)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notifications WHERE account_id = :accountId LIMIT :limit", nativeQuery = true)
+    int deleteAllByAccountIdChunk(@Param("accountId") Integer accountId, @Param("limit") int limit);
+    
+    // Собственная транзакция: снимок открывается после того, как сервис запомнил версию счетчика
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.account.id = :accountId AND n.isRead = false")
     Long countUnreadByAccountId(@Param("accountId") Integer accountId);
 }
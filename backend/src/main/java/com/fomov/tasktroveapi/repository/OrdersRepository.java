@@ -1,45 +1,198 @@
 package com.fomov.tasktroveapi.repository;
 
+import com.fomov.tasktroveapi.dto.OrderListItem;
 import com.fomov.tasktroveapi.model.OrderStatus;
 import com.fomov.tasktroveapi.model.Orders;
+import com.fomov.tasktroveapi.search.OrderSearchDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrdersRepository extends JpaRepository<Orders, Integer> {
-    @Query("SELECT DISTINCT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer LEFT JOIN FETCH o.replies WHERE LOWER(o.title) LIKE LOWER(CONCAT('%', :title, '%'))")
+    
+    // Проекция для списков заказов: без полного описания и без загрузки связанных сущностей
+    String LIST_ITEM_QUERY = "SELECT new com.fomov.tasktroveapi.dto.OrderListItem(o.id, o.title, o.scope, o.techStack, " +
+           "SUBSTRING(o.description, 1, " + (OrderListItem.DESCRIPTION_PREVIEW_LENGTH + 1) + "), o.status, o.isDeletedByCustomer, " +
+           "o.publicationTime, o.startTime, o.endTime, o.budget, o.isSpecSent, o.replyBind, o.replyCount, " +
+           "c.id, c.lastName, c.firstName, c.middleName, ca.email, p.id, p.lastName, p.firstName, p.middleName, pa.email) " +
+           "FROM Orders o LEFT JOIN o.customer c LEFT JOIN c.account ca LEFT JOIN o.performer p LEFT JOIN p.account pa ";
+    
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE LOWER(o.title) LIKE LOWER(CONCAT('%', :title, '%'))")
     List<Orders> findByTitleContainingIgnoreCase(@Param("title") String title);
     
-    @Query("SELECT DISTINCT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer LEFT JOIN FETCH o.replies WHERE LOWER(o.title) LIKE LOWER(CONCAT('%', :title, '%')) AND o.status = 'ACTIVE' AND o.performer IS NULL")
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE LOWER(o.title) LIKE LOWER(CONCAT('%', :title, '%')) AND o.status = 'ACTIVE' AND o.performer IS NULL")
     List<Orders> findByTitleContainingIgnoreCaseAndActive(@Param("title") String title);
     
-    @Query("SELECT DISTINCT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer LEFT JOIN FETCH o.replies WHERE o.status = :status AND o.performer IS NULL")
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE o.status = :status AND o.performer IS NULL")
     List<Orders> findByStatusAndPerformerIsNull(@Param("status") OrderStatus status);
     
-    @Query("SELECT DISTINCT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer LEFT JOIN FETCH o.replies WHERE o.status = 'ACTIVE' AND o.performer IS NULL")
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE o.status = 'ACTIVE' AND o.performer IS NULL")
     List<Orders> findAllActive();
     
-    @Query("SELECT DISTINCT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer LEFT JOIN FETCH o.replies WHERE o.customer.id = :customerId")
+    // Лента активных заказов: первая страница (сортировка и смещение задаются через Pageable)
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account WHERE o.status = 'ACTIVE' AND o.performer IS NULL")
+    List<Orders> findActiveFeed(Pageable pageable);
+    
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account WHERE o.status = 'ACTIVE' AND o.performer IS NULL AND LOWER(o.title) LIKE LOWER(CONCAT('%', :title, '%'))")
+    List<Orders> findActiveFeedByTitleContaining(@Param("title") String title, Pageable pageable);
+    
+    // Keyset-пагинация ленты по (publication_time, id)
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account WHERE o.status = 'ACTIVE' AND o.performer IS NULL " +
+           "AND (o.publicationTime < :publicationTime OR (o.publicationTime = :publicationTime AND o.id < :id)) " +
+           "ORDER BY o.publicationTime DESC, o.id DESC")
+    List<Orders> findActiveFeedPublishedBefore(@Param("publicationTime") OffsetDateTime publicationTime, @Param("id") Integer id, Pageable pageable);
+    
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account WHERE o.status = 'ACTIVE' AND o.performer IS NULL " +
+           "AND (o.publicationTime > :publicationTime OR (o.publicationTime = :publicationTime AND o.id > :id)) " +
+           "ORDER BY o.publicationTime ASC, o.id ASC")
+    List<Orders> findActiveFeedPublishedAfter(@Param("publicationTime") OffsetDateTime publicationTime, @Param("id") Integer id, Pageable pageable);
+    
+    // Keyset-пагинация ленты по (budget, id); заказы без бюджета идут последними
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account WHERE o.status = 'ACTIVE' AND o.performer IS NULL " +
+           "AND o.budget IS NOT NULL AND (o.budget < :budget OR (o.budget = :budget AND o.id < :id)) " +
+           "ORDER BY o.budget DESC, o.id DESC")
+    List<Orders> findActiveFeedBudgetBelow(@Param("budget") BigDecimal budget, @Param("id") Integer id, Pageable pageable);
+    
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account WHERE o.status = 'ACTIVE' AND o.performer IS NULL " +
+           "AND o.budget IS NOT NULL AND (o.budget > :budget OR (o.budget = :budget AND o.id > :id)) " +
+           "ORDER BY o.budget ASC, o.id ASC")
+    List<Orders> findActiveFeedBudgetAbove(@Param("budget") BigDecimal budget, @Param("id") Integer id, Pageable pageable);
+    
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account WHERE o.status = 'ACTIVE' AND o.performer IS NULL " +
+           "AND o.budget IS NULL AND o.id < :id ORDER BY o.id DESC")
+    List<Orders> findActiveFeedWithoutBudgetBefore(@Param("id") Integer id, Pageable pageable);
+    
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account WHERE o.status = 'ACTIVE' AND o.performer IS NULL " +
+           "AND o.budget IS NULL AND o.id > :id ORDER BY o.id ASC")
+    List<Orders> findActiveFeedWithoutBudgetAfter(@Param("id") Integer id, Pageable pageable);
+    
+    // Загрузка страницы результатов полнотекстового поиска по id из индекса
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account LEFT JOIN FETCH o.performer p LEFT JOIN FETCH p.account WHERE o.id IN :ids")
+    List<Orders> findAllByIdInWithRelations(@Param("ids") List<Integer> ids);
+    
+    // Порционное чтение заказов для построения поискового индекса
+    @Query("SELECT new com.fomov.tasktroveapi.search.OrderSearchDocument(o.id, o.title, o.scope, o.techStack, o.description, " +
+           "o.status, c.id, p.id, o.isDeletedByCustomer, o.publicationTime) " +
+           "FROM Orders o JOIN o.customer c LEFT JOIN o.performer p WHERE o.id > :afterId ORDER BY o.id")
+    List<OrderSearchDocument> findSearchDocumentsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+    
+    // Только открытые заказы ленты: индексу рекомендаций остальные не нужны
+    @Query("SELECT new com.fomov.tasktroveapi.search.OrderSearchDocument(o.id, o.title, o.scope, o.techStack, o.description, " +
+           "o.status, c.id, p.id, o.isDeletedByCustomer, o.publicationTime) " +
+           "FROM Orders o JOIN o.customer c LEFT JOIN o.performer p " +
+           "WHERE o.id > :afterId AND o.status = 'ACTIVE' AND o.performer IS NULL ORDER BY o.id")
+    List<OrderSearchDocument> findOpenSearchDocumentsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+    
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE o.customer.id = :customerId")
     List<Orders> findByCustomerId(@Param("customerId") Integer customerId);
     
-    @Query("SELECT DISTINCT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer LEFT JOIN FETCH o.replies WHERE o.customer.id = :customerId AND (LOWER(o.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(o.scope) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(o.techStack) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE o.customer.id = :customerId AND (LOWER(o.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(o.scope) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(o.techStack) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     List<Orders> findByCustomerIdAndSearchTerm(@Param("customerId") Integer customerId, @Param("searchTerm") String searchTerm);
     
     @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account LEFT JOIN FETCH o.performer p LEFT JOIN FETCH p.account WHERE o.performer.id = :performerId")
     List<Orders> findByPerformerId(@Param("performerId") Integer performerId);
     
-    @Query("SELECT DISTINCT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE o.status = :status")
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE o.status = :status")
     List<Orders> findByStatus(@Param("status") OrderStatus status);
     
-    @Query("SELECT DISTINCT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account LEFT JOIN FETCH o.performer p LEFT JOIN FETCH p.account LEFT JOIN FETCH o.replies")
+    @Query(LIST_ITEM_QUERY)
+    List<OrderListItem> findAllListItems();
+    
+    @Query(LIST_ITEM_QUERY + "WHERE o.status = :status")
+    List<OrderListItem> findListItemsByStatus(@Param("status") OrderStatus status);
+    
+    @Query(LIST_ITEM_QUERY + "WHERE LOWER(o.title) LIKE LOWER(CONCAT('%', :title, '%'))")
+    List<OrderListItem> findListItemsByTitleContaining(@Param("title") String title);
+    
+    // Страницы "моих заказов" заказчика по индексу idx_orders_customer_list; удаленные им заказы не попадают
+    @Query(LIST_ITEM_QUERY + "WHERE c.id = :customerId AND o.isDeletedByCustomer = false")
+    Slice<OrderListItem> findListItemsByCustomerId(@Param("customerId") Integer customerId, Pageable pageable);
+    
+    @Query(LIST_ITEM_QUERY + "WHERE c.id = :customerId AND o.isDeletedByCustomer = false AND o.status IN :statuses")
+    Slice<OrderListItem> findListItemsByCustomerIdAndStatusIn(@Param("customerId") Integer customerId,
+                                                             @Param("statuses") Collection<OrderStatus> statuses,
+                                                             Pageable pageable);
+    
+    @Query(LIST_ITEM_QUERY + "WHERE c.id = :customerId AND o.isDeletedByCustomer = false AND o.status IN :statuses " +
+           "AND (LOWER(o.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(o.scope) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(o.techStack) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
+    Slice<OrderListItem> findListItemsByCustomerIdAndSearchTerm(@Param("customerId") Integer customerId,
+                                                               @Param("statuses") Collection<OrderStatus> statuses,
+                                                               @Param("searchTerm") String searchTerm,
+                                                               Pageable pageable);
+    
+    // Незавершенные заказы исполнителя по индексу idx_orders_performer_list
+    @Query(LIST_ITEM_QUERY + "WHERE p.id = :performerId AND o.status <> :excludedStatus")
+    Slice<OrderListItem> findListItemsByPerformerIdAndStatusNot(@Param("performerId") Integer performerId,
+                                                               @Param("excludedStatus") OrderStatus excludedStatus,
+                                                               Pageable pageable);
+    
+    @Query(LIST_ITEM_QUERY + "WHERE p.id = :performerId AND o.status <> :excludedStatus " +
+           "AND (LOWER(o.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(o.scope) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(o.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
+    Slice<OrderListItem> findListItemsByPerformerIdAndSearchTerm(@Param("performerId") Integer performerId,
+                                                                @Param("excludedStatus") OrderStatus excludedStatus,
+                                                                @Param("searchTerm") String searchTerm,
+                                                                Pageable pageable);
+    
+    // Загрузка страницы результатов полнотекстового поиска в виде проекции
+    @Query(LIST_ITEM_QUERY + "WHERE o.id IN :ids")
+    List<OrderListItem> findListItemsByIdIn(@Param("ids") List<Integer> ids);
+    
+    // Статус и исполнитель заказов, связанных с чатами: [Integer id, OrderStatus status, Integer performerId]
+    @Query("SELECT o.id, o.status, p.id FROM Orders o LEFT JOIN o.performer p WHERE o.id IN :ids")
+    List<Object[]> findStatusAndPerformerByIds(@Param("ids") Collection<Integer> ids);
+    
+    // Количество заказов по статусам одним запросом по индексу idx_orders_status: [OrderStatus, Long]
+    @Query("SELECT o.status, COUNT(o) FROM Orders o GROUP BY o.status")
+    List<Object[]> countGroupedByStatus();
+    
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer c LEFT JOIN FETCH c.account LEFT JOIN FETCH o.performer p LEFT JOIN FETCH p.account")
     List<Orders> findAll();
     
-    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer LEFT JOIN FETCH o.replies WHERE o.id = :id")
+    @Query("SELECT o FROM Orders o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.performer WHERE o.id = :id")
     java.util.Optional<Orders> findById(@Param("id") Integer id);
+    
+    // Атомарное изменение счетчика откликов
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE orders SET reply_count = GREATEST(reply_count + :delta, 0) WHERE id = :orderId", nativeQuery = true)
+    int adjustReplyCount(@Param("orderId") Integer orderId, @Param("delta") int delta);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE orders SET reply_count = 0 WHERE id = :orderId", nativeQuery = true)
+    int resetReplyCount(@Param("orderId") Integer orderId);
+    
+    // Заказы, ожидающие сверки с сохраненными поисками
+    @Query("SELECT o.id FROM Orders o WHERE o.savedSearchMatchPending = true ORDER BY o.id")
+    List<Integer> findSavedSearchMatchPendingIds(Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE orders SET saved_search_match_pending = TRUE WHERE id = :orderId", nativeQuery = true)
+    int markSavedSearchMatchPending(@Param("orderId") Integer orderId);
+    
+    // Захват сверки: из параллельных попыток (событие и периодическая догонка) проходит одна
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE orders SET saved_search_match_pending = FALSE " +
+                   "WHERE id = :orderId AND saved_search_match_pending = TRUE", nativeQuery = true)
+    int claimSavedSearchMatch(@Param("orderId") Integer orderId);
+    
+    // Заполнение счетчиков у заказов, созданных до появления колонки; заполненные заказы не пересчитываются
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE orders o SET o.reply_count = (SELECT COUNT(*) FROM replies r WHERE r.order_id = o.id) " +
+                   "WHERE o.reply_count IS NULL", nativeQuery = true)
+    int backfillReplyCounts();
 }
-
-
@@ -1,11 +1,17 @@
 package com.fomov.tasktroveapi.repository;
 
 import com.fomov.tasktroveapi.model.Performer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,9 +24,54 @@ public interface PerformerRepository extends JpaRepository<Performer, Integer> {
     
     Optional<Performer> findByAccountId(Integer accountId);
     
+    // Блокировка строки исполнителя: сериализует проверку лимитов и вставку его данных
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Performer p WHERE p.account.id = :accountId")
+    Optional<Performer> findByAccountIdForUpdate(@Param("accountId") Integer accountId);
+    
+    // id аккаунтов исполнителей для адресной рассылки уведомлений; удаленные исполнители не попадают
+    @Query("SELECT p.account.id FROM Performer p WHERE p.id IN :ids")
+    List<Integer> findAccountIdsByIds(@Param("ids") Collection<Integer> ids);
+    
     @Query("SELECT p FROM Performer p LEFT JOIN FETCH p.account WHERE p.id = :id")
     Optional<Performer> findByIdWithAccount(@Param("id") Integer id);
     
-    @Query("SELECT p FROM Performer p LEFT JOIN FETCH p.account")
+    // Рейтинг хранится в строке исполнителя, поэтому сортировка идет по индексу idx_performers_rating
+    @Query("SELECT p FROM Performer p LEFT JOIN FETCH p.account ORDER BY p.rating DESC, p.id ASC")
     java.util.List<Performer> findAllOrderByRatingDesc();
+    
+    // MySQL вычисляет присваивания UPDATE слева направо, поэтому rating считается по уже обновленным сумме и количеству
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE performers SET rating_sum = GREATEST(rating_sum + :rateDelta, 0), " +
+                   "rating_count = GREATEST(rating_count + :countDelta, 0), " +
+                   "rating = CASE WHEN rating_count > 0 THEN ROUND(rating_sum * 20 / rating_count) ELSE 0 END " +
+                   "WHERE id = :performerId", nativeQuery = true)
+    int adjustRating(@Param("performerId") Integer performerId,
+                     @Param("rateDelta") int rateDelta,
+                     @Param("countDelta") int countDelta);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE performers SET completed_orders_count = GREATEST(completed_orders_count + :delta, 0) " +
+                   "WHERE id = :performerId", nativeQuery = true)
+    int adjustCompletedOrdersCount(@Param("performerId") Integer performerId, @Param("delta") int delta);
+    
+    // Заполнение агрегатов по отзывам и заказам у исполнителей, созданных до появления колонок;
+    // заполненные исполнители не пересчитываются
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE performers p " +
+                   "LEFT JOIN (SELECT w.performer_id, SUM(w.rate) AS rate_sum, COUNT(*) AS rate_count " +
+                   "           FROM work_experiences w WHERE w.reviewer_type = 'CUSTOMER' GROUP BY w.performer_id) r " +
+                   "ON r.performer_id = p.id " +
+                   "LEFT JOIN (SELECT o.performer_id, COUNT(*) AS done_count " +
+                   "           FROM orders o WHERE o.status = 'DONE' GROUP BY o.performer_id) d " +
+                   "ON d.performer_id = p.id " +
+                   "SET p.rating_sum = COALESCE(r.rate_sum, 0), " +
+                   "p.rating_count = COALESCE(r.rate_count, 0), " +
+                   "p.rating = CASE WHEN COALESCE(r.rate_count, 0) > 0 THEN ROUND(r.rate_sum * 20 / r.rate_count) ELSE 0 END, " +
+                   "p.completed_orders_count = COALESCE(d.done_count, 0) " +
+                   "WHERE p.rating_count IS NULL", nativeQuery = true)
+    int backfillAggregates();
 }
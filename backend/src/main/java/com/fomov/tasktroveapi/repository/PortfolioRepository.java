@@ -1,6 +1,8 @@
 package com.fomov.tasktroveapi.repository;
 
 import com.fomov.tasktroveapi.model.Portfolio;
+import com.fomov.tasktroveapi.search.PerformerProfileDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -27,6 +29,11 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, Integer> {
     @Query("SELECT p FROM Portfolio p LEFT JOIN FETCH p.performer LEFT JOIN FETCH p.customer WHERE p.ownerType = :ownerType AND (p.performer.id = :userId OR p.customer.id = :userId)")
     List<Portfolio> findByOwnerTypeAndUserId(@Param("ownerType") String ownerType, @Param("userId") Integer userId);
     
+    // Порционное чтение портфолио исполнителей для построения индекса рекомендаций
+    @Query("SELECT new com.fomov.tasktroveapi.search.PerformerProfileDocument(p.id, pf.id, p.specializations, p.experience) " +
+           "FROM Portfolio p JOIN p.performer pf WHERE p.id > :afterId ORDER BY p.id")
+    List<PerformerProfileDocument> findPerformerProfilesAfter(@Param("afterId") Integer afterId, Pageable pageable);
+    
     // Deprecated: Use findByPerformerIdWithPerformer instead
     @Deprecated
     List<Portfolio> findByPerformer_Id(Integer performerId);
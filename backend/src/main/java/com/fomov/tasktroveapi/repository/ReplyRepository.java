@@ -5,7 +5,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +18,16 @@ public interface ReplyRepository extends JpaRepository<Reply, Integer> {
     List<Reply> findByPerformer_Id(Integer performerId);
     boolean existsByOrders_IdAndPerformer_Id(Integer orderId, Integer performerId);
     
+    // id всех заказов, на которые откликнулся исполнитель.
+    // Отдельная транзакция: снимок должен открыться после того, как ReplyService запомнил версию кэша
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("SELECT r.orders.id FROM Reply r WHERE r.performer.id = :performerId")
+    List<Integer> findOrderIdsByPerformerId(@Param("performerId") Integer performerId);
+    
+    // id заказов из списка, на которые откликнулся исполнитель
+    @Query("SELECT r.orders.id FROM Reply r WHERE r.performer.id = :performerId AND r.orders.id IN :orderIds")
+    List<Integer> findRepliedOrderIds(@Param("performerId") Integer performerId, @Param("orderIds") Collection<Integer> orderIds);
+    
     @Query("SELECT r FROM Reply r LEFT JOIN FETCH r.orders o LEFT JOIN FETCH o.performer LEFT JOIN FETCH r.performer WHERE r.performer.id = :performerId")
     List<Reply> findByPerformerIdWithRelations(@Param("performerId") Integer performerId);
     
@@ -0,0 +1,30 @@
+package com.fomov.tasktroveapi.repository;
+
+import com.fomov.tasktroveapi.model.SavedSearch;
+import com.fomov.tasktroveapi.search.SavedSearchQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Integer> {
+
+    @Query("SELECT s FROM SavedSearch s WHERE s.performer.id = :performerId ORDER BY s.createdAt DESC, s.id DESC")
+    List<SavedSearch> findByPerformerId(@Param("performerId") Integer performerId);
+
+    @Query("SELECT COUNT(s) FROM SavedSearch s WHERE s.performer.id = :performerId")
+    long countByPerformerId(@Param("performerId") Integer performerId);
+
+    @Query("SELECT s FROM SavedSearch s WHERE s.id = :id AND s.performer.id = :performerId")
+    Optional<SavedSearch> findByIdAndPerformerId(@Param("id") Integer id, @Param("performerId") Integer performerId);
+
+    // Порционное чтение сохраненных поисков для построения обратного индекса
+    @Query("SELECT new com.fomov.tasktroveapi.search.SavedSearchQuery(s.id, s.performer.id, s.keywords, s.techStack, " +
+           "s.budgetMin, s.budgetMax) FROM SavedSearch s WHERE s.id > :afterId ORDER BY s.id")
+    List<SavedSearchQuery> findQueriesAfter(@Param("afterId") Integer afterId, Pageable pageable);
+}
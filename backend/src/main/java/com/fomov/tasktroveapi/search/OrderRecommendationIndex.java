@@ -0,0 +1,517 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.OrderStatus;
+import com.fomov.tasktroveapi.repository.OrdersRepository;
+import com.fomov.tasktroveapi.repository.PortfolioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Рекомендации открытых заказов исполнителям по совпадению специализаций и опыта
+ * из портфолио с названием, областью, стеком технологий и описанием заказа.
+ * Исполнители и заказы хранятся как разреженные нормированные векторы над общим
+ * словарем термов, оценка рекомендации - косинусная близость векторов.
+ * Для каждого исполнителя поддерживается куча лучших TOP_K заказов: новый заказ
+ * сравнивается только с исполнителями, у которых есть общие с ним термы, поэтому
+ * выдача рекомендаций не требует перебора заказов.
+ * Индекс строится при старте приложения и поддерживается в актуальном состоянии
+ * через {@link OrderRecommendationListener} и {@link PortfolioRecommendationListener}.
+ */
+@Component
+public class OrderRecommendationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRecommendationIndex.class);
+
+    private static final int WARMUP_BATCH_SIZE = 1000;
+
+    public static final int TOP_K = 20;
+
+    // Заказы со случайным пересечением в одно-два общих слова не рекомендуем
+    private static final float MIN_SCORE = 0.05f;
+
+    // Веса полей заказа: стек технологий точнее всего описывает нужные навыки
+    private static final float ORDER_TECH_STACK_WEIGHT = 3f;
+    private static final float ORDER_TITLE_WEIGHT = 2f;
+    private static final float ORDER_SCOPE_WEIGHT = 1.5f;
+    private static final float ORDER_DESCRIPTION_WEIGHT = 0.5f;
+
+    // Веса полей портфолио
+    private static final float SPECIALIZATIONS_WEIGHT = 2f;
+    private static final float EXPERIENCE_WEIGHT = 1f;
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    // Частые слова свободного текста, не говорящие о навыках
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "на", "с", "со", "по", "для", "из", "от", "до", "за", "не", "а", "но", "или",
+            "как", "что", "это", "так", "у", "к", "о", "об", "при", "лет", "год", "года", "опыт", "работы",
+            "the", "and", "or", "of", "for", "to", "in", "on", "with", "a", "an", "is", "are", "be");
+
+    // Начало кучи - самая слабая из лучших рекомендаций исполнителя
+    private static final Comparator<Recommendation> WEAKEST_FIRST = Comparator
+            .comparingDouble(Recommendation::score)
+            .thenComparing(Recommendation::orderId);
+
+    private final OrdersRepository ordersRepository;
+    private final PortfolioRepository portfolioRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Словарь термов: каждый терм хранится один раз, векторы ссылаются на его номер.
+    // Термы не удаляются - словарь ограничен словарным запасом заказов и портфолио
+    private final Map<String, Integer> termIds = new HashMap<>();
+
+    private final Map<Integer, SparseVector> orderVectors = new HashMap<>();
+    private final Map<Integer, SparseVector> performerVectors = new HashMap<>();
+
+    // номер терма -> (id заказа -> вес терма в заказе)
+    private final Map<Integer, Map<Integer, Float>> orderPostings = new HashMap<>();
+
+    // номер терма -> (id исполнителя -> вес терма в профиле)
+    private final Map<Integer, Map<Integer, Float>> performerPostings = new HashMap<>();
+
+    // id исполнителя -> лучшие заказы
+    private final Map<Integer, PriorityQueue<Recommendation>> topOrders = new HashMap<>();
+
+    // id заказа -> исполнители, в лучших заказах которых он сейчас находится
+    private final Map<Integer, Set<Integer>> recommendedTo = new HashMap<>();
+
+    // Заказы и исполнители, измененные во время первичного построения: их снимок из БД может быть устаревшим
+    private final Set<Integer> ordersTouchedDuringWarmup = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> performersTouchedDuringWarmup = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean warmingUp = false;
+    private volatile boolean ready = false;
+
+    public OrderRecommendationIndex(OrdersRepository ordersRepository, PortfolioRepository portfolioRepository) {
+        this.ordersRepository = ordersRepository;
+        this.portfolioRepository = portfolioRepository;
+    }
+
+    /**
+     * Индекс построен; до этого момента рекомендации пусты
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        Thread thread = new Thread(this::warmUp, "order-recommendation-index-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        long started = System.currentTimeMillis();
+        warmingUp = true;
+        try {
+            // Сначала заказы: пока исполнителей нет, добавление заказа не трогает кучи,
+            // а затем лучшие заказы каждого исполнителя считаются один раз
+            int lastId = 0;
+            while (true) {
+                List<OrderSearchDocument> batch = ordersRepository.findOpenSearchDocumentsAfter(
+                        lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    for (OrderSearchDocument document : batch) {
+                        if (!ordersTouchedDuringWarmup.contains(document.getId())) {
+                            putOrderLocked(document);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            lastId = 0;
+            while (true) {
+                List<PerformerProfileDocument> batch = portfolioRepository.findPerformerProfilesAfter(
+                        lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    for (PerformerProfileDocument profile : batch) {
+                        if (!performersTouchedDuringWarmup.contains(profile.getPerformerId())) {
+                            putPerformerLocked(profile);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                lastId = batch.get(batch.size() - 1).getPortfolioId();
+            }
+            ready = true;
+            logger.info("Order recommendation index built: {} orders, {} performers, {} terms in {} ms",
+                    orderCount(), performerCount(), termCount(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Не удалось построить индекс рекомендаций заказов", e);
+        } finally {
+            warmingUp = false;
+            ordersTouchedDuringWarmup.clear();
+            performersTouchedDuringWarmup.clear();
+        }
+    }
+
+    /**
+     * Добавляет открытый заказ в рекомендации или убирает заказ, который
+     * больше не доступен для откликов (взят в работу, закрыт, удален заказчиком)
+     */
+    public void putOrder(OrderSearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                ordersTouchedDuringWarmup.add(document.getId());
+            }
+            putOrderLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeOrder(Integer orderId) {
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                ordersTouchedDuringWarmup.add(orderId);
+            }
+            refillLocked(removeOrderLocked(orderId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Пересчитывает профиль исполнителя и его лучшие заказы после изменения портфолио
+     */
+    public void putPerformer(PerformerProfileDocument profile) {
+        if (profile.getPerformerId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                performersTouchedDuringWarmup.add(profile.getPerformerId());
+            }
+            putPerformerLocked(profile);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePerformer(Integer performerId) {
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                performersTouchedDuringWarmup.add(performerId);
+            }
+            removePerformerLocked(performerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Лучшие заказы исполнителя из заранее посчитанной кучи
+     * @return рекомендации в порядке убывания оценки, не более limit штук
+     */
+    public List<Recommendation> recommend(Integer performerId, int limit) {
+        List<Recommendation> recommendations;
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Recommendation> heap = topOrders.get(performerId);
+            if (heap == null || heap.isEmpty()) {
+                return new ArrayList<>();
+            }
+            recommendations = new ArrayList<>(heap);
+        } finally {
+            lock.readLock().unlock();
+        }
+        recommendations.sort(WEAKEST_FIRST.reversed());
+        return recommendations.size() > limit
+                ? new ArrayList<>(recommendations.subList(0, Math.max(limit, 0)))
+                : recommendations;
+    }
+
+    private void putOrderLocked(OrderSearchDocument document) {
+        Integer orderId = document.getId();
+        if (!isOpen(document)) {
+            refillLocked(removeOrderLocked(orderId));
+            return;
+        }
+
+        Map<Integer, Float> weights = new HashMap<>();
+        addTerms(weights, document.getTechStack(), ORDER_TECH_STACK_WEIGHT);
+        addTerms(weights, document.getTitle(), ORDER_TITLE_WEIGHT);
+        addTerms(weights, document.getScope(), ORDER_SCOPE_WEIGHT);
+        addTerms(weights, document.getDescription(), ORDER_DESCRIPTION_WEIGHT);
+        SparseVector vector = SparseVector.of(weights);
+
+        // Отклики и прочие изменения без правки текстов не влияют на рекомендации
+        SparseVector previous = orderVectors.get(orderId);
+        if (previous != null && previous.sameAs(vector)) {
+            return;
+        }
+        refillLocked(removeOrderLocked(orderId));
+        if (vector.isEmpty()) {
+            return;
+        }
+
+        orderVectors.put(orderId, vector);
+        for (int i = 0; i < vector.terms().length; i++) {
+            orderPostings.computeIfAbsent(vector.terms()[i], key -> new HashMap<>())
+                    .put(orderId, vector.weights()[i]);
+        }
+        // Сравниваем заказ только с исполнителями, у которых есть общие с ним термы
+        Map<Integer, Float> scores = dotProducts(vector, performerPostings);
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+            if (entry.getValue() >= MIN_SCORE) {
+                offerLocked(entry.getKey(), new Recommendation(orderId, entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * @return исполнители, из лучших заказов которых пришлось убрать этот заказ
+     */
+    private Set<Integer> removeOrderLocked(Integer orderId) {
+        SparseVector previous = orderVectors.remove(orderId);
+        if (previous == null) {
+            return Set.of();
+        }
+        for (int term : previous.terms()) {
+            removePosting(orderPostings, term, orderId);
+        }
+        Set<Integer> holders = recommendedTo.remove(orderId);
+        if (holders == null) {
+            return Set.of();
+        }
+        for (Integer performerId : holders) {
+            PriorityQueue<Recommendation> heap = topOrders.get(performerId);
+            if (heap != null) {
+                heap.removeIf(recommendation -> recommendation.orderId().equals(orderId));
+            }
+        }
+        return holders;
+    }
+
+    /**
+     * Освободившееся место в куче мог бы занять заказ, не попавший в нее раньше,
+     * поэтому лучшие заказы таких исполнителей пересчитываются полностью
+     */
+    private void refillLocked(Set<Integer> performerIds) {
+        for (Integer performerId : performerIds) {
+            rebuildTopLocked(performerId);
+        }
+    }
+
+    private void putPerformerLocked(PerformerProfileDocument profile) {
+        Integer performerId = profile.getPerformerId();
+        Map<Integer, Float> weights = new HashMap<>();
+        addTerms(weights, profile.getSpecializations(), SPECIALIZATIONS_WEIGHT);
+        addTerms(weights, profile.getExperience(), EXPERIENCE_WEIGHT);
+        SparseVector vector = SparseVector.of(weights);
+
+        SparseVector previous = performerVectors.get(performerId);
+        if (previous != null && previous.sameAs(vector)) {
+            return;
+        }
+        removePerformerLocked(performerId);
+        if (vector.isEmpty()) {
+            return;
+        }
+
+        performerVectors.put(performerId, vector);
+        for (int i = 0; i < vector.terms().length; i++) {
+            performerPostings.computeIfAbsent(vector.terms()[i], key -> new HashMap<>())
+                    .put(performerId, vector.weights()[i]);
+        }
+        rebuildTopLocked(performerId);
+    }
+
+    private void removePerformerLocked(Integer performerId) {
+        SparseVector previous = performerVectors.remove(performerId);
+        if (previous != null) {
+            for (int term : previous.terms()) {
+                removePosting(performerPostings, term, performerId);
+            }
+        }
+        clearTopLocked(performerId);
+    }
+
+    private void rebuildTopLocked(Integer performerId) {
+        clearTopLocked(performerId);
+        SparseVector vector = performerVectors.get(performerId);
+        if (vector == null) {
+            return;
+        }
+        Map<Integer, Float> scores = dotProducts(vector, orderPostings);
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+            if (entry.getValue() >= MIN_SCORE) {
+                offerLocked(performerId, new Recommendation(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    private void clearTopLocked(Integer performerId) {
+        PriorityQueue<Recommendation> heap = topOrders.remove(performerId);
+        if (heap == null) {
+            return;
+        }
+        for (Recommendation recommendation : heap) {
+            removeHolder(recommendation.orderId(), performerId);
+        }
+    }
+
+    private void offerLocked(Integer performerId, Recommendation recommendation) {
+        PriorityQueue<Recommendation> heap = topOrders.computeIfAbsent(performerId,
+                key -> new PriorityQueue<>(TOP_K + 1, WEAKEST_FIRST));
+        if (heap.size() >= TOP_K) {
+            if (WEAKEST_FIRST.compare(recommendation, heap.peek()) <= 0) {
+                return;
+            }
+            removeHolder(heap.poll().orderId(), performerId);
+        }
+        heap.offer(recommendation);
+        recommendedTo.computeIfAbsent(recommendation.orderId(), key -> new HashSet<>()).add(performerId);
+    }
+
+    private void removeHolder(Integer orderId, Integer performerId) {
+        Set<Integer> holders = recommendedTo.get(orderId);
+        if (holders != null) {
+            holders.remove(performerId);
+            if (holders.isEmpty()) {
+                recommendedTo.remove(orderId);
+            }
+        }
+    }
+
+    /**
+     * Скалярные произведения вектора со всеми векторами другой стороны через их списки термов.
+     * Векторы нормированы, поэтому это косинусная близость
+     */
+    private static Map<Integer, Float> dotProducts(SparseVector vector, Map<Integer, Map<Integer, Float>> postings) {
+        Map<Integer, Float> scores = new HashMap<>();
+        for (int i = 0; i < vector.terms().length; i++) {
+            Map<Integer, Float> termPostings = postings.get(vector.terms()[i]);
+            if (termPostings == null) {
+                continue;
+            }
+            float weight = vector.weights()[i];
+            for (Map.Entry<Integer, Float> posting : termPostings.entrySet()) {
+                scores.merge(posting.getKey(), weight * posting.getValue(), Float::sum);
+            }
+        }
+        return scores;
+    }
+
+    private static void removePosting(Map<Integer, Map<Integer, Float>> postings, int term, Integer id) {
+        Map<Integer, Float> termPostings = postings.get(term);
+        if (termPostings != null) {
+            termPostings.remove(id);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void addTerms(Map<Integer, Float> weights, String text, float fieldWeight) {
+        for (String token : OrderSearchIndex.tokenize(text)) {
+            if (token.length() < MIN_TERM_LENGTH || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            Integer termId = termIds.computeIfAbsent(token, key -> termIds.size());
+            weights.merge(termId, fieldWeight, Float::sum);
+        }
+    }
+
+    private static boolean isOpen(OrderSearchDocument document) {
+        return document.getStatus() == OrderStatus.ACTIVE
+                && document.getPerformerId() == null
+                && !document.isDeletedByCustomer();
+    }
+
+    private int orderCount() {
+        lock.readLock().lock();
+        try {
+            return orderVectors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int performerCount() {
+        lock.readLock().lock();
+        try {
+            return performerVectors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return termIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record Recommendation(Integer orderId, float score) {
+    }
+
+    /**
+     * Разреженный вектор с нормой 1: номера термов по возрастанию и их веса
+     */
+    private record SparseVector(int[] terms, float[] weights) {
+
+        static SparseVector of(Map<Integer, Float> weights) {
+            int[] terms = weights.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            float[] values = new float[terms.length];
+            double norm = 0;
+            for (int i = 0; i < terms.length; i++) {
+                values[i] = weights.get(terms[i]);
+                norm += values[i] * values[i];
+            }
+            if (norm > 0) {
+                float inverse = (float) (1.0 / Math.sqrt(norm));
+                for (int i = 0; i < values.length; i++) {
+                    values[i] *= inverse;
+                }
+            }
+            return new SparseVector(terms, values);
+        }
+
+        boolean isEmpty() {
+            return terms.length == 0;
+        }
+
+        boolean sameAs(SparseVector other) {
+            return Arrays.equals(terms, other.terms) && Arrays.equals(weights, other.weights);
+        }
+    }
+}
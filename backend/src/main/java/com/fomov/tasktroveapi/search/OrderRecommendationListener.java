@@ -0,0 +1,43 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.Orders;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA-слушатель сущности {@link Orders}, синхронизирующий индекс рекомендаций:
+ * одобренный заказ попадает в рекомендации, взятый в работу или закрытый - убирается.
+ */
+@Component
+public class OrderRecommendationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRecommendationListener.class);
+
+    // Лениво, как в OrderSearchIndexListener
+    private final ObjectProvider<OrderRecommendationIndex> recommendationIndex;
+
+    public OrderRecommendationListener(ObjectProvider<OrderRecommendationIndex> recommendationIndex) {
+        this.recommendationIndex = recommendationIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Orders order) {
+        OrderSearchDocument document = OrderSearchDocument.from(order);
+        TransactionCallbacks.afterCommitSafely(() -> recommendationIndex.getObject().putOrder(document),
+                logger, "Failed to update order recommendation index");
+    }
+
+    @PostRemove
+    public void onRemove(Orders order) {
+        Integer orderId = order.getId();
+        TransactionCallbacks.afterCommitSafely(() -> recommendationIndex.getObject().removeOrder(orderId),
+                logger, "Failed to update order recommendation index");
+    }
+}
@@ -0,0 +1,60 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.OrderStatus;
+import com.fomov.tasktroveapi.model.Orders;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Снимок заказа для поискового индекса: индексируемые тексты и поля,
+ * по которым фильтруются результаты поиска.
+ * Используется и как JPQL-проекция при первичном построении индекса.
+ */
+public class OrderSearchDocument {
+
+    private final Integer id;
+    private final String title;
+    private final String scope;
+    private final String techStack;
+    private final String description;
+    private final OrderStatus status;
+    private final Integer customerId;
+    private final Integer performerId;
+    private final boolean deletedByCustomer;
+    private final OffsetDateTime publicationTime;
+
+    public OrderSearchDocument(Integer id, String title, String scope, String techStack, String description,
+                               OrderStatus status, Integer customerId, Integer performerId,
+                               Boolean deletedByCustomer, OffsetDateTime publicationTime) {
+        this.id = id;
+        this.title = title;
+        this.scope = scope;
+        this.techStack = techStack;
+        this.description = description;
+        this.status = status;
+        this.customerId = customerId;
+        this.performerId = performerId;
+        this.deletedByCustomer = Boolean.TRUE.equals(deletedByCustomer);
+        this.publicationTime = publicationTime;
+    }
+
+    public static OrderSearchDocument from(Orders order) {
+        // getId() у lazy-прокси не инициализирует связь
+        Integer customerId = order.getCustomer() != null ? order.getCustomer().getId() : null;
+        Integer performerId = order.getPerformer() != null ? order.getPerformer().getId() : null;
+        return new OrderSearchDocument(order.getId(), order.getTitle(), order.getScope(), order.getTechStack(),
+                order.getDescription(), order.getStatus(), customerId, performerId,
+                order.getIsDeletedByCustomer(), order.getPublicationTime());
+    }
+
+    public Integer getId() { return id; }
+    public String getTitle() { return title; }
+    public String getScope() { return scope; }
+    public String getTechStack() { return techStack; }
+    public String getDescription() { return description; }
+    public OrderStatus getStatus() { return status; }
+    public Integer getCustomerId() { return customerId; }
+    public Integer getPerformerId() { return performerId; }
+    public boolean isDeletedByCustomer() { return deletedByCustomer; }
+    public OffsetDateTime getPublicationTime() { return publicationTime; }
+}
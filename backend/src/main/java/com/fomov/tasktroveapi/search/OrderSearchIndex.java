@@ -0,0 +1,321 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.repository.OrdersRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс заказов в памяти процесса для полнотекстового поиска
+ * по названию, области, стеку технологий и описанию.
+ * Возвращает id заказов, упорядоченные по релевантности; сами заказы
+ * подгружаются из БД только для запрошенной страницы.
+ * Индекс строится при старте приложения и поддерживается в актуальном
+ * состоянии через {@link OrderSearchIndexListener}.
+ */
+@Component
+public class OrderSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchIndex.class);
+
+    private static final int WARMUP_BATCH_SIZE = 1000;
+
+    // Веса полей: совпадение в названии важнее совпадения в описании
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float TECH_STACK_WEIGHT = 2f;
+    private static final float SCOPE_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Совпадение по префиксу терма ценится чуть ниже точного совпадения
+    private static final float PREFIX_MATCH_FACTOR = 0.8f;
+
+    // '+' и '#' оставляем внутри токенов, чтобы не терять "c++" и "c#"
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}+#]+");
+
+    private static final Comparator<ScoredOrder> BY_RELEVANCE = Comparator
+            .comparingDouble(ScoredOrder::score).reversed()
+            .thenComparing(ScoredOrder::publicationTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ScoredOrder::id, Comparator.reverseOrder());
+
+    private final OrdersRepository ordersRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // терм -> (id заказа -> вес терма в заказе)
+    private final NavigableMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+
+    // id заказа -> метаданные для фильтрации и список термов для удаления из индекса
+    private final Map<Integer, IndexedOrder> orders = new HashMap<>();
+
+    // Заказы, измененные во время первичного построения: их снимок из БД может быть устаревшим
+    private final Set<Integer> touchedDuringWarmup = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean warmingUp = false;
+    private volatile boolean ready = false;
+
+    public OrderSearchIndex(OrdersRepository ordersRepository) {
+        this.ordersRepository = ordersRepository;
+    }
+
+    /**
+     * Индекс построен и может обслуживать поиск.
+     * До этого момента поиск выполняется запросами к БД.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        Thread thread = new Thread(this::warmUp, "order-search-index-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        long started = System.currentTimeMillis();
+        warmingUp = true;
+        try {
+            int lastId = 0;
+            int total = 0;
+            while (true) {
+                List<OrderSearchDocument> batch = ordersRepository.findSearchDocumentsAfter(
+                        lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    for (OrderSearchDocument document : batch) {
+                        if (!touchedDuringWarmup.contains(document.getId())) {
+                            putLocked(document);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                total += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            ready = true;
+            logger.info("Order search index built: {} orders, {} terms in {} ms",
+                    total, termCount(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Не удалось построить поисковый индекс заказов, поиск будет выполняться через БД", e);
+        } finally {
+            warmingUp = false;
+            touchedDuringWarmup.clear();
+        }
+    }
+
+    /**
+     * Добавляет заказ в индекс или заменяет его предыдущую версию
+     */
+    public void put(OrderSearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                touchedDuringWarmup.add(document.getId());
+            }
+            putLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer orderId) {
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                touchedDuringWarmup.add(orderId);
+            }
+            removeLocked(orderId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет заказы, содержащие все слова запроса (каждое слово может быть префиксом терма).
+     * @param filter дополнительное условие на заказ (статус, заказчик и т.п.)
+     * @return id заказов в порядке убывания релевантности, не более limit штук начиная с offset
+     */
+    public List<Integer> search(String query, Predicate<OrderSearchDocument> filter, int offset, int limit) {
+        Set<String> queryTokens = new LinkedHashSet<>(tokenize(query));
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<ScoredOrder> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> scores = null;
+            for (String token : queryTokens) {
+                Map<Integer, Float> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Все слова запроса должны встретиться в заказе
+                    Map<Integer, Float> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Integer, Float> entry : tokenScores.entrySet()) {
+                        Float score = previous.get(entry.getKey());
+                        if (score != null) {
+                            scores.put(entry.getKey(), score + entry.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                IndexedOrder order = orders.get(entry.getKey());
+                if (order != null && filter.test(order.document())) {
+                    candidates.add(new ScoredOrder(entry.getKey(), entry.getValue(),
+                            order.document().getPublicationTime()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return topIds(candidates, offset, limit);
+    }
+
+    private Map<Integer, Float> scoreToken(String token) {
+        Map<Integer, Float> tokenScores = new HashMap<>();
+        int totalOrders = Math.max(orders.size(), 1);
+        for (Map.Entry<String, Map<Integer, Float>> term
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            Map<Integer, Float> termPostings = term.getValue();
+            float idf = (float) Math.log(1.0 + (double) totalOrders / termPostings.size());
+            float factor = term.getKey().equals(token) ? 1f : PREFIX_MATCH_FACTOR;
+            for (Map.Entry<Integer, Float> posting : termPostings.entrySet()) {
+                float score = posting.getValue() * idf * factor;
+                tokenScores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return tokenScores;
+    }
+
+    private static List<Integer> topIds(List<ScoredOrder> candidates, int offset, int limit) {
+        int from = Math.max(offset, 0);
+        long needed = (long) from + limit;
+        List<ScoredOrder> ranked;
+        if (needed >= candidates.size()) {
+            ranked = candidates;
+            ranked.sort(BY_RELEVANCE);
+        } else {
+            // Полная сортировка не нужна: держим в куче только первые offset + limit результатов
+            int size = (int) needed;
+            PriorityQueue<ScoredOrder> heap = new PriorityQueue<>(size, BY_RELEVANCE.reversed());
+            for (ScoredOrder candidate : candidates) {
+                heap.offer(candidate);
+                if (heap.size() > size) {
+                    heap.poll();
+                }
+            }
+            ranked = new ArrayList<>(heap);
+            ranked.sort(BY_RELEVANCE);
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = from; i < ranked.size() && ids.size() < limit; i++) {
+            ids.add(ranked.get(i).id());
+        }
+        return ids;
+    }
+
+    private void putLocked(OrderSearchDocument document) {
+        removeLocked(document.getId());
+
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, document.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, document.getTechStack(), TECH_STACK_WEIGHT);
+        addTerms(weights, document.getScope(), SCOPE_WEIGHT);
+        addTerms(weights, document.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>())
+                    .put(document.getId(), entry.getValue());
+        }
+        // Тексты в памяти не храним - для фильтрации достаточно метаданных
+        OrderSearchDocument metadata = new OrderSearchDocument(document.getId(), null, null, null, null,
+                document.getStatus(), document.getCustomerId(), document.getPerformerId(),
+                document.isDeletedByCustomer(), document.getPublicationTime());
+        orders.put(document.getId(), new IndexedOrder(metadata, weights.keySet().toArray(new String[0])));
+    }
+
+    private void removeLocked(Integer orderId) {
+        IndexedOrder previous = orders.remove(orderId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Map<Integer, Float> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(orderId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, fieldWeight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record IndexedOrder(OrderSearchDocument document, String[] terms) {
+    }
+
+    private record ScoredOrder(Integer id, float score, OffsetDateTime publicationTime) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.Orders;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA-слушатель сущности {@link Orders}, синхронизирующий поисковый индекс.
+ * Изменения применяются к индексу только после коммита транзакции,
+ * чтобы откаченные изменения не попадали в результаты поиска.
+ */
+@Component
+public class OrderSearchIndexListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchIndexListener.class);
+
+    // Индекс получаем лениво: слушатель создается Hibernate раньше репозиториев
+    private final ObjectProvider<OrderSearchIndex> searchIndex;
+
+    public OrderSearchIndexListener(ObjectProvider<OrderSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Orders order) {
+        // Снимок берем сразу: к моменту коммита сущность может измениться еще раз
+        OrderSearchDocument document = OrderSearchDocument.from(order);
+        TransactionCallbacks.afterCommitSafely(() -> searchIndex.getObject().put(document),
+                logger, "Failed to update order search index");
+    }
+
+    @PostRemove
+    public void onRemove(Orders order) {
+        Integer orderId = order.getId();
+        TransactionCallbacks.afterCommitSafely(() -> searchIndex.getObject().remove(orderId),
+                logger, "Failed to update order search index");
+    }
+}
@@ -0,0 +1,36 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.Portfolio;
+
+/**
+ * Снимок портфолио исполнителя для индекса рекомендаций: только тексты,
+ * по которым исполнитель сопоставляется с заказами.
+ * Используется и как JPQL-проекция при первичном построении индекса.
+ */
+public class PerformerProfileDocument {
+
+    private final Integer portfolioId;
+    private final Integer performerId;
+    private final String specializations;
+    private final String experience;
+
+    public PerformerProfileDocument(Integer portfolioId, Integer performerId,
+                                    String specializations, String experience) {
+        this.portfolioId = portfolioId;
+        this.performerId = performerId;
+        this.specializations = specializations;
+        this.experience = experience;
+    }
+
+    public static PerformerProfileDocument from(Portfolio portfolio) {
+        // getId() у lazy-прокси не инициализирует связь
+        Integer performerId = portfolio.getPerformer() != null ? portfolio.getPerformer().getId() : null;
+        return new PerformerProfileDocument(portfolio.getId(), performerId,
+                portfolio.getSpecializations(), portfolio.getExperience());
+    }
+
+    public Integer getPortfolioId() { return portfolioId; }
+    public Integer getPerformerId() { return performerId; }
+    public String getSpecializations() { return specializations; }
+    public String getExperience() { return experience; }
+}
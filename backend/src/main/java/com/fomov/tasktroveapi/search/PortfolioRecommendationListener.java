@@ -0,0 +1,49 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.Portfolio;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA-слушатель сущности {@link Portfolio}: после изменения портфолио исполнителя
+ * пересчитываются его рекомендации. Портфолио заказчиков пропускаются.
+ */
+@Component
+public class PortfolioRecommendationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioRecommendationListener.class);
+
+    // Лениво, как в OrderSearchIndexListener
+    private final ObjectProvider<OrderRecommendationIndex> recommendationIndex;
+
+    public PortfolioRecommendationListener(ObjectProvider<OrderRecommendationIndex> recommendationIndex) {
+        this.recommendationIndex = recommendationIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Portfolio portfolio) {
+        PerformerProfileDocument profile = PerformerProfileDocument.from(portfolio);
+        if (profile.getPerformerId() == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommitSafely(() -> recommendationIndex.getObject().putPerformer(profile),
+                logger, "Failed to update order recommendation index");
+    }
+
+    @PostRemove
+    public void onRemove(Portfolio portfolio) {
+        Integer performerId = portfolio.getPerformerId();
+        if (performerId == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommitSafely(() -> recommendationIndex.getObject().removePerformer(performerId),
+                logger, "Failed to update order recommendation index");
+    }
+}
@@ -0,0 +1,301 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.Orders;
+import com.fomov.tasktroveapi.repository.SavedSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Обратный индекс сохраненных поисков исполнителей (percolator): вместо поиска заказов
+ * по запросу новый заказ проверяется по всем сохраненным запросам.
+ * Каждый запрос регистрируется под опорными термами, поэтому для заказа проверяются
+ * только запросы, опорный терм которых встречается в тексте заказа, а не все запросы подряд.
+ * Индекс строится при старте приложения и поддерживается в актуальном
+ * состоянии через {@link SavedSearchIndexListener}.
+ */
+@Component
+public class SavedSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchIndex.class);
+
+    private static final int WARMUP_BATCH_SIZE = 1000;
+
+    private static final long WARMUP_RETRY_INITIAL_MILLIS = 5_000;
+    private static final long WARMUP_RETRY_MAX_MILLIS = 300_000;
+
+    private final SavedSearchRepository savedSearchRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // опорный терм -> id сохраненных поисков
+    private final Map<String, Set<Integer>> anchors = new HashMap<>();
+
+    // id сохраненного поиска -> разобранный запрос
+    private final Map<Integer, CompiledQuery> queries = new HashMap<>();
+
+    // Поиски, измененные во время первичного построения: их снимок из БД может быть устаревшим
+    private final Set<Integer> touchedDuringWarmup = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean warmingUp = false;
+    private volatile boolean ready = false;
+
+    public SavedSearchIndex(SavedSearchRepository savedSearchRepository) {
+        this.savedSearchRepository = savedSearchRepository;
+    }
+
+    /**
+     * Индекс построен; до этого момента новые заказы не сверяются с сохраненными поисками
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        Thread thread = new Thread(this::warmUp, "saved-search-index-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        long started = System.currentTimeMillis();
+        warmingUp = true;
+        long retryDelay = WARMUP_RETRY_INITIAL_MILLIS;
+        try {
+            // Без индекса заказы не сверяются, поэтому построение повторяется до успеха
+            while (!tryLoadAll()) {
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                retryDelay = Math.min(retryDelay * 2, WARMUP_RETRY_MAX_MILLIS);
+            }
+            ready = true;
+            logger.info("Saved search index built: {} queries, {} anchor terms in {} ms",
+                    size(), anchorCount(), System.currentTimeMillis() - started);
+        } finally {
+            warmingUp = false;
+            touchedDuringWarmup.clear();
+        }
+    }
+
+    // Повторная загрузка после сбоя безопасна: putLocked заменяет уже загруженные запросы
+    private boolean tryLoadAll() {
+        try {
+            int lastId = 0;
+            while (true) {
+                List<SavedSearchQuery> batch = savedSearchRepository.findQueriesAfter(
+                        lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    return true;
+                }
+                lock.writeLock().lock();
+                try {
+                    for (SavedSearchQuery query : batch) {
+                        if (!touchedDuringWarmup.contains(query.getId())) {
+                            putLocked(query);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            logger.error("Не удалось построить индекс сохраненных поисков, повтор позже", e);
+            return false;
+        }
+    }
+
+    /**
+     * Добавляет сохраненный поиск в индекс или заменяет его предыдущую версию
+     */
+    public void put(SavedSearchQuery query) {
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                touchedDuringWarmup.add(query.getId());
+            }
+            putLocked(query);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer savedSearchId) {
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                touchedDuringWarmup.add(savedSearchId);
+            }
+            removeLocked(savedSearchId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Находит исполнителей, хотя бы один сохраненный поиск которых подходит под заказ.
+     * Все ключевые слова запроса должны встретиться в тексте заказа, из технологий
+     * достаточно одной; бюджет заказа должен попасть в диапазон, если он задан.
+     * @return id исполнителей без повторов
+     */
+    public Set<Integer> match(Orders order) {
+        Set<String> orderTerms = new HashSet<>();
+        orderTerms.addAll(OrderSearchIndex.tokenize(order.getTitle()));
+        orderTerms.addAll(OrderSearchIndex.tokenize(order.getScope()));
+        orderTerms.addAll(OrderSearchIndex.tokenize(order.getTechStack()));
+        orderTerms.addAll(OrderSearchIndex.tokenize(order.getDescription()));
+        BigDecimal budget = order.getBudget();
+
+        Set<Integer> performerIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            // Поиск с несколькими опорными термами (технологии) проверяется один раз
+            Set<Integer> checked = new HashSet<>();
+            for (String term : orderTerms) {
+                Set<Integer> candidates = anchors.get(term);
+                if (candidates == null) {
+                    continue;
+                }
+                for (Integer candidateId : candidates) {
+                    if (!checked.add(candidateId)) {
+                        continue;
+                    }
+                    CompiledQuery query = queries.get(candidateId);
+                    if (query != null && !performerIds.contains(query.performerId())
+                            && query.matches(orderTerms, budget)) {
+                        performerIds.add(query.performerId());
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return performerIds;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return queries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocked(SavedSearchQuery query) {
+        removeLocked(query.getId());
+
+        String[] keywords = distinctTerms(query.getKeywords());
+        String[] techTerms = distinctTerms(query.getTechStack());
+        String[] anchorTerms;
+        if (keywords.length > 0) {
+            // Все слова обязательны, поэтому достаточно одного опорного терма - берем самый редкий
+            anchorTerms = new String[] {rarestTerm(keywords)};
+        } else {
+            // Из технологий достаточно любой - запрос регистрируется под каждой
+            anchorTerms = techTerms;
+        }
+        if (anchorTerms.length == 0 || query.getPerformerId() == null) {
+            // Поиск без слов и технологий совпал бы с каждым заказом - такие не сохраняются
+            logger.warn("Saved search id={} has no terms and is not indexed", query.getId());
+            return;
+        }
+
+        queries.put(query.getId(), new CompiledQuery(query.getPerformerId(), keywords, techTerms,
+                query.getBudgetMin(), query.getBudgetMax(), anchorTerms));
+        for (String term : anchorTerms) {
+            anchors.computeIfAbsent(term, key -> new HashSet<>()).add(query.getId());
+        }
+    }
+
+    private void removeLocked(Integer savedSearchId) {
+        CompiledQuery previous = queries.remove(savedSearchId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.anchorTerms()) {
+            Set<Integer> ids = anchors.get(term);
+            if (ids != null) {
+                ids.remove(savedSearchId);
+                if (ids.isEmpty()) {
+                    anchors.remove(term);
+                }
+            }
+        }
+    }
+
+    private String rarestTerm(String[] terms) {
+        String rarest = terms[0];
+        int rarestCount = Integer.MAX_VALUE;
+        for (String term : terms) {
+            int count = anchors.getOrDefault(term, Collections.emptySet()).size();
+            // При равенстве предпочитаем более длинное слово: оно обычно реже встречается в заказах
+            if (count < rarestCount || (count == rarestCount && term.length() > rarest.length())) {
+                rarest = term;
+                rarestCount = count;
+            }
+        }
+        return rarest;
+    }
+
+    private static String[] distinctTerms(String text) {
+        return new LinkedHashSet<>(OrderSearchIndex.tokenize(text)).toArray(new String[0]);
+    }
+
+    private int anchorCount() {
+        lock.readLock().lock();
+        try {
+            return anchors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record CompiledQuery(Integer performerId, String[] keywords, String[] techTerms,
+                                 BigDecimal budgetMin, BigDecimal budgetMax, String[] anchorTerms) {
+
+        boolean matches(Set<String> orderTerms, BigDecimal budget) {
+            for (String keyword : keywords) {
+                if (!orderTerms.contains(keyword)) {
+                    return false;
+                }
+            }
+            if (techTerms.length > 0) {
+                boolean anyTech = false;
+                for (String tech : techTerms) {
+                    if (orderTerms.contains(tech)) {
+                        anyTech = true;
+                        break;
+                    }
+                }
+                if (!anyTech) {
+                    return false;
+                }
+            }
+            if (budgetMin != null && (budget == null || budget.compareTo(budgetMin) < 0)) {
+                return false;
+            }
+            return budgetMax == null || (budget != null && budget.compareTo(budgetMax) <= 0);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.SavedSearch;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA-слушатель сущности {@link SavedSearch}, синхронизирующий обратный индекс.
+ * Срабатывает и при каскадном удалении поисков вместе с исполнителем.
+ */
+@Component
+public class SavedSearchIndexListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchIndexListener.class);
+
+    // Лениво, как в OrderSearchIndexListener
+    private final ObjectProvider<SavedSearchIndex> savedSearchIndex;
+
+    public SavedSearchIndexListener(ObjectProvider<SavedSearchIndex> savedSearchIndex) {
+        this.savedSearchIndex = savedSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(SavedSearch savedSearch) {
+        SavedSearchQuery query = SavedSearchQuery.from(savedSearch);
+        TransactionCallbacks.afterCommitSafely(() -> savedSearchIndex.getObject().put(query),
+                logger, "Failed to update saved search index");
+    }
+
+    @PostRemove
+    public void onRemove(SavedSearch savedSearch) {
+        Integer savedSearchId = savedSearch.getId();
+        TransactionCallbacks.afterCommitSafely(() -> savedSearchIndex.getObject().remove(savedSearchId),
+                logger, "Failed to update saved search index");
+    }
+}
@@ -0,0 +1,43 @@
+package com.fomov.tasktroveapi.search;
+
+import com.fomov.tasktroveapi.model.SavedSearch;
+
+import java.math.BigDecimal;
+
+/**
+ * Снимок сохраненного поиска для обратного индекса.
+ * Используется и как JPQL-проекция при первичном построении индекса.
+ */
+public class SavedSearchQuery {
+
+    private final Integer id;
+    private final Integer performerId;
+    private final String keywords;
+    private final String techStack;
+    private final BigDecimal budgetMin;
+    private final BigDecimal budgetMax;
+
+    public SavedSearchQuery(Integer id, Integer performerId, String keywords, String techStack,
+                            BigDecimal budgetMin, BigDecimal budgetMax) {
+        this.id = id;
+        this.performerId = performerId;
+        this.keywords = keywords;
+        this.techStack = techStack;
+        this.budgetMin = budgetMin;
+        this.budgetMax = budgetMax;
+    }
+
+    public static SavedSearchQuery from(SavedSearch savedSearch) {
+        // getId() у lazy-прокси не инициализирует связь
+        Integer performerId = savedSearch.getPerformer() != null ? savedSearch.getPerformer().getId() : null;
+        return new SavedSearchQuery(savedSearch.getId(), performerId, savedSearch.getKeywords(),
+                savedSearch.getTechStack(), savedSearch.getBudgetMin(), savedSearch.getBudgetMax());
+    }
+
+    public Integer getId() { return id; }
+    public Integer getPerformerId() { return performerId; }
+    public String getKeywords() { return keywords; }
+    public String getTechStack() { return techStack; }
+    public BigDecimal getBudgetMin() { return budgetMin; }
+    public BigDecimal getBudgetMax() { return budgetMax; }
+}
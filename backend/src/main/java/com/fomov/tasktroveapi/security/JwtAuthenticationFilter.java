@@ -1,6 +1,5 @@
 package com.fomov.tasktroveapi.security;
 
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -34,9 +33,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             try {
-                Claims claims = tokenService.parseToken(token);
-                Integer userId = claims.get("userId", Integer.class);
-                String role = claims.get("role", String.class);
+                JwtTokenService.VerifiedToken verified = tokenService.verify(token);
+                Integer userId = verified.getUserId();
+                String role = verified.getRole();
 
                 if (userId != null && role != null) {
                     List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
@@ -1,39 +1,85 @@
 package com.fomov.tasktroveapi.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
 public class JwtTokenService {
 
+    // Максимальное число проверенных токенов в кэше
+    private static final int MAX_VERIFIED_TOKENS = 10000;
+
     private final String issuer;
     private final String audience;
-    private final String secret;
     private final long expirationMillis;
+    
+    // Ключ и парсер неизменяемы и потокобезопасны - создаем один раз
+    private final SecretKey key;
+    private final JwtParser parser;
+    
+    // SHA-256 токена -> результат проверки; LRU по порядку доступа
+    private final Map<String, VerifiedToken> verifiedTokens = Collections.synchronizedMap(
+            new LinkedHashMap<String, VerifiedToken>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                    return size() > MAX_VERIFIED_TOKENS;
+                }
+            });
+    
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
 
     public JwtTokenService(
             @Value("${app.jwt.issuer}") String issuer,
             @Value("${app.jwt.audience}") String audience,
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expiration-minutes}") long expirationMinutes
+            @Value("${app.jwt.expiration-minutes}") long expirationMinutes,
+            MeterRegistry meterRegistry
     ) {
         this.issuer = issuer;
         this.audience = audience;
-        this.secret = secret;
         this.expirationMillis = java.time.Duration.ofMinutes(expirationMinutes).toMillis();
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .requireAudience(audience)
+                .requireIssuer(issuer)
+                .verifyWith(key)
+                .build();
+        
+        this.cacheHits = Counter.builder("jwt.token.cache.requests")
+                .description("Verified JWT cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("jwt.token.cache.requests")
+                .description("Verified JWT cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.token.cache.size", verifiedTokens, Map::size)
+                .description("Number of verified JWTs held in the cache")
+                .register(meterRegistry);
     }
 
     private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return key;
     }
 
     public String createToken(Integer userId, String role, Map<String, Object> additionalClaims) {
@@ -59,14 +105,67 @@ public class JwtTokenService {
     }
 
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .requireAudience(audience)
-                .requireIssuer(issuer)
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
-}
 
+    /**
+     * Проверяет токен и возвращает userId, роль и срок действия.
+     * Повторные запросы с тем же токеном обслуживаются из кэша без проверки подписи до истечения срока.
+     * @throws io.jsonwebtoken.JwtException если токен недействителен
+     */
+    public VerifiedToken verify(String token) {
+        String cacheKey = hash(token);
+        VerifiedToken cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                cacheHits.increment();
+                return cached;
+            }
+            verifiedTokens.remove(cacheKey);
+        }
+        cacheMisses.increment();
+        
+        Claims claims = parseToken(token);
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                claims.get("userId", Integer.class),
+                claims.get("role", String.class),
+                expiration != null ? expiration.toInstant() : Instant.now());
+        if (expiration != null && verified.getUserId() != null && verified.getRole() != null) {
+            verifiedTokens.put(cacheKey, verified);
+        }
+        return verified;
+    }
 
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Результат проверки токена: данные, необходимые для аутентификации
+     */
+    public static class VerifiedToken {
+        private final Integer userId;
+        private final String role;
+        private final Instant expiresAt;
+
+        public VerifiedToken(Integer userId, String role, Instant expiresAt) {
+            this.userId = userId;
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+
+        public Integer getUserId() { return userId; }
+        public String getRole() { return role; }
+        public Instant getExpiresAt() { return expiresAt; }
+
+        public boolean isExpired() {
+            return !Instant.now().isBefore(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.fomov.tasktroveapi.service;
+
+import java.util.List;
+
+public interface AdminRecipientService {
+    /**
+     * Id аккаунтов администраторов (Administrator и SuperAdministrator), получающих
+     * уведомления о модерации. Список кэшируется в памяти.
+     */
+    List<Integer> getAdminAccountIds();
+
+    /**
+     * Сбрасывает кэш после завершения текущей транзакции.
+     * Вызывается при создании, удалении аккаунта или изменении его роли.
+     */
+    void invalidate();
+}
@@ -2,6 +2,8 @@ package com.fomov.tasktroveapi.service;
 
 import com.fomov.tasktroveapi.model.Chat;
 
+import java.util.Optional;
+
 public interface ChatAccessService {
     
     /**
@@ -21,4 +23,53 @@ public interface ChatAccessService {
      * @return true если пользователь является участником чата
      */
     boolean isParticipant(Chat chat, Integer userId, String userRole);
+
+    /**
+     * Возвращает неизменяемое описание чата для проверки доступа и отправки сообщений.
+     * Описание кэшируется в памяти, повторные обращения к одному чату не читают БД.
+     */
+    Optional<ChatDescriptor> getDescriptor(Integer chatId);
+
+    /**
+     * Удаляет описание чата из кэша после коммита текущей транзакции.
+     * Вызывается при изменении участников или флагов удаления чата.
+     */
+    void evict(Integer chatId);
+
+    /**
+     * Снимок данных чата, нужных для авторизации и формирования сообщения
+     */
+    record ChatDescriptor(Integer chatId,
+                          Integer customerAccountId,
+                          Integer performerAccountId,
+                          String customerName,
+                          String performerName,
+                          boolean deletedByCustomer,
+                          boolean deletedByPerformer) {
+
+        public static ChatDescriptor from(Chat chat) {
+            Integer customerAccountId = chat.getCustomer() != null && chat.getCustomer().getAccount() != null
+                    ? chat.getCustomer().getAccount().getId() : null;
+            Integer performerAccountId = chat.getPerformer() != null && chat.getPerformer().getAccount() != null
+                    ? chat.getPerformer().getAccount().getId() : null;
+            return new ChatDescriptor(chat.getId(), customerAccountId, performerAccountId,
+                    chat.getCustomer() != null ? chat.getCustomer().getFullName() : null,
+                    chat.getPerformer() != null ? chat.getPerformer().getFullName() : null,
+                    Boolean.TRUE.equals(chat.getDeletedByCustomer()),
+                    Boolean.TRUE.equals(chat.getDeletedByPerformer()));
+        }
+
+        /**
+         * Имя участника чата с данным accountId и ролью или null, если он не участник
+         */
+        public String participantName(Integer userId, String userRole) {
+            if ("Customer".equals(userRole) && userId != null && userId.equals(customerAccountId)) {
+                return customerName;
+            }
+            if ("Performer".equals(userRole) && userId != null && userId.equals(performerAccountId)) {
+                return performerName;
+            }
+            return null;
+        }
+    }
 }
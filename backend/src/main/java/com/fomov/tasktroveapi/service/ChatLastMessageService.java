@@ -0,0 +1,23 @@
+package com.fomov.tasktroveapi.service;
+
+import com.fomov.tasktroveapi.dto.ChatDto;
+
+import java.time.OffsetDateTime;
+
+public interface ChatLastMessageService {
+    /**
+     * Запоминает сообщение как последнее в чате. Запись в БД выполняется пакетно:
+     * серия сообщений в одном чате превращается в одно обновление строки чата.
+     */
+    void messageStored(Integer chatId, Integer messageId, OffsetDateTime created, String text);
+
+    /**
+     * Пересчитывает последнее сообщение чата после удаления сообщения
+     */
+    void messageDeleted(Integer chatId, Integer messageId);
+
+    /**
+     * Подставляет в сводку чата еще не записанные в БД данные последнего сообщения
+     */
+    void applyPending(ChatDto dto);
+}
@@ -0,0 +1,18 @@
+package com.fomov.tasktroveapi.service;
+
+import com.fomov.tasktroveapi.dto.ChatDto;
+
+import java.util.List;
+
+public interface ChatSummaryService {
+    /**
+     * Список чатов заказчика с количеством непрочитанных сообщений и состоянием связанного заказа.
+     * Число запросов к БД не зависит от количества чатов.
+     */
+    List<ChatDto> getCustomerChatSummaries(Integer customerId, Integer accountId);
+
+    /**
+     * Список чатов исполнителя с количеством непрочитанных сообщений и состоянием связанного заказа
+     */
+    List<ChatDto> getPerformerChatSummaries(Integer performerId, Integer accountId);
+}
@@ -0,0 +1,39 @@
+package com.fomov.tasktroveapi.service;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface ChatUnreadCounterService {
+    /**
+     * Количество непрочитанных сообщений в чатах для участника.
+     * Счетчики берутся из памяти; отсутствующие подгружаются из БД одним групповым запросом.
+     * @param userRole "Customer" или "Performer" - определяет, какое время последней проверки учитывать
+     * @return chatId -> количество непрочитанных
+     */
+    Map<Integer, Integer> getUnreadCounts(Collection<Integer> chatIds, Integer accountId, String userRole);
+
+    /**
+     * Количество непрочитанных из памяти без обращения к БД
+     * @return null, если счетчик участника не загружен
+     */
+    Integer findCachedUnreadCount(Integer chatId, Integer accountId);
+
+    /**
+     * Новое сообщение в чате для получателя. Применяется после коммита транзакции.
+     * Сообщение, созданное не позже последнего прочтения чата получателем, счетчик не увеличивает.
+     */
+    void messageSent(Integer chatId, Integer recipientAccountId, OffsetDateTime created);
+
+    /**
+     * Участник прочитал чат: счетчик обнуляется после коммита транзакции,
+     * а другие вкладки участника получают обнуленный счетчик через /user/queue/chats
+     * @param readAt время прочтения, записанное в чат (lastCheckedBy...Time)
+     */
+    void markRead(Integer chatId, Integer accountId, OffsetDateTime readAt);
+
+    /**
+     * Сбрасывает счетчики чата, например после удаления сообщений
+     */
+    void invalidateChat(Integer chatId);
+}
@@ -0,0 +1,20 @@
+package com.fomov.tasktroveapi.service;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+public interface ChatUpdatePushService {
+    /**
+     * Отправляет получателям нового сообщения изменение строки списка чатов:
+     * время и превью последнего сообщения и количество непрочитанных.
+     * @param recipientUnreadCounts accountId получателя -> количество непрочитанных из памяти;
+     *                              null, если счетчик не загружен и клиенту нужно перечитать список
+     */
+    void messageStored(Integer chatId, Integer messageId, OffsetDateTime created, String text,
+                       Map<Integer, Integer> recipientUnreadCounts);
+
+    /**
+     * Сообщает вкладкам участника, что он прочитал чат и счетчик непрочитанных обнулен
+     */
+    void chatRead(Integer chatId, Integer accountId);
+}
@@ -18,11 +18,18 @@ public interface CustomerService {
     Optional<Customer> findByAccountId(Integer accountId);
     
     // Business logic methods
-    Map<String, Object> getCustomerOrders(Integer accountId, String searchTerm);
+    /**
+     * Страница заказов заказчика
+     * @param status статус или несколько статусов через запятую; пустое значение - любой статус
+     * @param sortBy поле и направление сортировки, например "publicationTime:desc"
+     * @throws IllegalArgumentException если статус или сортировка заданы неверно
+     */
+    Map<String, Object> getCustomerOrders(Integer accountId, String searchTerm, String status, String sortBy,
+                                          int page, int pageSize);
     AddOrderDto getOrderWithReplies(Integer orderId);
-    Map<String, Object> getDoneOrders(Integer accountId);
+    Map<String, Object> getDoneOrders(Integer accountId, String sortBy, int page, int pageSize);
     Map<String, Object> getCustomerChats(Integer accountId, String tab);
-    Map<String, Object> getChatMessages(Integer accountId, Integer chatId);
+    Map<String, Object> getChatMessages(Integer accountId, Integer chatId, Integer beforeId, Integer afterId, Integer limit);
     void markChatAsRead(Integer accountId, Integer chatId);
     void createOrder(Integer accountId, AddOrderDto dto);
     void updateOrder(Integer accountId, Integer orderId, AddOrderDto dto);
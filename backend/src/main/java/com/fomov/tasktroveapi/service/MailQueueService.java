@@ -0,0 +1,9 @@
+package com.fomov.tasktroveapi.service;
+
+public interface MailQueueService {
+    /**
+     * Ставит письмо в очередь. Запись сохраняется в текущей транзакции,
+     * отправка выполняется асинхронно после ее коммита.
+     */
+    void enqueue(String to, String subject, String text, String attachmentPath);
+}
@@ -1,6 +1,7 @@
 package com.fomov.tasktroveapi.service;
 
 import com.fomov.tasktroveapi.model.Message;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,6 +12,14 @@ public interface MessageService {
     Message save(Message message);
     void deleteById(Integer id);
     List<Message> findByChatId(Integer chatId);
+    
+    /**
+     * Страница истории чата в хронологическом порядке.
+     * Без курсоров возвращает последние limit сообщений; с beforeId - более старые сообщения,
+     * с afterId - более новые. hasNext() означает, что в направлении запроса есть еще сообщения.
+     * @throws IllegalArgumentException если сообщения-курсора нет в чате (например, оно удалено)
+     */
+    Slice<Message> findChatPage(Integer chatId, Integer beforeId, Integer afterId, int limit);
     Long countUnreadMessages(Integer chatId, Integer userId, java.time.OffsetDateTime lastCheckedTime);
 }
 
@@ -0,0 +1,31 @@
+package com.fomov.tasktroveapi.service;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface MessageWriteBehindService {
+    /**
+     * Ставит сообщение чата в очередь на запись. Сообщения записываются в БД пакетами
+     * в отдельном потоке, результат сообщается через callback из этого потока.
+     * Если очередь заполнена, вызывающий поток ждет освобождения места ограниченное время.
+     * @return false, если сообщение не принято (очередь переполнена или приложение останавливается)
+     */
+    boolean enqueue(PendingMessage message, WriteCallback callback);
+
+    /**
+     * Сообщение, принятое от отправителя, но еще не записанное в БД.
+     * Время создания назначается потоком записи в порядке очереди, чтобы оно росло вместе с id
+     */
+    record PendingMessage(Integer chatId,
+                          Integer senderAccountId,
+                          String senderType,
+                          String text,
+                          List<Integer> recipientAccountIds) {
+    }
+
+    interface WriteCallback {
+        void onStored(Integer messageId, OffsetDateTime created);
+
+        void onFailed(Exception error);
+    }
+}
@@ -2,12 +2,14 @@ package com.fomov.tasktroveapi.service;
 
 import com.fomov.tasktroveapi.model.Notification;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationService {
     Notification save(Notification notification);
     List<Notification> findByAccountId(Integer accountId);
     List<Notification> findUnreadByAccountId(Integer accountId);
+    List<Notification> findNewerThan(Integer accountId, Integer afterId);
     Long countUnreadByAccountId(Integer accountId);
     void markAsRead(Integer notificationId, Integer accountId);
     void markAllAsRead(Integer accountId);
@@ -25,7 +27,11 @@ public interface NotificationService {
     
     // Методы для уведомлений о модерации заказов
     void createOrderReviewNotification(Integer adminAccountId, Integer customerId, Integer orderId, String orderTitle, String customerName);
+    // Одно уведомление каждому администратору; все строки записываются одним пакетным INSERT
+    void createOrderReviewNotifications(Collection<Integer> adminAccountIds, Integer customerId, Integer orderId, String orderTitle, String customerName);
     void createOrderApprovedNotification(Integer customerAccountId, Integer orderId, String orderTitle);
+    // Исполнителям, сохраненный поиск которых совпал с опубликованным заказом; один пакетный INSERT
+    void createSavedSearchMatchNotifications(Collection<Integer> performerAccountIds, Integer orderId, String orderTitle);
     void createOrderRejectedNotification(Integer customerAccountId, Integer orderId, String orderTitle, String reason);
     
     // Методы для уведомлений о отзывах
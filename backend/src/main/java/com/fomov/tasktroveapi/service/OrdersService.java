@@ -1,8 +1,14 @@
 package com.fomov.tasktroveapi.service;
 
+import com.fomov.tasktroveapi.dto.OrderFeedCursor;
+import com.fomov.tasktroveapi.dto.OrderListItem;
 import com.fomov.tasktroveapi.model.OrderStatus;
 import com.fomov.tasktroveapi.model.Orders;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +16,14 @@ public interface OrdersService {
     List<Orders> findAll();
     Optional<Orders> findById(Integer id);
     Orders save(Orders order);
+
+    /**
+     * Полная замена заказа. Если заказ входит в DONE, выходит из него или меняет исполнителя,
+     * счетчик выполненных заказов исполнителей корректируется в той же транзакции
+     * @return пустой результат, если заказа нет
+     */
+    Optional<Orders> update(Integer id, Orders updated);
+
     void deleteById(Integer id);
     List<Orders> findByCustomerId(Integer customerId);
     List<Orders> findByCustomerIdAndSearchTerm(Integer customerId, String searchTerm);
@@ -18,6 +32,23 @@ public interface OrdersService {
     List<Orders> findByTitleContaining(String titlePart);
     List<Orders> findAllActive();
     List<Orders> findByTitleContainingAndActive(String titlePart);
+    
+    // Постраничная лента активных заказов
+    List<Orders> findActiveFeed(Pageable pageable);
+    List<Orders> findActiveFeedByTitleContaining(String titlePart, Pageable pageable);
+    List<Orders> findActiveFeedAfter(OrderFeedCursor cursor, int limit);
+    
+    // Списки заказов в виде проекций без загрузки сущностей
+    List<OrderListItem> findAllListItems();
+    List<OrderListItem> findListItemsByStatus(OrderStatus status);
+    List<OrderListItem> findListItemsByTitleContaining(String titlePart);
+    // Проекции заказов в порядке переданных id (для ранжированных выдач)
+    List<OrderListItem> findListItemsByIds(List<Integer> ids);
+    
+    // Постраничные "мои заказы": пустой statuses означает любой статус
+    Slice<OrderListItem> findCustomerListItems(Integer customerId, Collection<OrderStatus> statuses,
+                                               String searchTerm, Pageable pageable);
+    Slice<OrderListItem> findPerformerActiveListItems(Integer performerId, String searchTerm, Pageable pageable);
 }
 
 
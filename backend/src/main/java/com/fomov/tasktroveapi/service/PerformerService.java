@@ -16,12 +16,12 @@ public interface PerformerService {
     Optional<Performer> findByIdWithAccount(Integer id);
     
     // Business logic methods
-    Map<String, Object> getAvailableOrders(Integer accountId, String searchTerm, String sortBy, int page, int pageSize);
-    Map<String, Object> getMyActiveOrders(Integer accountId, String searchTerm);
+    Map<String, Object> getAvailableOrders(Integer accountId, String searchTerm, String sortBy, String cursor, int page, int pageSize);
+    Map<String, Object> getMyActiveOrders(Integer accountId, String searchTerm, int page, int pageSize);
     AddOrderDto getOrderDetails(Integer accountId, Integer orderId);
     Map<String, Object> getMyReplies(Integer accountId, String tab);
     Map<String, Object> getMyChats(Integer accountId, String tab);
-    Map<String, Object> getChatMessages(Integer accountId, Integer chatId);
+    Map<String, Object> getChatMessages(Integer accountId, Integer chatId, Integer beforeId, Integer afterId, Integer limit);
     void markChatAsRead(Integer accountId, Integer chatId);
     Integer createReply(Integer accountId, ReplyDto dto);
     void updateTaskStatus(Integer accountId, UpdateReplyDto dto);
@@ -34,4 +34,5 @@ public interface PerformerService {
     void deleteChat(Integer accountId, Integer chatId);
     void addReview(Integer accountId, WorkExperienceDto dto);
     List<Performer> getTopPerformers();
+    void adjustCompletedOrdersCount(Integer performerId, int delta);
 }
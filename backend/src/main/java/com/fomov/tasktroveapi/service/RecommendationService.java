@@ -0,0 +1,15 @@
+package com.fomov.tasktroveapi.service;
+
+import java.util.Map;
+
+/**
+ * Рекомендации открытых заказов исполнителю по его портфолио
+ */
+public interface RecommendationService {
+
+    /**
+     * Лучшие заказы из заранее посчитанного индекса рекомендаций, без перебора заказов
+     * @return orders - заказы по убыванию соответствия, ready - построен ли индекс
+     */
+    Map<String, Object> getRecommendedOrders(Integer accountId, int limit);
+}
@@ -2,8 +2,10 @@ package com.fomov.tasktroveapi.service;
 
 import com.fomov.tasktroveapi.model.Reply;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface ReplyService {
     List<Reply> findAll();
@@ -13,6 +15,7 @@ public interface ReplyService {
     List<Reply> findByOrderId(Integer orderId);
     List<Reply> findByPerformerId(Integer performerId);
     boolean existsByOrderIdAndPerformerId(Integer orderId, Integer performerId);
+    Set<Integer> findRepliedOrderIds(Integer performerId, Collection<Integer> orderIds);
     List<Reply> findByPerformerIdWithRelations(Integer performerId);
     List<Reply> findByOrderIdWithRelations(Integer orderId);
     int deleteByOrderIdAndPerformerId(Integer orderId, Integer performerId);
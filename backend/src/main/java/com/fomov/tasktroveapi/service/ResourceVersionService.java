@@ -0,0 +1,48 @@
+package com.fomov.tasktroveapi.service;
+
+import java.util.Collection;
+
+/**
+ * Версии данных, которые клиент опрашивает по таймеру. Пути записи увеличивают версию
+ * после коммита, а контроллеры строят из версий ETag и отвечают 304 на If-None-Match
+ * до выполнения запросов к БД.
+ */
+public interface ResourceVersionService {
+
+    enum Resource {
+        // Заказы и отклики: общая версия для всех пользователей
+        ORDERS(false),
+        // Список чатов участника
+        CHATS(true),
+        // Уведомления аккаунта
+        NOTIFICATIONS(true);
+
+        private final boolean perAccount;
+
+        Resource(boolean perAccount) {
+            this.perAccount = perAccount;
+        }
+
+        public boolean isPerAccount() {
+            return perAccount;
+        }
+    }
+
+    /**
+     * Общие данные изменились. Версия увеличивается после коммита текущей транзакции,
+     * чтобы клиент не закэшировал под новой версией еще не закоммиченное состояние.
+     */
+    void changed(Resource resource);
+
+    /**
+     * Данные аккаунта изменились; версия увеличивается после коммита
+     */
+    void changed(Resource resource, Integer accountId);
+
+    void changed(Resource resource, Collection<Integer> accountIds);
+
+    /**
+     * ETag ответа, зависящего от перечисленных ресурсов, для данного пользователя
+     */
+    String etag(Integer accountId, Resource... resources);
+}
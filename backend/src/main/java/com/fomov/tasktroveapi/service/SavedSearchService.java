@@ -0,0 +1,38 @@
+package com.fomov.tasktroveapi.service;
+
+import com.fomov.tasktroveapi.dto.SavedSearchDto;
+
+import java.util.List;
+
+/**
+ * Сохраненные поиски исполнителей и рассылка уведомлений о подходящих новых заказах
+ */
+public interface SavedSearchService {
+
+    List<SavedSearchDto> findByPerformerAccountId(Integer accountId);
+
+    /**
+     * @throws IllegalArgumentException если не заданы ни ключевые слова, ни технологии,
+     *                                  диапазон бюджета некорректен или превышен лимит поисков
+     */
+    SavedSearchDto create(Integer accountId, SavedSearchDto dto);
+
+    void delete(Integer accountId, Integer savedSearchId);
+
+    /**
+     * Отмечает одобренный заказ как ожидающий сверки; вызывается в транзакции одобрения
+     */
+    void markForMatching(Integer orderId);
+
+    /**
+     * Сверяет опубликованный заказ с сохраненными поисками и уведомляет совпавших исполнителей.
+     * Пока индекс не построен, заказ остается в ожидании; повторный вызов для уже сверенного
+     * заказа ничего не делает
+     */
+    void notifyMatchingPerformers(Integer orderId);
+
+    /**
+     * Заказы, ожидающие сверки: событие о них могло не дойти или прийти до построения индекса
+     */
+    List<Integer> findPendingMatchOrderIds(int limit);
+}
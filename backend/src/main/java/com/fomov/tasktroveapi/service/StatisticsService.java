@@ -0,0 +1,13 @@
+package com.fomov.tasktroveapi.service;
+
+import java.util.Map;
+
+public interface StatisticsService {
+    /**
+     * Сводная статистика для панели администратора.
+     * Значения могут отставать от БД: обычно не более чем на время жизни снимка,
+     * в худшем случае - на предельный возраст снимка (две минуты).
+     * Момент подсчета возвращается в поле generatedAt.
+     */
+    Map<String, Object> getStatistics();
+}
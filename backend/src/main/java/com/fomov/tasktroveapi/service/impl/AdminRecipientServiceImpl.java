@@ -0,0 +1,66 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.repository.AccountRepository;
+import com.fomov.tasktroveapi.service.AdminRecipientService;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш получателей уведомлений о модерации. Раньше при каждом создании заказа
+ * загружались все аккаунты системы и фильтровались по роли в Java.
+ */
+@Service
+public class AdminRecipientServiceImpl implements AdminRecipientService {
+
+    private static final List<String> ADMIN_ROLES = List.of("Administrator", "SuperAdministrator");
+
+    // Роли могут меняться в обход AdministratorController (например, напрямую в БД), поэтому список периодически перечитывается
+    private static final long SNAPSHOT_TTL_MILLIS = 10 * 60 * 1000L; // 10 минут
+
+    private final AccountRepository accountRepository;
+
+    private volatile Snapshot snapshot;
+
+    // Увеличивается при каждом сбросе: список, прочитанный до сброса, в кэш не попадет
+    private final AtomicLong version = new AtomicLong();
+
+    public AdminRecipientServiceImpl(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+    }
+
+    @Override
+    public List<Integer> getAdminAccountIds() {
+        Snapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        if (current != null && current.expiresAt() > now) {
+            return current.accountIds();
+        }
+
+        long loadedVersion = version.get();
+        List<Integer> accountIds = List.copyOf(accountRepository.findIdsByRoleNames(ADMIN_ROLES));
+        synchronized (this) {
+            if (version.get() == loadedVersion) {
+                snapshot = new Snapshot(accountIds, now + SNAPSHOT_TTL_MILLIS);
+            }
+        }
+        return accountIds;
+    }
+
+    @Override
+    public void invalidate() {
+        // Сбрасываем и сразу, и после завершения транзакции: между ними список могли перечитать со старыми ролями
+        invalidateNow();
+        TransactionCallbacks.afterCompletion(this::invalidateNow);
+    }
+
+    private synchronized void invalidateNow() {
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
+    private record Snapshot(List<Integer> accountIds, long expiresAt) {
+    }
+}
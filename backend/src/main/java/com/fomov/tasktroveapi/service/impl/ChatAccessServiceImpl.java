@@ -1,22 +1,43 @@
 package com.fomov.tasktroveapi.service.impl;
 
 import com.fomov.tasktroveapi.model.Chat;
+import com.fomov.tasktroveapi.repository.ChatRepository;
 import com.fomov.tasktroveapi.service.ChatAccessService;
-import com.fomov.tasktroveapi.service.ChatService;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Проверка доступа к чатам. Участники, флаги удаления и имена участников чата
+ * кэшируются в памяти, поэтому проверка каждого входящего STOMP-сообщения не читает БД.
+ */
 @Service
 public class ChatAccessServiceImpl implements ChatAccessService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatAccessServiceImpl.class);
-    private final ChatService chatService;
 
-    public ChatAccessServiceImpl(ChatService chatService) {
-        this.chatService = chatService;
+    private static final int MAX_CACHED_CHATS = 50000;
+
+    // Имена участников меняются без вытеснения, поэтому описание периодически перечитывается
+    private static final long DESCRIPTOR_TTL_MILLIS = 10 * 60 * 1000L; // 10 минут
+
+    // Чат читается напрямую из репозитория: ChatService сам вытесняет описания при удалении чатов
+    private final ChatRepository chatRepository;
+
+    private final Map<Integer, CachedDescriptor> descriptors = new ConcurrentHashMap<>();
+
+    // Увеличивается при каждом вытеснении: описание, прочитанное до вытеснения, в кэш не попадет
+    private final AtomicLong evictionVersion = new AtomicLong();
+
+    public ChatAccessServiceImpl(ChatRepository chatRepository) {
+        this.chatRepository = chatRepository;
     }
 
     @Override
@@ -26,14 +47,68 @@ public class ChatAccessServiceImpl implements ChatAccessService {
             return false;
         }
 
-        Optional<Chat> chatOpt = chatService.findById(chatId);
-        if (chatOpt.isEmpty()) {
+        Optional<ChatDescriptor> descriptor = getDescriptor(chatId);
+        if (descriptor.isEmpty()) {
             logger.warn("Chat not found: chatId={}", chatId);
             return false;
         }
 
-        Chat chat = chatOpt.get();
-        return isParticipant(chat, userId, userRole);
+        boolean hasAccess = "Administrator".equals(userRole)
+                || descriptor.get().participantName(userId, userRole) != null;
+        if (!hasAccess) {
+            logger.warn("Access denied: userId={}, userRole={}, chatId={}", userId, userRole, chatId);
+        }
+        return hasAccess;
+    }
+
+    @Override
+    public Optional<ChatDescriptor> getDescriptor(Integer chatId) {
+        if (chatId == null) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        CachedDescriptor cached = descriptors.get(chatId);
+        if (cached != null && cached.expiresAt() > now) {
+            return Optional.of(cached.descriptor());
+        }
+
+        long version = evictionVersion.get();
+        Optional<ChatDescriptor> loaded = chatRepository.findByIdWithRelations(chatId).map(ChatDescriptor::from);
+        if (loaded.isPresent()) {
+            synchronized (descriptors) {
+                if (evictionVersion.get() == version
+                        && (descriptors.size() < MAX_CACHED_CHATS || descriptors.containsKey(chatId))) {
+                    descriptors.put(chatId, new CachedDescriptor(loaded.get(), now + DESCRIPTOR_TTL_MILLIS));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void evict(Integer chatId) {
+        if (chatId == null) {
+            return;
+        }
+        // Вытесняем и сразу, и после коммита: между ними описание могли перечитать со старыми данными
+        evictNow(chatId);
+        TransactionCallbacks.afterCompletion(() -> evictNow(chatId));
+    }
+
+    /**
+     * Периодическая очистка устаревших описаний чатов
+     */
+    @Scheduled(fixedRate = 300000) // 5 минут
+    public void evictExpiredDescriptors() {
+        long now = System.currentTimeMillis();
+        descriptors.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+
+    private void evictNow(Integer chatId) {
+        synchronized (descriptors) {
+            evictionVersion.incrementAndGet();
+            descriptors.remove(chatId);
+        }
     }
 
     @Override
@@ -73,4 +148,7 @@ public class ChatAccessServiceImpl implements ChatAccessService {
 
         return hasAccess;
     }
+
+    private record CachedDescriptor(ChatDescriptor descriptor, long expiresAt) {
+    }
 }
@@ -0,0 +1,113 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.dto.ChatDto;
+import com.fomov.tasktroveapi.repository.ChatRepository;
+import com.fomov.tasktroveapi.service.ChatLastMessageService;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поддерживает в строке чата время, id и превью последнего сообщения.
+ * Отправка сообщения только обновляет запись в памяти; раз в секунду для каждого
+ * измененного чата выполняется один условный UPDATE с самым новым сообщением.
+ */
+@Service
+public class ChatLastMessageServiceImpl implements ChatLastMessageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatLastMessageServiceImpl.class);
+
+    public static final int PREVIEW_LENGTH = 100;
+
+    private final ChatRepository chatRepository;
+
+    // chatId -> последнее сообщение, еще не записанное в БД
+    private final Map<Integer, LastMessage> pending = new ConcurrentHashMap<>();
+
+    public ChatLastMessageServiceImpl(ChatRepository chatRepository) {
+        this.chatRepository = chatRepository;
+    }
+
+    @Override
+    public void messageStored(Integer chatId, Integer messageId, OffsetDateTime created, String text) {
+        if (chatId == null || messageId == null) {
+            return;
+        }
+        LastMessage message = new LastMessage(messageId, created, preview(text));
+        TransactionCallbacks.afterCommit(() -> pending.merge(chatId, message,
+                (current, candidate) -> candidate.messageId() > current.messageId() ? candidate : current));
+    }
+
+    @Override
+    public void messageDeleted(Integer chatId, Integer messageId) {
+        if (chatId == null || messageId == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            pending.computeIfPresent(chatId, (id, message) -> message.messageId().equals(messageId) ? null : message);
+            // Уже выполняемая запись удаленного сообщения не пройдет: updateLastMessage проверяет его наличие
+            chatRepository.recalculateLastMessage(chatId, PREVIEW_LENGTH);
+        });
+    }
+
+    @Override
+    public void applyPending(ChatDto dto) {
+        LastMessage message = pending.get(dto.getId());
+        if (message != null && (dto.getLastMessageId() == null || message.messageId() > dto.getLastMessageId())) {
+            dto.setLastMessageId(message.messageId());
+            dto.setLastMessageTime(message.created());
+            dto.setLastMessagePreview(message.preview());
+        }
+    }
+
+    /**
+     * Периодическая запись накопленных изменений
+     */
+    @Scheduled(fixedDelay = 1000) // 1 секунда
+    public void flush() {
+        for (Integer chatId : pending.keySet()) {
+            LastMessage message = pending.get(chatId);
+            if (message == null) {
+                continue;
+            }
+            try {
+                chatRepository.updateLastMessage(chatId, message.messageId(), message.created(), message.preview());
+                // Удаляем только записанное значение: более новое сообщение дождется следующего прохода
+                pending.remove(chatId, message);
+            } catch (Exception e) {
+                logger.error("Failed to update last message of chat {}", chatId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    static String preview(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.strip();
+        if (trimmed.length() <= PREVIEW_LENGTH) {
+            return trimmed;
+        }
+        // Не разрезаем суррогатную пару
+        int end = PREVIEW_LENGTH;
+        if (Character.isHighSurrogate(trimmed.charAt(end - 1))) {
+            end--;
+        }
+        return trimmed.substring(0, end);
+    }
+
+    private record LastMessage(Integer messageId, OffsetDateTime created, String preview) {
+    }
+}
@@ -2,10 +2,14 @@ package com.fomov.tasktroveapi.service.impl;
 
 import com.fomov.tasktroveapi.model.Chat;
 import com.fomov.tasktroveapi.repository.ChatRepository;
+import com.fomov.tasktroveapi.service.ChatAccessService;
 import com.fomov.tasktroveapi.service.ChatService;
+import com.fomov.tasktroveapi.service.ChatUnreadCounterService;
+import com.fomov.tasktroveapi.service.ResourceVersionService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,9 +18,16 @@ import java.util.Optional;
 public class ChatServiceImpl implements ChatService {
 
     private final ChatRepository repository;
+    private final ChatUnreadCounterService unreadCounterService;
+    private final ChatAccessService chatAccessService;
+    private final ResourceVersionService resourceVersionService;
 
-    public ChatServiceImpl(ChatRepository repository) {
+    public ChatServiceImpl(ChatRepository repository, ChatUnreadCounterService unreadCounterService,
+                           ChatAccessService chatAccessService, ResourceVersionService resourceVersionService) {
         this.repository = repository;
+        this.unreadCounterService = unreadCounterService;
+        this.chatAccessService = chatAccessService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @Override
@@ -30,10 +41,20 @@ public class ChatServiceImpl implements ChatService {
     }
 
     @Override
-    public Chat save(Chat chat) { return repository.save(chat); }
+    public Chat save(Chat chat) {
+        Chat saved = repository.save(chat);
+        // Создание чата, отметка о прочтении и флаги удаления меняют списки чатов обоих участников
+        participantsChanged(ChatAccessService.ChatDescriptor.from(saved));
+        return saved;
+    }
 
     @Override
-    public void deleteById(Integer id) { repository.deleteById(id); }
+    public void deleteById(Integer id) {
+        chatAccessService.getDescriptor(id).ifPresent(this::participantsChanged);
+        repository.deleteById(id);
+        unreadCounterService.invalidateChat(id);
+        chatAccessService.evict(id);
+    }
 
     @Override
     public List<Chat> findByRoomName(String roomName) { 
@@ -59,6 +80,9 @@ public class ChatServiceImpl implements ChatService {
     public List<Chat> findByCustomerIdAndPerformerIdIgnoreDeleted(Integer customerId, Integer performerId) {
         return repository.findByCustomerIdAndPerformerIdIgnoreDeleted(customerId, performerId);
     }
-}
-
 
+    private void participantsChanged(ChatAccessService.ChatDescriptor descriptor) {
+        resourceVersionService.changed(ResourceVersionService.Resource.CHATS,
+                Arrays.asList(descriptor.customerAccountId(), descriptor.performerAccountId()));
+    }
+}
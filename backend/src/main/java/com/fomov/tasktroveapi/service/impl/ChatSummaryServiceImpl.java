@@ -0,0 +1,131 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.dto.ChatDto;
+import com.fomov.tasktroveapi.mapper.ChatMapper;
+import com.fomov.tasktroveapi.model.Chat;
+import com.fomov.tasktroveapi.model.OrderStatus;
+import com.fomov.tasktroveapi.repository.ChatRepository;
+import com.fomov.tasktroveapi.repository.OrdersRepository;
+import com.fomov.tasktroveapi.service.ChatLastMessageService;
+import com.fomov.tasktroveapi.service.ChatSummaryService;
+import com.fomov.tasktroveapi.service.ChatUnreadCounterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Сводки чатов для списков чатов заказчика и исполнителя.
+ * Чаты загружаются одним запросом, количество непрочитанных берется из счетчиков в памяти,
+ * состояние связанных заказов - вторым запросом по всем чатам сразу.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ChatSummaryServiceImpl implements ChatSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSummaryServiceImpl.class);
+
+    private static final String ORDER_PREFIX = "Order #";
+
+    private final ChatRepository chatRepository;
+    private final OrdersRepository ordersRepository;
+    private final ChatMapper chatMapper;
+    private final ChatUnreadCounterService unreadCounterService;
+    private final ChatLastMessageService lastMessageService;
+
+    public ChatSummaryServiceImpl(ChatRepository chatRepository,
+                                  OrdersRepository ordersRepository,
+                                  ChatMapper chatMapper,
+                                  ChatUnreadCounterService unreadCounterService,
+                                  ChatLastMessageService lastMessageService) {
+        this.chatRepository = chatRepository;
+        this.ordersRepository = ordersRepository;
+        this.chatMapper = chatMapper;
+        this.unreadCounterService = unreadCounterService;
+        this.lastMessageService = lastMessageService;
+    }
+
+    @Override
+    public List<ChatDto> getCustomerChatSummaries(Integer customerId, Integer accountId) {
+        return toSummaries(chatRepository.findByCustomerIdWithRelations(customerId), accountId, "Customer");
+    }
+
+    @Override
+    public List<ChatDto> getPerformerChatSummaries(Integer performerId, Integer accountId) {
+        return toSummaries(chatRepository.findByPerformerIdWithRelations(performerId), accountId, "Performer");
+    }
+
+    private List<ChatDto> toSummaries(List<Chat> chats, Integer accountId, String userRole) {
+        List<Integer> chatIds = new ArrayList<>(chats.size());
+        for (Chat chat : chats) {
+            chatIds.add(chat.getId());
+        }
+        Map<Integer, Integer> unreadCounts = unreadCounterService.getUnreadCounts(chatIds, accountId, userRole);
+
+        List<ChatDto> summaries = new ArrayList<>(chats.size());
+        Set<Integer> orderIds = new HashSet<>();
+        for (Chat chat : chats) {
+            ChatDto dto = chatMapper.toDto(chat);
+            dto.setUnreadCount(unreadCounts.getOrDefault(chat.getId(), 0));
+            // Последнее сообщение хранится в строке чата; еще не записанное берем из памяти
+            lastMessageService.applyPending(dto);
+            Integer orderId = extractOrderIdFromRoomName(chat.getRoomName());
+            if (orderId != null) {
+                dto.setOrderId(orderId);
+                orderIds.add(orderId);
+            }
+            summaries.add(dto);
+        }
+
+        if (orderIds.isEmpty()) {
+            return summaries;
+        }
+
+        // Заполняем информацию о заказе для проверки возможности удаления
+        Map<Integer, Object[]> orderStates = new HashMap<>();
+        for (Object[] state : ordersRepository.findStatusAndPerformerByIds(orderIds)) {
+            orderStates.put((Integer) state[0], state);
+        }
+        for (ChatDto dto : summaries) {
+            Object[] state = dto.getOrderId() != null ? orderStates.get(dto.getOrderId()) : null;
+            if (state != null) {
+                dto.setOrderIsDone(state[1] == OrderStatus.DONE);
+                dto.setOrderPerformerId((Integer) state[2]);
+            }
+        }
+        return summaries;
+    }
+
+    private Integer extractOrderIdFromRoomName(String roomName) {
+        if (roomName == null) {
+            return null;
+        }
+        // Формат может быть: "Order #14: Название" или "Order #14: Название, Order #15: Название2"
+        // Извлекаем первый orderId из строки
+        int orderIndex = roomName.indexOf(ORDER_PREFIX);
+        if (orderIndex < 0) {
+            return null;
+        }
+        int start = orderIndex + ORDER_PREFIX.length();
+        int end = start;
+        while (end < roomName.length() && Character.isDigit(roomName.charAt(end))) {
+            end++;
+        }
+        if (end == start) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(roomName.substring(start, end));
+        } catch (NumberFormatException e) {
+            logger.error("Failed to extract order ID from roomName: {}", roomName, e);
+            return null;
+        }
+    }
+}
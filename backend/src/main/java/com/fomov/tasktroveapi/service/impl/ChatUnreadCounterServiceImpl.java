@@ -0,0 +1,261 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.repository.MessageRepository;
+import com.fomov.tasktroveapi.service.ChatUnreadCounterService;
+import com.fomov.tasktroveapi.service.ChatUpdatePushService;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счетчики непрочитанных сообщений по паре (чат, участник) в памяти процесса.
+ * Увеличиваются при отправке сообщения, обнуляются при чтении чата
+ * и лениво восстанавливаются из БД после перезапуска.
+ *
+ * Чаты разбиты на полосы: изменения счетчиков и установка загруженных из БД значений
+ * выполняются под блокировкой полосы, а номер версии полосы не дает записать
+ * значение, посчитанное в БД до параллельного изменения. Подсчет идет в собственной
+ * транзакции, снимок которой открывается уже после того, как версии запомнены.
+ *
+ * Счетчики сгруппированы по чату, поэтому сброс чата не перебирает остальные счетчики.
+ */
+@Service
+public class ChatUnreadCounterServiceImpl implements ChatUnreadCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatUnreadCounterServiceImpl.class);
+
+    private static final int STRIPES = 64;
+
+    // Верхняя граница числа счетчиков в памяти; сверх нее значения считаются запросом к БД
+    private static final int MAX_CACHED_COUNTERS = 100000;
+
+    // Счетчики, к которым не обращались дольше этого времени, удаляются
+    private static final long IDLE_EVICTION_MILLIS = 30 * 60 * 1000L; // 30 минут
+
+    private final MessageRepository messageRepository;
+    private final ChatUpdatePushService chatUpdatePushService;
+
+    // chatId -> accountId участника -> счетчик
+    private final Map<Integer, Map<Integer, Counter>> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger cachedCounters = new AtomicInteger();
+    private final Object[] stripeLocks = new Object[STRIPES];
+    private final AtomicLongArray stripeVersions = new AtomicLongArray(STRIPES);
+
+    public ChatUnreadCounterServiceImpl(MessageRepository messageRepository,
+                                        ChatUpdatePushService chatUpdatePushService) {
+        this.messageRepository = messageRepository;
+        this.chatUpdatePushService = chatUpdatePushService;
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> getUnreadCounts(Collection<Integer> chatIds, Integer accountId, String userRole) {
+        Map<Integer, Integer> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer chatId : chatIds) {
+            Counter counter = find(chatId, accountId);
+            if (counter != null) {
+                result.put(chatId, counter.get());
+            } else {
+                missing.add(chatId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // Версии полос запоминаем до запроса: если за время запроса счетчик менялся, результат в кэш не попадет
+        Map<Integer, Long> versions = new HashMap<>();
+        for (Integer chatId : missing) {
+            versions.put(chatId, stripeVersions.get(stripe(chatId)));
+        }
+
+        Map<Integer, Integer> loaded = new HashMap<>();
+        List<Object[]> rows = "Performer".equals(userRole)
+                ? messageRepository.countUnreadForPerformer(missing, accountId)
+                : messageRepository.countUnreadForCustomer(missing, accountId);
+        for (Object[] row : rows) {
+            loaded.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+
+        for (Integer chatId : missing) {
+            int count = loaded.getOrDefault(chatId, 0);
+            result.put(chatId, count);
+            int stripe = stripe(chatId);
+            synchronized (stripeLocks[stripe]) {
+                if (stripeVersions.get(stripe) == versions.get(chatId) && find(chatId, accountId) == null) {
+                    install(chatId, accountId, count);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Integer findCachedUnreadCount(Integer chatId, Integer accountId) {
+        Counter counter = find(chatId, accountId);
+        return counter != null ? counter.get() : null;
+    }
+
+    @Override
+    public void messageSent(Integer chatId, Integer recipientAccountId, OffsetDateTime created) {
+        if (chatId == null || recipientAccountId == null) {
+            return;
+        }
+        // Сообщение записывается в фоне: получатель мог открыть чат между отправкой и записью
+        long createdMillis = created != null ? created.toInstant().toEpochMilli() : Long.MAX_VALUE;
+        TransactionCallbacks.afterCommit(() -> {
+            int stripe = stripe(chatId);
+            synchronized (stripeLocks[stripe]) {
+                stripeVersions.incrementAndGet(stripe);
+                Counter counter = find(chatId, recipientAccountId);
+                if (counter != null && createdMillis > counter.readAtMillis) {
+                    counter.increment();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void markRead(Integer chatId, Integer accountId, OffsetDateTime readAt) {
+        if (chatId == null || accountId == null) {
+            return;
+        }
+        long readAtMillis = readAt != null ? readAt.toInstant().toEpochMilli() : System.currentTimeMillis();
+        TransactionCallbacks.afterCommit(() -> {
+            int stripe = stripe(chatId);
+            int previous;
+            synchronized (stripeLocks[stripe]) {
+                stripeVersions.incrementAndGet(stripe);
+                Counter counter = find(chatId, accountId);
+                // Незагруженный счетчик мог быть ненулевым
+                previous = counter != null ? counter.value.get() : -1;
+                if (counter == null) {
+                    counter = install(chatId, accountId, 0);
+                }
+                if (counter != null) {
+                    counter.reset(readAtMillis);
+                }
+            }
+            // Чат открывают и перечитывают часто, а другим вкладкам важно только исчезновение счетчика
+            if (previous != 0) {
+                chatUpdatePushService.chatRead(chatId, accountId);
+            }
+        });
+    }
+
+    @Override
+    public void invalidateChat(Integer chatId) {
+        if (chatId == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            int stripe = stripe(chatId);
+            synchronized (stripeLocks[stripe]) {
+                stripeVersions.incrementAndGet(stripe);
+                Map<Integer, Counter> removed = counters.remove(chatId);
+                if (removed != null) {
+                    cachedCounters.addAndGet(-removed.size());
+                }
+            }
+        });
+    }
+
+    /**
+     * Периодическая очистка давно не запрашиваемых счетчиков
+     */
+    @Scheduled(fixedRate = 300000) // 5 минут
+    public void evictIdleCounters() {
+        long threshold = System.currentTimeMillis() - IDLE_EVICTION_MILLIS;
+        int evicted = 0;
+        for (Map.Entry<Integer, Map<Integer, Counter>> chat : counters.entrySet()) {
+            int stripe = stripe(chat.getKey());
+            synchronized (stripeLocks[stripe]) {
+                Iterator<Counter> iterator = chat.getValue().values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().lastAccess < threshold) {
+                        iterator.remove();
+                        evicted++;
+                    }
+                }
+                if (chat.getValue().isEmpty()) {
+                    counters.remove(chat.getKey(), chat.getValue());
+                }
+            }
+        }
+        cachedCounters.addAndGet(-evicted);
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle chat unread counters", evicted);
+        }
+    }
+
+    private Counter find(Integer chatId, Integer accountId) {
+        Map<Integer, Counter> participants = counters.get(chatId);
+        return participants != null ? participants.get(accountId) : null;
+    }
+
+    /**
+     * Добавляет счетчик; вызывается под блокировкой полосы чата
+     */
+    private Counter install(Integer chatId, Integer accountId, int value) {
+        if (cachedCounters.get() >= MAX_CACHED_COUNTERS) {
+            return null;
+        }
+        // У чата два участника, поэтому вложенная карта маленькая
+        Counter counter = new Counter(value);
+        Counter existing = counters.computeIfAbsent(chatId, id -> new ConcurrentHashMap<>(4))
+                .putIfAbsent(accountId, counter);
+        if (existing != null) {
+            return existing;
+        }
+        cachedCounters.incrementAndGet();
+        return counter;
+    }
+
+    private static int stripe(Integer chatId) {
+        // Перемешиваем биты, чтобы соседние id чатов попадали в разные полосы
+        int h = chatId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Counter {
+        private final AtomicInteger value;
+        private volatile long lastAccess = System.currentTimeMillis();
+        // Последнее прочтение чата участником; изменяется под блокировкой полосы
+        private volatile long readAtMillis = Long.MIN_VALUE;
+
+        Counter(int initial) {
+            this.value = new AtomicInteger(initial);
+        }
+
+        int get() {
+            lastAccess = System.currentTimeMillis();
+            return value.get();
+        }
+
+        void increment() {
+            value.incrementAndGet();
+        }
+
+        void reset(long readAt) {
+            lastAccess = System.currentTimeMillis();
+            readAtMillis = Math.max(readAtMillis, readAt);
+            value.set(0);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.dto.ChatUpdateDto;
+import com.fomov.tasktroveapi.service.ChatUpdatePushService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Рассылка изменений списка чатов через WebSocket, чтобы клиентам не нужно было
+ * периодически перезапрашивать весь список ради счетчиков непрочитанных.
+ * Вызывается из потока пакетной записи сообщений, поэтому к БД не обращается.
+ */
+@Service
+public class ChatUpdatePushServiceImpl implements ChatUpdatePushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatUpdatePushServiceImpl.class);
+
+    // Персональная очередь изменений списка чатов: клиент подписывается на /user/queue/chats
+    private static final String CHATS_QUEUE = "/queue/chats";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public ChatUpdatePushServiceImpl(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public void messageStored(Integer chatId, Integer messageId, OffsetDateTime created, String text,
+                              Map<Integer, Integer> recipientUnreadCounts) {
+        String preview = ChatLastMessageServiceImpl.preview(text);
+        for (Map.Entry<Integer, Integer> recipient : recipientUnreadCounts.entrySet()) {
+            ChatUpdateDto update = new ChatUpdateDto();
+            update.setChatId(chatId);
+            update.setLastMessageId(messageId);
+            update.setLastMessageTime(created);
+            update.setLastMessagePreview(preview);
+            update.setUnreadCount(recipient.getValue());
+            send(recipient.getKey(), update);
+        }
+    }
+
+    @Override
+    public void chatRead(Integer chatId, Integer accountId) {
+        ChatUpdateDto update = new ChatUpdateDto();
+        update.setChatId(chatId);
+        update.setUnreadCount(0);
+        send(accountId, update);
+    }
+
+    private void send(Integer accountId, ChatUpdateDto update) {
+        try {
+            messagingTemplate.convertAndSendToUser(accountId.toString(), CHATS_QUEUE, update);
+        } catch (Exception e) {
+            logger.error("Failed to push chat update for chat {} to account {}", update.getChatId(), accountId, e);
+        }
+    }
+}
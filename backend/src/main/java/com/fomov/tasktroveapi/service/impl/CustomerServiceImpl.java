@@ -1,23 +1,31 @@
 package com.fomov.tasktroveapi.service.impl;
 
 import com.fomov.tasktroveapi.dto.*;
+import com.fomov.tasktroveapi.event.OrderEvent;
+import com.fomov.tasktroveapi.event.OrderEventBus;
 import com.fomov.tasktroveapi.exception.NotFoundException;
 import com.fomov.tasktroveapi.mapper.*;
 import com.fomov.tasktroveapi.model.*;
 import com.fomov.tasktroveapi.repository.CustomerRepository;
-import com.fomov.tasktroveapi.repository.AccountRepository;
 import com.fomov.tasktroveapi.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +33,9 @@ import java.util.stream.Collectors;
 public class CustomerServiceImpl implements CustomerService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomerServiceImpl.class);
+    
+    private static final int MAX_ORDERS_PAGE_SIZE = 100;
+    private static final Set<String> ORDER_SORT_FIELDS = Set.of("publicationTime", "endTime");
 
     @Value("${app.email.default-performer}")
     private String defaultPerformerEmail;
@@ -51,7 +62,11 @@ public class CustomerServiceImpl implements CustomerService {
     private final PortfolioService portfolioService;
     private final NotificationService notificationService;
     private final com.fomov.tasktroveapi.service.EmailNotificationService emailNotificationService;
-    private final AccountRepository accountRepository;
+    private final ChatSummaryService chatSummaryService;
+    private final ChatAccessService chatAccessService;
+    private final AdminRecipientService adminRecipientService;
+    private final OrderEventBus orderEventBus;
+    private final ChatUnreadCounterService unreadCounterService;
 
     public CustomerServiceImpl(CustomerRepository repository,
                               OrdersService ordersService,
@@ -69,7 +84,11 @@ public class CustomerServiceImpl implements CustomerService {
                               PortfolioService portfolioService,
                               NotificationService notificationService,
                               com.fomov.tasktroveapi.service.EmailNotificationService emailNotificationService,
-                              AccountRepository accountRepository) {
+                              ChatSummaryService chatSummaryService,
+                              ChatAccessService chatAccessService,
+                              AdminRecipientService adminRecipientService,
+                              OrderEventBus orderEventBus,
+                              ChatUnreadCounterService unreadCounterService) {
         this.repository = repository;
         this.ordersService = ordersService;
         this.ordersMapper = ordersMapper;
@@ -86,7 +105,11 @@ public class CustomerServiceImpl implements CustomerService {
         this.portfolioService = portfolioService;
         this.notificationService = notificationService;
         this.emailNotificationService = emailNotificationService;
-        this.accountRepository = accountRepository;
+        this.chatSummaryService = chatSummaryService;
+        this.chatAccessService = chatAccessService;
+        this.adminRecipientService = adminRecipientService;
+        this.orderEventBus = orderEventBus;
+        this.unreadCounterService = unreadCounterService;
     }
 
     @Override
@@ -121,24 +144,16 @@ public class CustomerServiceImpl implements CustomerService {
 
     @Override
     @Transactional(readOnly = true)
-    public Map<String, Object> getCustomerOrders(Integer accountId, String searchTerm) {
+    public Map<String, Object> getCustomerOrders(Integer accountId, String searchTerm, String status, String sortBy,
+                                                 int page, int pageSize) {
         Customer customer = repository.findByAccountId(accountId)
                 .orElseThrow(() -> new NotFoundException("Customer", accountId));
         
-        List<Orders> orders;
-        if (searchTerm != null && !searchTerm.isBlank()) {
-            orders = ordersService.findByCustomerIdAndSearchTerm(customer.getId(), searchTerm);
-        } else {
-            orders = ordersService.findByCustomerId(customer.getId());
-        }
-        
-        // Фильтруем заказы, удаленные заказчиком
-        List<AddOrderDto> orderDtos = orders.stream()
-                .filter(order -> !Boolean.TRUE.equals(order.getIsDeletedByCustomer()))
-                .map(ordersMapper::toDto)
-                .collect(Collectors.toList());
-        
-        return Map.of("orders", orderDtos);
+        // Статус, удаление заказчиком и поиск фильтруются в запросе, клиент получает только страницу
+        Pageable pageable = buildOrdersPage(page, pageSize, sortBy, "publicationTime");
+        Slice<OrderListItem> orders = ordersService.findCustomerListItems(
+                customer.getId(), parseStatuses(status), searchTerm, pageable);
+        return toOrdersPage(orders);
     }
 
     @Override
@@ -179,21 +194,15 @@ public class CustomerServiceImpl implements CustomerService {
 
     @Override
     @Transactional(readOnly = true)
-    public Map<String, Object> getDoneOrders(Integer accountId) {
+    public Map<String, Object> getDoneOrders(Integer accountId, String sortBy, int page, int pageSize) {
         Customer customer = repository.findByAccountId(accountId)
                 .orElseThrow(() -> new NotFoundException("Customer", accountId));
         
-        List<Orders> orders = ordersService.findByCustomerId(customer.getId());
-        List<Orders> doneOrders = orders.stream()
-                .filter(o -> o.getStatus() == com.fomov.tasktroveapi.model.OrderStatus.DONE)
-                .filter(o -> !Boolean.TRUE.equals(o.getIsDeletedByCustomer()))
-                .collect(Collectors.toList());
-        
-        List<AddOrderDto> orderDtos = doneOrders.stream()
-                .map(ordersMapper::toDto)
-                .collect(Collectors.toList());
-        
-        return Map.of("orders", orderDtos);
+        // Выполненные заказы по умолчанию упорядочены по дате завершения
+        Pageable pageable = buildOrdersPage(page, pageSize, sortBy, "endTime");
+        Slice<OrderListItem> orders = ordersService.findCustomerListItems(
+                customer.getId(), EnumSet.of(OrderStatus.DONE), null, pageable);
+        return toOrdersPage(orders);
     }
 
     @Override
@@ -202,39 +211,16 @@ public class CustomerServiceImpl implements CustomerService {
         Customer customer = repository.findByAccountId(accountId)
                 .orElseThrow(() -> new NotFoundException("Customer", accountId));
         
-        List<Chat> chats = chatService.findByCustomerId(customer.getId());
-        
-        List<ChatDto> chatDtos = chats.stream()
-                .map(chat -> {
-                    ChatDto dto = chatMapper.toDto(chat);
-                    // Подсчитываем непрочитанные сообщения (сообщения от performer после последней проверки)
-                    Long unreadCount = messageService.countUnreadMessages(
-                        chat.getId(), 
-                        accountId, 
-                        chat.getLastCheckedByCustomerTime()
-                    );
-                    dto.setUnreadCount(unreadCount != null ? unreadCount.intValue() : 0);
-                    
-                    // Заполняем информацию о заказе для проверки возможности удаления
-                    Integer orderId = extractOrderIdFromRoomName(chat.getRoomName());
-                    if (orderId != null) {
-                        dto.setOrderId(orderId);
-                        ordersService.findById(orderId).ifPresent(order -> {
-                            dto.setOrderIsDone(order.getStatus() == com.fomov.tasktroveapi.model.OrderStatus.DONE);
-                            dto.setOrderPerformerId(order.getPerformer() != null ? order.getPerformer().getId() : null);
-                        });
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        // Непрочитанные сообщения (от performer после последней проверки) и состояние заказов считаются пакетно
+        List<ChatDto> chatDtos = chatSummaryService.getCustomerChatSummaries(customer.getId(), accountId);
         
         return Map.of("chats", chatDtos);
     }
 
     @Override
     @Transactional
-    public Map<String, Object> getChatMessages(Integer accountId, Integer chatId) {
+    public Map<String, Object> getChatMessages(Integer accountId, Integer chatId,
+                                               Integer beforeId, Integer afterId, Integer limit) {
         Customer customer = repository.findByAccountId(accountId)
                 .orElseThrow(() -> new NotFoundException("Customer", accountId));
         
@@ -249,16 +235,21 @@ public class CustomerServiceImpl implements CustomerService {
         }
         
         // Помечаем чат как прочитанный для customer и обновляем время последней проверки
-        chat.setCheckByCustomer(true);
-        chat.setLastCheckedByCustomerTime(OffsetDateTime.now());
-        chatService.save(chat);
+        // Подгрузка более старой истории не означает, что пользователь увидел новые сообщения
+        if (beforeId == null) {
+            chat.setCheckByCustomer(true);
+            OffsetDateTime readAt = OffsetDateTime.now();
+            chat.setLastCheckedByCustomerTime(readAt);
+            chatService.save(chat);
+            unreadCounterService.markRead(chat.getId(), accountId, readAt);
+        }
         
-        List<Message> messages = messageService.findByChatId(chatId);
-        List<MessageDto> messageDtos = messages.stream()
+        Slice<Message> page = messageService.findChatPage(chatId, beforeId, afterId, limit != null ? limit : 0);
+        List<MessageDto> messageDtos = page.getContent().stream()
                 .map(messageMapper::toDto)
                 .collect(Collectors.toList());
         
-        return Map.of("messages", messageDtos);
+        return Map.of("messages", messageDtos, "hasMore", page.hasNext());
     }
 
     @Override
@@ -276,8 +267,10 @@ public class CustomerServiceImpl implements CustomerService {
         
         // Помечаем чат как прочитанный для customer и обновляем время последней проверки
         chat.setCheckByCustomer(true);
-        chat.setLastCheckedByCustomerTime(OffsetDateTime.now());
+        OffsetDateTime readAt = OffsetDateTime.now();
+        chat.setLastCheckedByCustomerTime(readAt);
         chatService.save(chat);
+        unreadCounterService.markRead(chat.getId(), accountId, readAt);
     }
 
     @Override
@@ -302,22 +295,14 @@ public class CustomerServiceImpl implements CustomerService {
         String orderTitle = order.getTitle() != null ? order.getTitle() : "Заказ #" + order.getId();
         String customerName = customer.getFullName() != null ? customer.getFullName() : "Заказчик";
         
-        // Находим всех администраторов (Administrator и SuperAdministrator)
-        List<Account> allAccounts = accountRepository.findAllWithRole();
-        for (Account account : allAccounts) {
-            if (account.getRole() != null) {
-                String roleName = account.getRole().getName();
-                if ("Administrator".equals(roleName) || "SuperAdministrator".equals(roleName)) {
-                    notificationService.createOrderReviewNotification(
-                        account.getId(),
-                        customer.getId(),
-                        order.getId(),
-                        orderTitle,
-                        customerName
-                    );
-                }
-            }
-        }
+        // Уведомления всем администраторам (Administrator и SuperAdministrator) одной пакетной вставкой
+        notificationService.createOrderReviewNotifications(
+            adminRecipientService.getAdminAccountIds(),
+            customer.getId(),
+            order.getId(),
+            orderTitle,
+            customerName
+        );
     }
 
     @Override
@@ -355,21 +340,13 @@ public class CustomerServiceImpl implements CustomerService {
         String orderTitle = existingOrder.getTitle() != null ? existingOrder.getTitle() : "Заказ #" + existingOrder.getId();
         String customerName = customer.getFullName() != null ? customer.getFullName() : "Заказчик";
         
-        List<Account> allAccounts = accountRepository.findAllWithRole();
-        for (Account account : allAccounts) {
-            if (account.getRole() != null) {
-                String roleName = account.getRole().getName();
-                if ("Administrator".equals(roleName) || "SuperAdministrator".equals(roleName)) {
-                    notificationService.createOrderReviewNotification(
-                        account.getId(),
-                        customer.getId(),
-                        existingOrder.getId(),
-                        orderTitle + " (обновлен)",
-                        customerName
-                    );
-                }
-            }
-        }
+        notificationService.createOrderReviewNotifications(
+            adminRecipientService.getAdminAccountIds(),
+            customer.getId(),
+            existingOrder.getId(),
+            orderTitle + " (обновлен)",
+            customerName
+        );
         
         logger.info("Order {} updated and resubmitted for review by customer {}", orderId, accountId);
     }
@@ -470,13 +447,9 @@ public class CustomerServiceImpl implements CustomerService {
                     Integer performerAccountId = refusedPerformer.getAccount().getId();
                     // Отправляем уведомление только если еще не отправляли этому исполнителю
                     if (!notifiedPerformerIds.contains(performerAccountId)) {
-                        notificationService.createPerformerNotSelectedNotification(
-                            performerAccountId,
-                            customer.getId(),
-                            order.getId(),
-                            orderTitle,
-                            customerName
-                        );
+                        orderEventBus.publish(OrderEvent.of(OrderEvent.Type.PERFORMER_NOT_SELECTED,
+                            order.getId(), orderTitle, customer.getId(), accountId, customerName,
+                            refusedPerformer.getId(), performerAccountId, refusedPerformer.getFullName()));
                         notifiedPerformerIds.add(performerAccountId);
                     }
                 }
@@ -497,13 +470,9 @@ public class CustomerServiceImpl implements CustomerService {
                     Integer performerAccountId = refusedPerformer.getAccount().getId();
                     // Отправляем уведомление только если еще не отправляли этому исполнителю
                     if (!notifiedPerformerIds.contains(performerAccountId)) {
-                        notificationService.createPerformerNotSelectedNotification(
-                            performerAccountId,
-                            customer.getId(),
-                            order.getId(),
-                            orderTitle,
-                            customerName
-                        );
+                        orderEventBus.publish(OrderEvent.of(OrderEvent.Type.PERFORMER_NOT_SELECTED,
+                            order.getId(), orderTitle, customer.getId(), accountId, customerName,
+                            refusedPerformer.getId(), performerAccountId, refusedPerformer.getFullName()));
                         notifiedPerformerIds.add(performerAccountId);
                     }
                 }
@@ -531,16 +500,11 @@ public class CustomerServiceImpl implements CustomerService {
         // Создаем чат между заказчиком и исполнителем, если его еще нет
         createChatIfNotExists(customer, performer, order);
         
-        // Создаем уведомление для исполнителя о принятии в работу
-        if (performer.getAccount() != null) {
-            notificationService.createAssignedNotification(
-                performer.getAccount().getId(),
-                customer.getId(),
-                order.getId(),
-                orderTitle,
-                customerName
-            );
-        }
+        // Уведомление исполнителю о принятии в работу отправляется после коммита
+        orderEventBus.publish(OrderEvent.of(OrderEvent.Type.PERFORMER_ASSIGNED,
+            order.getId(), orderTitle, customer.getId(), accountId, customerName,
+            performer.getId(), performer.getAccount() != null ? performer.getAccount().getId() : null,
+            performer.getFullName()));
     }
     
     private void createChatIfNotExists(Customer customer, Performer performer, Orders order) {
@@ -563,6 +527,7 @@ public class CustomerServiceImpl implements CustomerService {
             chat.setDeletedByCustomer(false);
             chat.setDeletedByPerformer(false);
             chatService.save(chat);
+            chatAccessService.evict(chat.getId());
             
             logger.info("Created chat between customer {} and performer {} for order {}", 
                        customer.getId(), performer.getId(), order.getId());
@@ -597,6 +562,8 @@ public class CustomerServiceImpl implements CustomerService {
             }
             
             chatService.save(existingChat);
+            // Восстановленный чат снова принимает сообщения - кэшированное описание устарело
+            chatAccessService.evict(existingChat.getId());
             
             if (wasRestored) {
                 logger.info("Restored and updated chat between customer {} and performer {} for order {}", 
@@ -621,24 +588,23 @@ public class CustomerServiceImpl implements CustomerService {
             throw new SecurityException("Access denied to order " + dto.getOrderId());
         }
         
+        boolean wasDone = order.getStatus() == com.fomov.tasktroveapi.model.OrderStatus.DONE;
+        
         if (dto.getIsDone() != null) {
             if (dto.getIsDone()) {
                 order.setStatus(com.fomov.tasktroveapi.model.OrderStatus.DONE);
                 if (order.getPerformer() != null) {
                     replyUpdateService.updateReplyOnOrderCompletion(order.getId(), order.getPerformer().getId());
                     
-                    // Создаем уведомление для исполнителя о том, что заказчик завершил заказ
+                    // Уведомление исполнителю о том, что заказчик завершил заказ, отправляется после коммита
                     String orderTitle = order.getTitle() != null ? order.getTitle() : "Заказ #" + order.getId();
                     String customerName = customer.getFullName() != null ? customer.getFullName() : "Заказчик";
-                    if (order.getPerformer().getAccount() != null) {
-                        notificationService.createOrderCompletedByCustomerNotification(
-                            order.getPerformer().getAccount().getId(),
-                            customer.getId(),
-                            order.getId(),
-                            orderTitle,
-                            customerName
-                        );
-                    }
+                    Performer orderPerformer = order.getPerformer();
+                    orderEventBus.publish(OrderEvent.of(OrderEvent.Type.ORDER_COMPLETED,
+                        order.getId(), orderTitle, customer.getId(), accountId, customerName,
+                        orderPerformer.getId(),
+                        orderPerformer.getAccount() != null ? orderPerformer.getAccount().getId() : null,
+                        orderPerformer.getFullName()));
                 }
             } else {
                 // Если заказ не завершен, возвращаем его в процесс
@@ -659,6 +625,12 @@ public class CustomerServiceImpl implements CustomerService {
         }
         
         ordersService.save(order);
+        
+        // Счетчик выполненных заказов исполнителя меняется только при входе в DONE или выходе из него
+        boolean isDone = order.getStatus() == com.fomov.tasktroveapi.model.OrderStatus.DONE;
+        if (wasDone != isDone && order.getPerformer() != null) {
+            performerService.adjustCompletedOrdersCount(order.getPerformer().getId(), isDone ? 1 : -1);
+        }
     }
 
     @Override
@@ -823,18 +795,11 @@ public class CustomerServiceImpl implements CustomerService {
         order.setStatus(com.fomov.tasktroveapi.model.OrderStatus.ACTIVE);
         ordersService.save(order);
         
-        // Создаем уведомление для исполнителя об отказе
-        if (performer != null && performer.getAccount() != null) {
-            notificationService.createRefusedNotification(
-                performer.getAccount().getId(),
-                performer.getId(),
-                orderId,
-                orderTitle,
-                customerName
-            );
-        }
-        
-        sendRefusalEmail(performer, performerName, customerName, orderTitle);
+        // Уведомление и письмо исполнителю об отказе отправляются после коммита
+        orderEventBus.publish(OrderEvent.of(OrderEvent.Type.PERFORMER_REFUSED,
+            orderId, orderTitle, customer.getId(), accountId, customerName,
+            performerId, performer != null && performer.getAccount() != null ? performer.getAccount().getId() : null,
+            performerName));
     }
 
     @Override
@@ -854,38 +819,10 @@ public class CustomerServiceImpl implements CustomerService {
         // Помечаем чат как удаленный для заказчика (мягкое удаление - чат скрыт только для заказчика)
         chat.setDeletedByCustomer(true);
         chatService.save(chat);
+        chatAccessService.evict(chatId);
         
         logger.info("Chat {} deleted by customer {} (soft delete)", chatId, customer.getId());
     }
-    
-    private Integer extractOrderIdFromRoomName(String roomName) {
-        if (roomName == null || !roomName.contains("Order #")) {
-            return null;
-        }
-        try {
-            // Формат может быть: "Order #14: Название" или "Order #14: Название, Order #15: Название2"
-            // Извлекаем первый orderId из строки
-            int orderIndex = roomName.indexOf("Order #");
-            if (orderIndex >= 0) {
-                String remaining = roomName.substring(orderIndex + "Order #".length());
-                // Ищем конец числа (пробел, двоеточие или запятая)
-                StringBuilder idStr = new StringBuilder();
-                for (char c : remaining.toCharArray()) {
-                    if (Character.isDigit(c)) {
-                        idStr.append(c);
-                    } else {
-                        break;
-                    }
-                }
-                if (idStr.length() > 0) {
-                    return Integer.parseInt(idStr.toString());
-                }
-            }
-        } catch (NumberFormatException e) {
-            logger.error("Failed to extract order ID from roomName: {}", roomName, e);
-        }
-        return null;
-    }
 
     private String buildEmailText(String text, Orders order) {
         StringBuilder emailText = new StringBuilder("Вас успешно утвердили.\n");
@@ -936,11 +873,6 @@ public class CustomerServiceImpl implements CustomerService {
         }
     }
 
-    private void sendRefusalEmail(Performer performer, String performerName, 
-                                  String customerName, String orderTitle) {
-        emailNotificationService.sendPerformerRefusalEmail(performer, performerName, customerName, orderTitle);
-    }
-
     @Override
     @Transactional(readOnly = true)
     public Customer getPortfolio(Integer accountId) {
@@ -982,4 +914,48 @@ public class CustomerServiceImpl implements CustomerService {
         
         return Map.of("reviews", reviewDtos);
     }
+
+    private Pageable buildOrdersPage(int page, int pageSize, String sortBy, String defaultField) {
+        int size = Math.max(1, Math.min(pageSize, MAX_ORDERS_PAGE_SIZE));
+        String field = defaultField;
+        Sort.Direction direction = Sort.Direction.DESC;
+        if (sortBy != null && !sortBy.isBlank()) {
+            String[] parts = sortBy.split(":");
+            field = parts[0].trim();
+            if (!ORDER_SORT_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Invalid sort field: " + field);
+            }
+            if (parts.length == 2 && "asc".equalsIgnoreCase(parts[1].trim())) {
+                direction = Sort.Direction.ASC;
+            }
+        }
+        // id как второй ключ делает порядок страниц стабильным при одинаковых датах
+        Sort sort = Sort.by(new Sort.Order(direction, field).nullsLast(), new Sort.Order(direction, "id"));
+        return PageRequest.of(Math.max(0, page - 1), size, sort);
+    }
+
+    private Set<OrderStatus> parseStatuses(String status) {
+        Set<OrderStatus> statuses = EnumSet.noneOf(OrderStatus.class);
+        if (status == null || status.isBlank()) {
+            return statuses;
+        }
+        for (String value : status.split(",")) {
+            if (!value.isBlank()) {
+                // Неизвестный статус - ошибка запроса, а не пустой список
+                statuses.add(OrderStatus.valueOf(value.trim().toUpperCase()));
+            }
+        }
+        return statuses;
+    }
+
+    private Map<String, Object> toOrdersPage(Slice<OrderListItem> orders) {
+        List<AddOrderDto> orderDtos = orders.getContent().stream()
+                .map(ordersMapper::toListDto)
+                .collect(Collectors.toList());
+        Map<String, Object> result = new HashMap<>();
+        result.put("orders", orderDtos);
+        result.put("page", orders.getNumber() + 1);
+        result.put("hasMore", orders.hasNext());
+        return result;
+    }
 }
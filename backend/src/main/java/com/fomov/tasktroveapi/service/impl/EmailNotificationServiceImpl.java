@@ -3,7 +3,7 @@ package com.fomov.tasktroveapi.service.impl;
 import com.fomov.tasktroveapi.model.Customer;
 import com.fomov.tasktroveapi.model.Performer;
 import com.fomov.tasktroveapi.service.EmailNotificationService;
-import com.fomov.tasktroveapi.service.EmailService;
+import com.fomov.tasktroveapi.service.MailQueueService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -13,32 +13,25 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailNotificationServiceImpl.class);
     
-    private final EmailService emailService;
+    // Письма уходят через очередь: SMTP не вызывается внутри бизнес-транзакций
+    private final MailQueueService mailQueueService;
 
-    public EmailNotificationServiceImpl(EmailService emailService) {
-        this.emailService = emailService;
+    public EmailNotificationServiceImpl(MailQueueService mailQueueService) {
+        this.mailQueueService = mailQueueService;
     }
 
     @Override
     public void sendCorrectionRequestEmail(String performerEmail, String emailText, String attachmentPath) {
         String subject = "Требуются правки по заказу";
-        if (attachmentPath != null && !attachmentPath.isEmpty()) {
-            emailService.sendEmailWithAttachment(performerEmail, subject, emailText, attachmentPath);
-        } else {
-            emailService.sendEmail(performerEmail, subject, emailText);
-        }
-        logger.info("Sent correction request email to: {}", performerEmail);
+        mailQueueService.enqueue(performerEmail, subject, emailText, attachmentPath);
+        logger.info("Queued correction request email to: {}", performerEmail);
     }
 
     @Override
     public void sendPerformerApprovalEmail(String performerEmail, String emailText, String attachmentPath) {
         String subject = "Вас приняли в работу";
-        if (attachmentPath != null && !attachmentPath.isEmpty()) {
-            emailService.sendEmailWithAttachment(performerEmail, subject, emailText, attachmentPath);
-        } else {
-            emailService.sendEmail(performerEmail, subject, emailText);
-        }
-        logger.info("Sent performer approval email to: {}", performerEmail);
+        mailQueueService.enqueue(performerEmail, subject, emailText, attachmentPath);
+        logger.info("Queued performer approval email to: {}", performerEmail);
     }
 
     @Override
@@ -56,8 +49,8 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
             performerName, customerName, orderTitle
         );
         
-        emailService.sendEmail(performer.getEmail(), subject, emailText);
-        logger.info("Sent performer refusal email to: {}", performer.getEmail());
+        mailQueueService.enqueue(performer.getEmail(), subject, emailText, null);
+        logger.info("Queued performer refusal email to: {}", performer.getEmail());
     }
 
     @Override
@@ -76,8 +69,8 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
             performerName, orderTitle
         );
         
-        emailService.sendEmail(customer.getEmail(), subject, emailText);
-        logger.info("Sent work completion email to: {}", customer.getEmail());
+        mailQueueService.enqueue(customer.getEmail(), subject, emailText, null);
+        logger.info("Queued work completion email to: {}", customer.getEmail());
     }
 
     @Override
@@ -96,8 +89,8 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
             performerName, orderTitle
         );
         
-        emailService.sendEmail(customer.getEmail(), subject, emailText);
-        logger.info("Sent customer refusal email to: {}", customer.getEmail());
+        mailQueueService.enqueue(customer.getEmail(), subject, emailText, null);
+        logger.info("Queued customer refusal email to: {}", customer.getEmail());
     }
 }
 
@@ -0,0 +1,137 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.model.MailOutbox;
+import com.fomov.tasktroveapi.repository.MailOutboxRepository;
+import com.fomov.tasktroveapi.service.EmailService;
+import com.fomov.tasktroveapi.service.MailQueueService;
+import com.fomov.tasktroveapi.util.DaemonThreadPools;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Очередь исходящих писем на основе таблицы mail_outbox.
+ * Письма сохраняются в бизнес-транзакции и отправляются пулом обработчиков после коммита,
+ * поэтому медленный или недоступный SMTP-сервер не держит транзакцию и не откатывает ее.
+ */
+@Service
+public class MailQueueServiceImpl implements MailQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailQueueServiceImpl.class);
+
+    private static final int WORKER_THREADS = 2;
+    private static final int WORKER_QUEUE_CAPACITY = 500;
+
+    // После стольких неудачных попыток письмо помечается как DEAD
+    private static final int MAX_ATTEMPTS = 6;
+
+    // Задержка перед повтором: 30 секунд, далее удваивается, но не более часа
+    private static final long BASE_RETRY_DELAY_SECONDS = 30;
+    private static final long MAX_RETRY_DELAY_SECONDS = 3600;
+
+    // Письмо в статусе SENDING дольше этого времени считается зависшим
+    private static final long STUCK_SENDING_MINUTES = 10;
+
+    private static final int DISPATCH_BATCH_SIZE = 100;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MailOutboxRepository repository;
+    private final EmailService emailService;
+    private final ThreadPoolExecutor workers;
+
+    public MailQueueServiceImpl(MailOutboxRepository repository, EmailService emailService) {
+        this.repository = repository;
+        this.emailService = emailService;
+        // Переполнение очереди не теряет писем: они остаются в mail_outbox и будут взяты планировщиком
+        this.workers = DaemonThreadPools.newFixedPool("mail-sender", WORKER_THREADS, WORKER_QUEUE_CAPACITY,
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String subject, String text, String attachmentPath) {
+        MailOutbox mail = repository.save(new MailOutbox(to, subject, text, attachmentPath));
+        Integer mailId = mail.getId();
+        logger.info("Queued email id={} to: {}, subject: {}", mailId, to, subject);
+
+        TransactionCallbacks.afterCommit(() -> submit(mailId));
+    }
+
+    /**
+     * Периодическая отправка писем, время повторной попытки которых наступило
+     */
+    @Scheduled(fixedDelay = 15000) // 15 секунд
+    public void dispatchDueMail() {
+        OffsetDateTime now = OffsetDateTime.now();
+        int released = repository.releaseStuck(now.minusMinutes(STUCK_SENDING_MINUTES));
+        if (released > 0) {
+            logger.warn("Returned {} stuck emails to the queue", released);
+        }
+        List<Integer> dueIds = repository.findDueIds(now, PageRequest.of(0, DISPATCH_BATCH_SIZE));
+        dueIds.forEach(this::submit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Неотправленные письма остаются в mail_outbox и уйдут после перезапуска
+        DaemonThreadPools.shutdown(workers, 10);
+    }
+
+    private void submit(Integer mailId) {
+        workers.execute(() -> deliver(mailId));
+    }
+
+    private void deliver(Integer mailId) {
+        // Захват защищает от повторной отправки, если письмо одновременно взято планировщиком
+        if (repository.claim(mailId, OffsetDateTime.now()) == 0) {
+            return;
+        }
+        MailOutbox mail = repository.findById(mailId).orElse(null);
+        if (mail == null) {
+            return;
+        }
+
+        try {
+            if (mail.getAttachmentPath() != null && !mail.getAttachmentPath().isEmpty()) {
+                emailService.sendEmailWithAttachment(mail.getRecipient(), mail.getSubject(), mail.getBody(),
+                        mail.getAttachmentPath());
+            } else {
+                emailService.sendEmail(mail.getRecipient(), mail.getSubject(), mail.getBody());
+            }
+        } catch (Exception e) {
+            handleFailure(mail, e);
+            return;
+        }
+        repository.markSent(mailId, OffsetDateTime.now());
+    }
+
+    private void handleFailure(MailOutbox mail, Exception e) {
+        int attempts = mail.getAttempts() + 1;
+        String error = describe(e);
+        if (attempts >= MAX_ATTEMPTS) {
+            repository.markDead(mail.getId(), error);
+            logger.error("Email id={} to: {} moved to dead letters after {} attempts: {}",
+                    mail.getId(), mail.getRecipient(), attempts, error);
+            return;
+        }
+        long delaySeconds = Math.min(BASE_RETRY_DELAY_SECONDS << (attempts - 1), MAX_RETRY_DELAY_SECONDS);
+        repository.scheduleRetry(mail.getId(), OffsetDateTime.now().plusSeconds(delaySeconds), error);
+        logger.warn("Email id={} to: {} failed (attempt {}), retry in {} s: {}",
+                mail.getId(), mail.getRecipient(), attempts, delaySeconds, error);
+    }
+
+    private static String describe(Exception e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
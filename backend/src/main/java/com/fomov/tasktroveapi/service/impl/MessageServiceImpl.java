@@ -2,10 +2,21 @@ package com.fomov.tasktroveapi.service.impl;
 
 import com.fomov.tasktroveapi.model.Message;
 import com.fomov.tasktroveapi.repository.MessageRepository;
+import com.fomov.tasktroveapi.service.ChatAccessService;
+import com.fomov.tasktroveapi.service.ChatLastMessageService;
+import com.fomov.tasktroveapi.service.ChatUnreadCounterService;
 import com.fomov.tasktroveapi.service.MessageService;
+import com.fomov.tasktroveapi.service.ResourceVersionService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,10 +24,21 @@ import java.util.Optional;
 @Transactional
 public class MessageServiceImpl implements MessageService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final MessageRepository repository;
+    private final ChatUnreadCounterService unreadCounterService;
+    private final ResourceVersionService resourceVersionService;
+    private final ChatLastMessageService lastMessageService;
 
-    public MessageServiceImpl(MessageRepository repository) {
+    public MessageServiceImpl(MessageRepository repository, ChatUnreadCounterService unreadCounterService,
+                              ResourceVersionService resourceVersionService,
+                              ChatLastMessageService lastMessageService) {
         this.repository = repository;
+        this.unreadCounterService = unreadCounterService;
+        this.resourceVersionService = resourceVersionService;
+        this.lastMessageService = lastMessageService;
     }
 
     @Override
@@ -33,13 +55,64 @@ public class MessageServiceImpl implements MessageService {
     public Message save(Message message) { return repository.save(message); }
 
     @Override
-    public void deleteById(Integer id) { repository.deleteById(id); }
+    public void deleteById(Integer id) {
+        repository.findByIdWithChat(id).ifPresent(message -> {
+            Integer chatId = message.getChatId();
+            repository.delete(message);
+            // Удаленное сообщение могло быть непрочитанным - пересчитаем счетчики чата при следующем запросе
+            unreadCounterService.invalidateChat(chatId);
+            // Удаленное сообщение могло быть последним и показываться в списке чатов
+            lastMessageService.messageDeleted(chatId, message.getId());
+            if (message.getChat() != null) {
+                ChatAccessService.ChatDescriptor descriptor = ChatAccessService.ChatDescriptor.from(message.getChat());
+                resourceVersionService.changed(ResourceVersionService.Resource.CHATS,
+                        Arrays.asList(descriptor.customerAccountId(), descriptor.performerAccountId()));
+            }
+        });
+    }
 
     @Override
     public List<Message> findByChatId(Integer chatId) { 
         return repository.findByChatIdWithChat(chatId); 
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Message> findChatPage(Integer chatId, Integer beforeId, Integer afterId, int limit) {
+        int size = limit > 0 ? Math.min(limit, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        // Берем на одно сообщение больше, чтобы узнать, есть ли следующая страница
+        PageRequest request = PageRequest.of(0, size + 1);
+
+        if (afterId != null) {
+            OffsetDateTime created = findCursor(afterId, chatId);
+            List<Message> newer = repository.findByChatIdAfter(chatId, created, afterId, request);
+            return toSlice(newer, size, false);
+        }
+        if (beforeId != null) {
+            OffsetDateTime created = findCursor(beforeId, chatId);
+            List<Message> older = repository.findByChatIdBefore(chatId, created, beforeId, request);
+            return toSlice(older, size, true);
+        }
+        return toSlice(repository.findLatestByChatId(chatId, request), size, true);
+    }
+
+    // Последняя страница вместо неизвестного курсора выглядела бы для клиента как новые
+    // или более старые сообщения, поэтому курсор удаленного или чужого сообщения - ошибка запроса
+    private OffsetDateTime findCursor(Integer messageId, Integer chatId) {
+        return repository.findCreatedByIdAndChatId(messageId, chatId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Message " + messageId + " not found in chat " + chatId));
+    }
+
+    private static Slice<Message> toSlice(List<Message> messages, int size, boolean descending) {
+        boolean hasNext = messages.size() > size;
+        List<Message> content = new ArrayList<>(hasNext ? messages.subList(0, size) : messages);
+        if (descending) {
+            Collections.reverse(content);
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+    
     @Override
     public Long countUnreadMessages(Integer chatId, Integer userId, java.time.OffsetDateTime lastCheckedTime) {
         return repository.countUnreadMessagesByChatAndUser(chatId, userId, lastCheckedTime);
@@ -0,0 +1,288 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.service.ChatLastMessageService;
+import com.fomov.tasktroveapi.service.ChatUnreadCounterService;
+import com.fomov.tasktroveapi.service.MessageWriteBehindService;
+import com.fomov.tasktroveapi.service.ResourceVersionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отложенная пакетная запись сообщений чата.
+ * Поток обработки входящих STOMP-кадров только кладет сообщение в ограниченную очередь,
+ * а отдельный поток забирает накопившиеся сообщения и записывает их одной транзакцией
+ * пакетным INSERT. Ошибки записи передаются отправителю через callback.
+ */
+@Service
+public class MessageWriteBehindServiceImpl implements MessageWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageWriteBehindServiceImpl.class);
+
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int BATCH_SIZE = 200;
+
+    // Сколько отправитель ждет места в заполненной очереди, прежде чем получить отказ
+    private static final long ENQUEUE_TIMEOUT_MILLIS = 2000;
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 15000;
+
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO messages (text, chat_id, sender_id, sender_type, created) VALUES (?, ?, ?, ?, ?)";
+
+    // Отправитель прочитал чат, второй участник - нет
+    private static final String UPDATE_CHECK_FLAGS_SQL =
+            "UPDATE chats SET check_by_customer = ?, check_by_performer = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatUnreadCounterService unreadCounterService;
+    private final ChatLastMessageService lastMessageService;
+    private final ResourceVersionService resourceVersionService;
+
+    private final BlockingQueue<QueuedMessage> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+
+    // Время последнего назначенного сообщению created; используется только потоком записи
+    private OffsetDateTime lastCreated;
+
+    public MessageWriteBehindServiceImpl(JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         ChatUnreadCounterService unreadCounterService,
+                                         ChatLastMessageService lastMessageService,
+                                         ResourceVersionService resourceVersionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.resourceVersionService = resourceVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unreadCounterService = unreadCounterService;
+        this.lastMessageService = lastMessageService;
+        this.writer = new Thread(this::writeLoop, "chat-message-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    @Override
+    public boolean enqueue(PendingMessage message, WriteCallback callback) {
+        if (!accepting) {
+            return false;
+        }
+        QueuedMessage queued = new QueuedMessage(message, callback);
+        try {
+            if (!queue.offer(queued, ENQUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        // Остановка могла начаться, пока сообщение ждало места в очереди, и поток записи уже завершился.
+        // Если сообщение еще в очереди - забираем его обратно, иначе его запишет поток записи
+        // или отклонит shutdown(), и отправитель узнает результат через callback
+        if (!accepting && queue.remove(queued)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * При остановке приложения новые сообщения не принимаются, а очередь дописывается в БД.
+     * Сообщения, которые не успели записаться, отклоняются через callback: участники уже получили их
+     * с временным id и должны узнать, что сообщение не сохранено
+     */
+    @PreDestroy
+    public void shutdown() {
+        accepting = false;
+        running = false;
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<QueuedMessage> unsaved = new ArrayList<>();
+        queue.drainTo(unsaved);
+        if (writer.isAlive() || !unsaved.isEmpty()) {
+            logger.error("Chat message writer stopped with {} unsaved messages", unsaved.size());
+        }
+        IllegalStateException error = new IllegalStateException("Chat message writer is shut down");
+        for (QueuedMessage queued : unsaved) {
+            fail(queued, error);
+        }
+    }
+
+    private void writeLoop() {
+        List<QueuedMessage> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedMessage first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                assignCreated(batch);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Прерывание не должно терять очередь: дописываем ее и выходим
+                running = false;
+            } catch (Exception e) {
+                logger.error("Unexpected error in chat message writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Назначает время создания в порядке очереди. Пакетный INSERT выдает id в том же порядке,
+     * поэтому курсор (created, id) истории чата не пропускает сообщения, принятые параллельными потоками
+     */
+    private void assignCreated(List<QueuedMessage> batch) {
+        OffsetDateTime now = OffsetDateTime.now();
+        if (lastCreated != null && now.isBefore(lastCreated)) {
+            // Часы могли сдвинуться назад - время не должно убывать
+            now = lastCreated;
+        }
+        lastCreated = now;
+        for (QueuedMessage queued : batch) {
+            queued.created = now;
+        }
+    }
+
+    private void writeBatch(List<QueuedMessage> batch) {
+        List<Integer> ids;
+        try {
+            ids = transactionTemplate.execute(status -> insert(batch));
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            // Ошибка одного сообщения не должна терять весь пакет: повторяем по одному
+            logger.warn("Batch insert of {} chat messages failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (QueuedMessage message : batch) {
+                writeBatch(List.of(message));
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), ids.get(i));
+        }
+    }
+
+    private List<Integer> insert(List<QueuedMessage> batch) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Integer>>) connection -> {
+            List<Integer> ids = new ArrayList<>(batch.size());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_MESSAGE_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (QueuedMessage queued : batch) {
+                    PendingMessage message = queued.message;
+                    statement.setString(1, message.text());
+                    statement.setInt(2, message.chatId());
+                    statement.setInt(3, message.senderAccountId());
+                    statement.setString(4, message.senderType());
+                    statement.setTimestamp(5, Timestamp.from(queued.created.toInstant()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getInt(1));
+                    }
+                }
+            }
+            if (ids.size() != batch.size()) {
+                throw new SQLException("Expected " + batch.size() + " generated keys, got " + ids.size());
+            }
+
+            // Флаги прочтения достаточно выставить один раз на чат - по последнему сообщению в пакете
+            Map<Integer, PendingMessage> lastByChat = new LinkedHashMap<>();
+            for (QueuedMessage queued : batch) {
+                lastByChat.put(queued.message.chatId(), queued.message);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_CHECK_FLAGS_SQL)) {
+                boolean hasUpdates = false;
+                for (PendingMessage message : lastByChat.values()) {
+                    boolean fromCustomer = "Customer".equals(message.senderType());
+                    if (!fromCustomer && !"Performer".equals(message.senderType())) {
+                        continue;
+                    }
+                    statement.setBoolean(1, fromCustomer);
+                    statement.setBoolean(2, !fromCustomer);
+                    statement.setInt(3, message.chatId());
+                    statement.addBatch();
+                    hasUpdates = true;
+                }
+                if (hasUpdates) {
+                    statement.executeBatch();
+                }
+            }
+            return ids;
+        });
+    }
+
+    private void complete(QueuedMessage queued, Integer messageId) {
+        PendingMessage message = queued.message;
+        try {
+            lastMessageService.messageStored(message.chatId(), messageId, queued.created, message.text());
+            for (Integer recipientAccountId : message.recipientAccountIds()) {
+                unreadCounterService.messageSent(message.chatId(), recipientAccountId, queued.created);
+            }
+            // Последнее сообщение видно в списке чатов и у отправителя, и у получателей
+            List<Integer> participants = new ArrayList<>(message.recipientAccountIds());
+            participants.add(message.senderAccountId());
+            resourceVersionService.changed(ResourceVersionService.Resource.CHATS, participants);
+            queued.callback.onStored(messageId, queued.created);
+        } catch (Exception e) {
+            logger.error("Failed to complete stored chat message {}", messageId, e);
+        }
+    }
+
+    private void fail(QueuedMessage queued, Exception error) {
+        logger.error("Failed to store chat message for chat {} from account {}",
+                queued.message.chatId(), queued.message.senderAccountId(), error);
+        try {
+            queued.callback.onFailed(error);
+        } catch (Exception e) {
+            logger.error("Failed to report chat message write failure", e);
+        }
+    }
+
+    private static final class QueuedMessage {
+        private final PendingMessage message;
+        private final WriteCallback callback;
+        // Назначается потоком записи перед INSERT
+        private OffsetDateTime created;
+
+        private QueuedMessage(PendingMessage message, WriteCallback callback) {
+            this.message = message;
+            this.callback = callback;
+        }
+    }
+}
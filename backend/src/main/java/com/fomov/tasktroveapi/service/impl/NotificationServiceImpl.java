@@ -1,17 +1,40 @@
 package com.fomov.tasktroveapi.service.impl;
 
+import com.fomov.tasktroveapi.dto.NotificationDto;
+import com.fomov.tasktroveapi.mapper.NotificationMapper;
 import com.fomov.tasktroveapi.model.Account;
 import com.fomov.tasktroveapi.model.Notification;
 import com.fomov.tasktroveapi.repository.AccountRepository;
 import com.fomov.tasktroveapi.repository.NotificationRepository;
 import com.fomov.tasktroveapi.service.NotificationService;
+import com.fomov.tasktroveapi.service.ResourceVersionService;
 import com.fomov.tasktroveapi.exception.NotFoundException;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 @Service
 @Transactional
@@ -19,17 +42,91 @@ public class NotificationServiceImpl implements NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
     
+    // Персональная очередь уведомлений: клиент подписывается на /user/queue/notifications
+    private static final String NOTIFICATIONS_QUEUE = "/queue/notifications";
+    
+    // Максимум уведомлений, возвращаемых при догрузке после переподключения
+    private static final int MAX_CATCH_UP_SIZE = 100;
+    
+    // Размер порции для массового обновления и удаления уведомлений
+    private static final int BULK_CHUNK_SIZE = 5000;
+    
+    // Ограничение размера IN-списка при проверке получателей
+    private static final int ACCOUNT_LOOKUP_CHUNK_SIZE = 1000;
+    
+    // Максимальное число аккаунтов со счетчиком непрочитанных в памяти
+    private static final int MAX_CACHED_COUNTERS = 20000;
+    
+    // Счетчик перечитывается из БД не реже этого интервала (10 минут), что исправляет возможный дрейф
+    private static final long COUNTER_TTL_MILLIS = 10 * 60 * 1000L;
+    
+    // Счетчик, к которому не обращались этот интервал (30 минут), выгружается
+    private static final long COUNTER_IDLE_MILLIS = 30 * 60 * 1000L;
+    
+    private static final int STRIPES = 64;
+    
+    private static final String INSERT_NOTIFICATION_SQL = "INSERT INTO notifications " +
+            "(account_id, user_role, type, title, message, is_read, created_at, related_order_id, related_performer_id, related_customer_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
     private final NotificationRepository repository;
     private final AccountRepository accountRepository;
+    
+    // accountId -> количество непрочитанных уведомлений.
+    // Изменения счетчиков выполняются под блокировкой полосы аккаунта и увеличивают ее версию:
+    // значение, посчитанное в БД параллельно с изменением, в кэш не попадает
+    private final Map<Integer, UnreadCounter> unreadCounters = new ConcurrentHashMap<>();
+    private final Object[] stripeLocks = new Object[STRIPES];
+    private final AtomicLongArray stripeVersions = new AtomicLongArray(STRIPES);
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationMapper notificationMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final ResourceVersionService resourceVersionService;
 
-    public NotificationServiceImpl(NotificationRepository repository, AccountRepository accountRepository) {
+    public NotificationServiceImpl(NotificationRepository repository, 
+                                  AccountRepository accountRepository,
+                                  SimpMessagingTemplate messagingTemplate,
+                                  NotificationMapper notificationMapper,
+                                  JdbcTemplate jdbcTemplate,
+                                  ResourceVersionService resourceVersionService) {
         this.repository = repository;
         this.accountRepository = accountRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.notificationMapper = notificationMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.resourceVersionService = resourceVersionService;
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
     }
 
     @Override
     public Notification save(Notification notification) {
-        return repository.save(notification);
+        boolean isNew = notification.getId() == null;
+        Notification saved = repository.save(notification);
+        if (isNew && saved.getAccount() != null) {
+            // DTO собираем сейчас, пока сущность привязана к сессии
+            NotificationDto dto = notificationMapper.toDto(saved);
+            Integer accountId = saved.getAccount().getId();
+            boolean unread = !Boolean.TRUE.equals(saved.getIsRead());
+            // Версия меняется раньше отправки: клиент, получивший push, перечитает уже новые данные
+            resourceVersionService.changed(ResourceVersionService.Resource.NOTIFICATIONS, accountId);
+            TransactionCallbacks.afterCommit(() -> {
+                if (unread) {
+                    adjustUnreadCounter(accountId, 1);
+                }
+                pushNotification(accountId, dto);
+            });
+        }
+        return saved;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<Notification> findNewerThan(Integer accountId, Integer afterId) {
+        return repository.findByAccountIdAndIdGreaterThan(accountId, afterId != null ? afterId : 0,
+                PageRequest.of(0, MAX_CATCH_UP_SIZE));
     }
 
     @Override
@@ -45,9 +142,25 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long countUnreadByAccountId(Integer accountId) {
-        return repository.countUnreadByAccountId(accountId);
+        // Без собственной транзакции: при попадании в кэш соединение с БД не берется
+        UnreadCounter counter = unreadCounters.get(accountId);
+        if (counter != null && !counter.isStale()) {
+            counter.touch();
+            return counter.value.get();
+        }
+        // Версию запоминаем до запроса: если за время подсчета счетчик менялся, результат в кэш не попадет
+        int stripe = stripe(accountId);
+        long version = stripeVersions.get(stripe);
+        long count = repository.countUnreadByAccountId(accountId);
+        synchronized (stripeLocks[stripe]) {
+            if (stripeVersions.get(stripe) == version
+                    && (unreadCounters.containsKey(accountId) || unreadCounters.size() < MAX_CACHED_COUNTERS)) {
+                unreadCounters.put(accountId, new UnreadCounter(count));
+            }
+        }
+        return count;
     }
 
     @Override
@@ -59,22 +172,169 @@ public class NotificationServiceImpl implements NotificationService {
             throw new SecurityException("Access denied to notification " + notificationId);
         }
         
+        boolean wasUnread = !Boolean.TRUE.equals(notification.getIsRead());
         notification.setIsRead(true);
         repository.save(notification);
+        resourceVersionService.changed(ResourceVersionService.Resource.NOTIFICATIONS, accountId);
+        TransactionCallbacks.afterCommit(() -> {
+            if (wasUnread) {
+                adjustUnreadCounter(accountId, -1);
+            }
+            pushUnreadCount(accountId);
+        });
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void markAllAsRead(Integer accountId) {
-        List<Notification> unreadNotifications = repository.findByAccountIdAndIsReadOrderByCreatedAtDesc(accountId, false);
-        unreadNotifications.forEach(n -> n.setIsRead(true));
-        repository.saveAll(unreadNotifications);
+        // Каждая порция обновляется в своей транзакции, чтобы не держать долгие блокировки
+        int updated = 0;
+        int chunk;
+        do {
+            chunk = repository.markAllAsReadChunk(accountId, BULK_CHUNK_SIZE);
+            updated += chunk;
+        } while (chunk == BULK_CHUNK_SIZE);
+        logger.info("Marked all notifications as read for accountId={}, count={}", accountId, updated);
+        resourceVersionService.changed(ResourceVersionService.Resource.NOTIFICATIONS, accountId);
+        evictUnreadCounter(accountId);
+        pushUnreadCount(accountId);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteAllByAccountId(Integer accountId) {
-        List<Notification> notifications = repository.findByAccountIdOrderByCreatedAtDesc(accountId);
-        repository.deleteAll(notifications);
-        logger.info("Deleted all notifications for accountId={}, count={}", accountId, notifications.size());
+        int deleted = 0;
+        int chunk;
+        do {
+            chunk = repository.deleteAllByAccountIdChunk(accountId, BULK_CHUNK_SIZE);
+            deleted += chunk;
+        } while (chunk == BULK_CHUNK_SIZE);
+        logger.info("Deleted all notifications for accountId={}, count={}", accountId, deleted);
+        resourceVersionService.changed(ResourceVersionService.Resource.NOTIFICATIONS, accountId);
+        evictUnreadCounter(accountId);
+        pushUnreadCount(accountId);
+    }
+    
+    /**
+     * Периодическая выгрузка неиспользуемых счетчиков непрочитанных (каждые 5 минут)
+     */
+    @Scheduled(fixedRate = 300000) // 5 минут
+    public void evictIdleUnreadCounters() {
+        long threshold = System.currentTimeMillis() - COUNTER_IDLE_MILLIS;
+        unreadCounters.entrySet().removeIf(entry -> entry.getValue().lastAccess < threshold);
+    }
+    
+    private void adjustUnreadCounter(Integer accountId, int delta) {
+        // Незагруженный счетчик не трогаем - он будет прочитан из БД при первом обращении
+        int stripe = stripe(accountId);
+        synchronized (stripeLocks[stripe]) {
+            stripeVersions.incrementAndGet(stripe);
+            UnreadCounter counter = unreadCounters.get(accountId);
+            if (counter != null) {
+                counter.value.updateAndGet(value -> Math.max(value + delta, 0));
+            }
+        }
+    }
+    
+    /**
+     * После массовой операции счетчик выгружается, а не обнуляется: уведомления, созданные
+     * во время обработки порций, остаются непрочитанными и будут посчитаны при следующем обращении
+     */
+    private void evictUnreadCounter(Integer accountId) {
+        int stripe = stripe(accountId);
+        synchronized (stripeLocks[stripe]) {
+            stripeVersions.incrementAndGet(stripe);
+            unreadCounters.remove(accountId);
+        }
+    }
+    
+    private static int stripe(Integer accountId) {
+        // Перемешиваем биты, чтобы соседние id аккаунтов попадали в разные полосы
+        int h = accountId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+    
+    /**
+     * Отправляет новое уведомление и актуальный счетчик непрочитанных в персональную очередь пользователя.
+     * Вызывается только после коммита: клиент не должен получить уведомление, которого нет в БД
+     */
+    private void pushNotification(Integer accountId, NotificationDto dto) {
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("notification", dto);
+            payload.put("unreadCount", countUnreadByAccountId(accountId));
+            messagingTemplate.convertAndSendToUser(String.valueOf(accountId), NOTIFICATIONS_QUEUE, payload);
+        } catch (Exception e) {
+            // Клиент догрузит пропущенное через /api/notifications/since
+            logger.warn("Failed to push notification to accountId={}: {}", accountId, e.getMessage());
+        }
+    }
+    
+    private void pushUnreadCount(Integer accountId) {
+        try {
+            messagingTemplate.convertAndSendToUser(String.valueOf(accountId), NOTIFICATIONS_QUEUE,
+                    Map.of("unreadCount", countUnreadByAccountId(accountId)));
+        } catch (Exception e) {
+            logger.warn("Failed to push unread count to accountId={}: {}", accountId, e.getMessage());
+        }
+    }
+    
+    /**
+     * Оставляет только существующие аккаунты и блокирует их строки до конца транзакции:
+     * удаление аккаунта между проверкой и вставкой иначе нарушило бы внешний ключ и откатило
+     * вызывающую операцию целиком (например, создание заказа)
+     */
+    private List<Integer> lockExistingAccountIds(Collection<Integer> accountIds) {
+        List<Integer> ids = new ArrayList<>(accountIds);
+        List<Integer> existing = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += ACCOUNT_LOOKUP_CHUNK_SIZE) {
+            existing.addAll(accountRepository.lockExistingIds(
+                    ids.subList(from, Math.min(from + ACCOUNT_LOOKUP_CHUNK_SIZE, ids.size()))));
+        }
+        if (existing.size() < ids.size()) {
+            logger.info("Skipped notifications for {} deleted accounts", ids.size() - existing.size());
+        }
+        return existing;
+    }
+    
+    /**
+     * Пакетная вставка уведомлений в текущей транзакции; сгенерированные id проставляются в сущности
+     */
+    private void insertBatch(List<Notification> notifications) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_NOTIFICATION_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (Notification notification : notifications) {
+                    statement.setInt(1, notification.getAccount().getId());
+                    statement.setString(2, notification.getUserRole());
+                    statement.setString(3, notification.getType());
+                    statement.setString(4, notification.getTitle());
+                    statement.setString(5, notification.getMessage());
+                    statement.setBoolean(6, Boolean.TRUE.equals(notification.getIsRead()));
+                    statement.setTimestamp(7, Timestamp.from(notification.getCreatedAt().toInstant()));
+                    statement.setObject(8, notification.getRelatedOrderId(), Types.INTEGER);
+                    statement.setObject(9, notification.getRelatedPerformerId(), Types.INTEGER);
+                    statement.setObject(10, notification.getRelatedCustomerId(), Types.INTEGER);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Integer> ids = new ArrayList<>(notifications.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getInt(1));
+                    }
+                }
+                // Без id уведомления нельзя отдать клиенту: откатываем транзакцию, а не рассылаем неполные данные
+                if (ids.size() != notifications.size()) {
+                    throw new IllegalStateException("Notification batch returned " + ids.size()
+                            + " generated keys for " + notifications.size() + " rows");
+                }
+                for (int i = 0; i < ids.size(); i++) {
+                    notifications.get(i).setId(ids.get(i));
+                }
+            }
+            return null;
+        });
     }
 
     @Override
@@ -219,6 +479,85 @@ public class NotificationServiceImpl implements NotificationService {
         logger.info("Created ORDER_REVIEW notification for admin accountId={}, orderId={}", adminAccountId, orderId);
     }
 
+    @Override
+    public void createOrderReviewNotifications(Collection<Integer> adminAccountIds, Integer customerId, Integer orderId, String orderTitle, String customerName) {
+        if (adminAccountIds.isEmpty()) {
+            return;
+        }
+        // Список администраторов берется из кэша и может содержать уже удаленный аккаунт
+        List<Integer> recipients = lockExistingAccountIds(adminAccountIds);
+        if (recipients.isEmpty()) {
+            return;
+        }
+        String message = String.format("Заказчик %s создал заказ \"%s\", который требует проверки и одобрения", customerName, orderTitle);
+        OffsetDateTime createdAt = OffsetDateTime.now();
+        List<Notification> notifications = new ArrayList<>(recipients.size());
+        for (Integer adminAccountId : recipients) {
+            // Ссылка на аккаунт без загрузки: нужен только id для account_id
+            Notification notification = new Notification(
+                accountRepository.getReferenceById(adminAccountId),
+                "Administrator",
+                "ORDER_REVIEW",
+                "Новый заказ на рассмотрении",
+                message
+            );
+            notification.setCreatedAt(createdAt);
+            notification.setRelatedOrderId(orderId);
+            notification.setRelatedCustomerId(customerId);
+            notifications.add(notification);
+        }
+        insertBatch(notifications);
+        
+        List<NotificationDto> dtos = notifications.stream().map(notificationMapper::toDto).toList();
+        resourceVersionService.changed(ResourceVersionService.Resource.NOTIFICATIONS,
+                dtos.stream().map(NotificationDto::getAccountId).toList());
+        TransactionCallbacks.afterCommit(() -> {
+            for (NotificationDto dto : dtos) {
+                adjustUnreadCounter(dto.getAccountId(), 1);
+                pushNotification(dto.getAccountId(), dto);
+            }
+        });
+        logger.info("Created {} ORDER_REVIEW notifications for orderId={}", notifications.size(), orderId);
+    }
+
+    @Override
+    public void createSavedSearchMatchNotifications(Collection<Integer> performerAccountIds, Integer orderId, String orderTitle) {
+        if (performerAccountIds.isEmpty()) {
+            return;
+        }
+        List<Integer> recipients = lockExistingAccountIds(performerAccountIds);
+        if (recipients.isEmpty()) {
+            return;
+        }
+        String message = String.format("Опубликован заказ \"%s\", подходящий под ваш сохраненный поиск", orderTitle);
+        OffsetDateTime createdAt = OffsetDateTime.now();
+        List<Notification> notifications = new ArrayList<>(recipients.size());
+        for (Integer performerAccountId : recipients) {
+            Notification notification = new Notification(
+                accountRepository.getReferenceById(performerAccountId),
+                "Performer",
+                "SAVED_SEARCH_MATCH",
+                "Новый заказ по сохраненному поиску",
+                message
+            );
+            notification.setCreatedAt(createdAt);
+            notification.setRelatedOrderId(orderId);
+            notifications.add(notification);
+        }
+        insertBatch(notifications);
+        
+        List<NotificationDto> dtos = notifications.stream().map(notificationMapper::toDto).toList();
+        resourceVersionService.changed(ResourceVersionService.Resource.NOTIFICATIONS,
+                dtos.stream().map(NotificationDto::getAccountId).toList());
+        TransactionCallbacks.afterCommit(() -> {
+            for (NotificationDto dto : dtos) {
+                adjustUnreadCounter(dto.getAccountId(), 1);
+                pushNotification(dto.getAccountId(), dto);
+            }
+        });
+        logger.info("Created {} SAVED_SEARCH_MATCH notifications for orderId={}", notifications.size(), orderId);
+    }
+
     @Override
     public void createOrderApprovedNotification(Integer customerAccountId, Integer orderId, String orderTitle) {
         Account account = accountRepository.findById(customerAccountId)
@@ -289,4 +628,25 @@ public class NotificationServiceImpl implements NotificationService {
         save(notification);
         logger.info("Created REVIEW notification for customer accountId={}, orderId={}, mark={}", customerAccountId, orderId, mark);
     }
+    
+    /**
+     * Счетчик непрочитанных уведомлений аккаунта
+     */
+    private static class UnreadCounter {
+        final AtomicLong value;
+        final long loadedAt = System.currentTimeMillis();
+        volatile long lastAccess = loadedAt;
+        
+        UnreadCounter(long value) {
+            this.value = new AtomicLong(value);
+        }
+        
+        boolean isStale() {
+            return System.currentTimeMillis() - loadedAt > COUNTER_TTL_MILLIS;
+        }
+        
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
 }
@@ -1,23 +1,55 @@
 package com.fomov.tasktroveapi.service.impl;
 
+import com.fomov.tasktroveapi.dto.OrderFeedCursor;
+import com.fomov.tasktroveapi.dto.OrderListItem;
 import com.fomov.tasktroveapi.model.OrderStatus;
 import com.fomov.tasktroveapi.model.Orders;
 import com.fomov.tasktroveapi.repository.OrdersRepository;
+import com.fomov.tasktroveapi.repository.PerformerRepository;
+import com.fomov.tasktroveapi.search.OrderSearchDocument;
+import com.fomov.tasktroveapi.search.OrderSearchIndex;
 import com.fomov.tasktroveapi.service.OrdersService;
+import com.fomov.tasktroveapi.service.ResourceVersionService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Service
 @Transactional
 public class OrdersServiceImpl implements OrdersService {
 
+    // Ограничение размера IN-списка при загрузке результатов поиска
+    private static final int HYDRATE_CHUNK_SIZE = 500;
+    
+    private static final Predicate<OrderSearchDocument> ACTIVE_FEED =
+            document -> document.getStatus() == OrderStatus.ACTIVE && document.getPerformerId() == null;
+
     private final OrdersRepository repository;
+    private final OrderSearchIndex searchIndex;
+    private final PerformerRepository performerRepository;
+    private final ResourceVersionService resourceVersionService;
 
-    public OrdersServiceImpl(OrdersRepository repository) {
+    public OrdersServiceImpl(OrdersRepository repository, OrderSearchIndex searchIndex,
+                             PerformerRepository performerRepository,
+                             ResourceVersionService resourceVersionService) {
         this.repository = repository;
+        this.searchIndex = searchIndex;
+        this.performerRepository = performerRepository;
+        this.resourceVersionService = resourceVersionService;
     }
 
     @Override
@@ -32,12 +64,43 @@ public class OrdersServiceImpl implements OrdersService {
 
     @Override
     public Orders save(Orders order) {
-        return repository.save(order);
+        Orders saved = repository.save(order);
+        resourceVersionService.changed(ResourceVersionService.Resource.ORDERS);
+        return saved;
+    }
+
+    @Override
+    public Optional<Orders> update(Integer id, Orders updated) {
+        return repository.findById(id).map(existing -> {
+            // Прежнее состояние запоминаем до save: merge перезапишет загруженную сущность
+            boolean wasCounted = existing.getStatus() == OrderStatus.DONE && existing.getPerformer() != null;
+            Integer previousPerformerId = wasCounted ? existing.getPerformer().getId() : null;
+
+            updated.setId(id);
+            Orders saved = save(updated);
+
+            boolean isCounted = saved.getStatus() == OrderStatus.DONE && saved.getPerformer() != null;
+            Integer performerId = isCounted ? saved.getPerformer().getId() : null;
+            if (wasCounted && !previousPerformerId.equals(performerId)) {
+                performerRepository.adjustCompletedOrdersCount(previousPerformerId, -1);
+            }
+            if (isCounted && !performerId.equals(previousPerformerId)) {
+                performerRepository.adjustCompletedOrdersCount(performerId, 1);
+            }
+            return saved;
+        });
     }
 
     @Override
     public void deleteById(Integer id) {
-        repository.deleteById(id);
+        repository.findById(id).ifPresent(order -> {
+            // Удаленный выполненный заказ больше не учитывается в счетчике исполнителя
+            if (order.getStatus() == OrderStatus.DONE && order.getPerformer() != null) {
+                performerRepository.adjustCompletedOrdersCount(order.getPerformer().getId(), -1);
+            }
+            repository.delete(order);
+            resourceVersionService.changed(ResourceVersionService.Resource.ORDERS);
+        });
     }
 
     @Override
@@ -47,7 +110,11 @@ public class OrdersServiceImpl implements OrdersService {
 
     @Override
     public List<Orders> findByCustomerIdAndSearchTerm(Integer customerId, String searchTerm) {
-        return repository.findByCustomerIdAndSearchTerm(customerId, searchTerm);
+        if (!searchIndex.isReady()) {
+            return repository.findByCustomerIdAndSearchTerm(customerId, searchTerm);
+        }
+        return loadRanked(searchIndex.search(searchTerm,
+                document -> customerId.equals(document.getCustomerId()), 0, Integer.MAX_VALUE));
     }
 
     @Override
@@ -62,7 +129,10 @@ public class OrdersServiceImpl implements OrdersService {
 
     @Override
     public List<Orders> findByTitleContaining(String titlePart) {
-        return repository.findByTitleContainingIgnoreCase(titlePart);
+        if (!searchIndex.isReady()) {
+            return repository.findByTitleContainingIgnoreCase(titlePart);
+        }
+        return loadRanked(searchIndex.search(titlePart, document -> true, 0, Integer.MAX_VALUE));
     }
     
     @Override
@@ -72,8 +142,155 @@ public class OrdersServiceImpl implements OrdersService {
     
     @Override
     public List<Orders> findByTitleContainingAndActive(String titlePart) {
-        return repository.findByTitleContainingIgnoreCaseAndActive(titlePart);
+        if (!searchIndex.isReady()) {
+            return repository.findByTitleContainingIgnoreCaseAndActive(titlePart);
+        }
+        return loadRanked(searchIndex.search(titlePart, ACTIVE_FEED, 0, Integer.MAX_VALUE));
+    }
+    
+    @Override
+    public List<Orders> findActiveFeed(Pageable pageable) {
+        return repository.findActiveFeed(pageable);
+    }
+    
+    @Override
+    public List<Orders> findActiveFeedByTitleContaining(String titlePart, Pageable pageable) {
+        if (!searchIndex.isReady()) {
+            return repository.findActiveFeedByTitleContaining(titlePart, pageable);
+        }
+        // Результаты поиска упорядочены по релевантности, сортировка из Pageable не применяется
+        return loadRanked(searchIndex.search(titlePart, ACTIVE_FEED,
+                (int) pageable.getOffset(), pageable.getPageSize()));
+    }
+    
+    @Override
+    public List<Orders> findActiveFeedAfter(OrderFeedCursor cursor, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        boolean desc = cursor.isDescending();
+        
+        if (cursor.getField() == OrderFeedCursor.SortField.PUBLICATION_TIME) {
+            return desc
+                    ? repository.findActiveFeedPublishedBefore(cursor.getPublicationTime(), cursor.getId(), pageable)
+                    : repository.findActiveFeedPublishedAfter(cursor.getPublicationTime(), cursor.getId(), pageable);
+        }
+        
+        if (cursor.isNullBudgetPhase()) {
+            return findWithoutBudget(cursor, pageable);
+        }
+        
+        List<Orders> result = new ArrayList<>(desc
+                ? repository.findActiveFeedBudgetBelow(cursor.getBudget(), cursor.getId(), pageable)
+                : repository.findActiveFeedBudgetAbove(cursor.getBudget(), cursor.getId(), pageable));
+        // Заказы с бюджетом закончились - добираем страницу заказами без бюджета
+        if (result.size() < limit) {
+            OrderFeedCursor nullPhase = OrderFeedCursor.startOfNullBudgets(desc);
+            result.addAll(findWithoutBudget(nullPhase, PageRequest.of(0, limit - result.size())));
+        }
+        return result;
+    }
+    
+    private List<Orders> findWithoutBudget(OrderFeedCursor cursor, Pageable pageable) {
+        return cursor.isDescending()
+                ? repository.findActiveFeedWithoutBudgetBefore(cursor.getId(), pageable)
+                : repository.findActiveFeedWithoutBudgetAfter(cursor.getId(), pageable);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderListItem> findAllListItems() {
+        return repository.findAllListItems();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderListItem> findListItemsByStatus(OrderStatus status) {
+        return repository.findListItemsByStatus(status);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderListItem> findListItemsByTitleContaining(String titlePart) {
+        if (!searchIndex.isReady()) {
+            return repository.findListItemsByTitleContaining(titlePart);
+        }
+        return loadRanked(searchIndex.search(titlePart, document -> true, 0, Integer.MAX_VALUE),
+                repository::findListItemsByIdIn, OrderListItem::getId);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderListItem> findListItemsByIds(List<Integer> ids) {
+        return loadRanked(ids, repository::findListItemsByIdIn, OrderListItem::getId);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OrderListItem> findCustomerListItems(Integer customerId, Collection<OrderStatus> statuses,
+                                                      String searchTerm, Pageable pageable) {
+        boolean anyStatus = statuses == null || statuses.isEmpty();
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return anyStatus
+                    ? repository.findListItemsByCustomerId(customerId, pageable)
+                    : repository.findListItemsByCustomerIdAndStatusIn(customerId, statuses, pageable);
+        }
+        Collection<OrderStatus> allowed = anyStatus ? EnumSet.allOf(OrderStatus.class) : EnumSet.copyOf(statuses);
+        if (!searchIndex.isReady()) {
+            return repository.findListItemsByCustomerIdAndSearchTerm(customerId, allowed, searchTerm, pageable);
+        }
+        // Результаты поиска упорядочены по релевантности, сортировка из Pageable не применяется
+        return searchSlice(searchTerm, document -> customerId.equals(document.getCustomerId())
+                && !document.isDeletedByCustomer()
+                && allowed.contains(document.getStatus()), pageable);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OrderListItem> findPerformerActiveListItems(Integer performerId, String searchTerm, Pageable pageable) {
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return repository.findListItemsByPerformerIdAndStatusNot(performerId, OrderStatus.DONE, pageable);
+        }
+        if (!searchIndex.isReady()) {
+            return repository.findListItemsByPerformerIdAndSearchTerm(performerId, OrderStatus.DONE, searchTerm, pageable);
+        }
+        return searchSlice(searchTerm, document -> performerId.equals(document.getPerformerId())
+                && document.getStatus() != OrderStatus.DONE, pageable);
+    }
+    
+    /**
+     * Страница результатов поискового индекса; лишний id сверх размера страницы
+     * показывает, есть ли следующая страница
+     */
+    private Slice<OrderListItem> searchSlice(String searchTerm, Predicate<OrderSearchDocument> filter, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<Integer> ids = searchIndex.search(searchTerm, filter, (int) pageable.getOffset(), size + 1);
+        boolean hasNext = ids.size() > size;
+        List<Integer> pageIds = hasNext ? ids.subList(0, size) : ids;
+        return new SliceImpl<>(loadRanked(pageIds, repository::findListItemsByIdIn, OrderListItem::getId),
+                pageable, hasNext);
+    }
+    
+    /**
+     * Загружает заказы по id из поискового индекса, сохраняя порядок релевантности
+     */
+    private List<Orders> loadRanked(List<Integer> ids) {
+        return loadRanked(ids, repository::findAllByIdInWithRelations, Orders::getId);
+    }
+    
+    private <T> List<T> loadRanked(List<Integer> ids, Function<List<Integer>, List<T>> loader,
+                                   Function<T, Integer> idOf) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        List<T> result = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += HYDRATE_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + HYDRATE_CHUNK_SIZE, ids.size()));
+            result.addAll(loader.apply(chunk));
+        }
+        result.sort(Comparator.comparing(item -> positions.get(idOf.apply(item))));
+        return result;
     }
 }
-
-
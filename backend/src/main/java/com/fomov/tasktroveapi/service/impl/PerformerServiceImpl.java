@@ -1,6 +1,8 @@
 package com.fomov.tasktroveapi.service.impl;
 
 import com.fomov.tasktroveapi.dto.*;
+import com.fomov.tasktroveapi.event.OrderEvent;
+import com.fomov.tasktroveapi.event.OrderEventBus;
 import com.fomov.tasktroveapi.exception.NotFoundException;
 import com.fomov.tasktroveapi.exception.YouAlreadyRepliedException;
 import com.fomov.tasktroveapi.mapper.*;
@@ -10,13 +12,18 @@ import com.fomov.tasktroveapi.repository.PerformerRepository;
 import com.fomov.tasktroveapi.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +31,8 @@ import java.util.stream.Collectors;
 public class PerformerServiceImpl implements PerformerService {
 
     private static final Logger logger = LoggerFactory.getLogger(PerformerServiceImpl.class);
+    
+    private static final int MAX_FEED_PAGE_SIZE = 100;
 
     private final PerformerRepository repository;
     private final OrdersService ordersService;
@@ -39,7 +48,10 @@ public class PerformerServiceImpl implements PerformerService {
     private final WorkExperienceService workExperienceService;
     private final WorkExperienceMapper workExperienceMapper;
     private final NotificationService notificationService;
-    private final com.fomov.tasktroveapi.service.EmailNotificationService emailNotificationService;
+    private final OrderEventBus orderEventBus;
+    private final ChatSummaryService chatSummaryService;
+    private final ChatAccessService chatAccessService;
+    private final ChatUnreadCounterService unreadCounterService;
 
     public PerformerServiceImpl(PerformerRepository repository,
                                OrdersService ordersService,
@@ -55,7 +67,10 @@ public class PerformerServiceImpl implements PerformerService {
                                WorkExperienceService workExperienceService,
                                WorkExperienceMapper workExperienceMapper,
                                NotificationService notificationService,
-                               com.fomov.tasktroveapi.service.EmailNotificationService emailNotificationService) {
+                               OrderEventBus orderEventBus,
+                               ChatSummaryService chatSummaryService,
+                               ChatAccessService chatAccessService,
+                               ChatUnreadCounterService unreadCounterService) {
         this.repository = repository;
         this.ordersService = ordersService;
         this.ordersMapper = ordersMapper;
@@ -70,7 +85,10 @@ public class PerformerServiceImpl implements PerformerService {
         this.workExperienceService = workExperienceService;
         this.workExperienceMapper = workExperienceMapper;
         this.notificationService = notificationService;
-        this.emailNotificationService = emailNotificationService;
+        this.orderEventBus = orderEventBus;
+        this.chatSummaryService = chatSummaryService;
+        this.chatAccessService = chatAccessService;
+        this.unreadCounterService = unreadCounterService;
     }
 
     @Override
@@ -109,74 +127,84 @@ public class PerformerServiceImpl implements PerformerService {
     @Override
     @Transactional(readOnly = true)
     public Map<String, Object> getAvailableOrders(Integer accountId, String searchTerm, 
-                                                   String sortBy, int page, int pageSize) {
-        Sort sort = buildSort(sortBy);
-        
-        List<Orders> orders;
-        if (searchTerm != null && !searchTerm.isBlank()) {
-            orders = ordersService.findByTitleContainingAndActive(searchTerm);
+                                                   String sortBy, String cursor, int page, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_FEED_PAGE_SIZE));
+        boolean hasSearch = searchTerm != null && !searchTerm.isBlank();
+        
+        List<Orders> pagedOrders;
+        OrderFeedCursor.SortField sortField;
+        boolean descending;
+        if (cursor != null && !cursor.isBlank() && !hasSearch) {
+            // Продолжение ленты: keyset-запрос от последнего заказа предыдущей страницы
+            OrderFeedCursor feedCursor = OrderFeedCursor.decode(cursor);
+            sortField = feedCursor.getField();
+            descending = feedCursor.isDescending();
+            pagedOrders = ordersService.findActiveFeedAfter(feedCursor, limit);
         } else {
-            orders = ordersService.findAllActive();
+            sortField = parseFeedSortField(sortBy);
+            descending = parseFeedSortDescending(sortBy);
+            Pageable pageable = PageRequest.of(Math.max(0, page - 1), limit, buildFeedSort(sortField, descending));
+            pagedOrders = hasSearch
+                    ? ordersService.findActiveFeedByTitleContaining(searchTerm, pageable)
+                    : ordersService.findActiveFeed(pageable);
         }
         
-        // Manual pagination
-        int start = (page - 1) * pageSize;
-        int end = Math.min(start + pageSize, orders.size());
-        List<Orders> pagedOrders = orders.subList(Math.max(0, start), end);
-        
         Performer performer = null;
         if (accountId != null) {
             performer = repository.findByAccountId(accountId).orElse(null);
         }
-        final Performer currentPerformer = performer;
+        
+        // Отклики исполнителя на заказы страницы определяем одним обращением
+        Set<Integer> repliedOrderIds = performer != null
+                ? replyService.findRepliedOrderIds(performer.getId(),
+                        pagedOrders.stream().map(Orders::getId).collect(Collectors.toList()))
+                : Set.of();
+        final boolean markReplies = performer != null;
         
         List<AddOrderDto> orderDtos = pagedOrders.stream()
                 .map(order -> {
                     AddOrderDto dto = ordersMapper.toDto(order);
-                    if (currentPerformer != null) {
-                        boolean hasReplied = replyService.existsByOrderIdAndPerformerId(
-                                order.getId(), currentPerformer.getId());
-                        dto.setHasReplied(hasReplied);
+                    if (markReplies) {
+                        dto.setHasReplied(repliedOrderIds.contains(order.getId()));
                     }
                     return dto;
                 })
                 .collect(Collectors.toList());
         
-        return Map.of("orders", orderDtos);
+        // Курсор следующей страницы выдается только для ленты без поиска
+        String nextCursor = null;
+        if (!hasSearch && pagedOrders.size() == limit) {
+            Orders last = pagedOrders.get(pagedOrders.size() - 1);
+            nextCursor = OrderFeedCursor.after(sortField, descending, last).encode();
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("orders", orderDtos);
+        result.put("nextCursor", nextCursor);
+        return result;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Map<String, Object> getMyActiveOrders(Integer accountId, String searchTerm) {
+    public Map<String, Object> getMyActiveOrders(Integer accountId, String searchTerm, int page, int pageSize) {
         Performer performer = repository.findByAccountId(accountId)
                 .orElseThrow(() -> new NotFoundException("Performer", accountId));
         
-        List<Orders> orders = ordersService.findByPerformerId(performer.getId());
-        
-        // Filter only orders assigned to this performer and not completed
-        orders = orders.stream()
-                .filter(order -> order.getPerformer() != null && 
-                               order.getPerformer().getId().equals(performer.getId()))
-                .filter(order -> order.getStatus() != com.fomov.tasktroveapi.model.OrderStatus.DONE)
-                .collect(Collectors.toList());
-        
-        // Apply search if specified
-        if (searchTerm != null && !searchTerm.isBlank()) {
-            String searchLower = searchTerm.toLowerCase();
-            orders = orders.stream()
-                    .filter(order -> 
-                        (order.getTitle() != null && order.getTitle().toLowerCase().contains(searchLower)) ||
-                        (order.getDescription() != null && order.getDescription().toLowerCase().contains(searchLower)) ||
-                        (order.getScope() != null && order.getScope().toLowerCase().contains(searchLower))
-                    )
-                    .collect(Collectors.toList());
-        }
+        // Незавершенные заказы исполнителя и поиск по ним фильтруются в запросе
+        int limit = Math.max(1, Math.min(pageSize, MAX_FEED_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(Math.max(0, page - 1), limit,
+                buildFeedSort(OrderFeedCursor.SortField.PUBLICATION_TIME, true));
+        Slice<OrderListItem> orders = ordersService.findPerformerActiveListItems(performer.getId(), searchTerm, pageable);
         
-        List<AddOrderDto> orderDtos = orders.stream()
-                .map(ordersMapper::toDto)
+        List<AddOrderDto> orderDtos = orders.getContent().stream()
+                .map(ordersMapper::toListDto)
                 .collect(Collectors.toList());
         
-        return Map.of("orders", orderDtos);
+        Map<String, Object> result = new HashMap<>();
+        result.put("orders", orderDtos);
+        result.put("page", orders.getNumber() + 1);
+        result.put("hasMore", orders.hasNext());
+        return result;
     }
 
     @Override
@@ -224,8 +252,8 @@ public class PerformerServiceImpl implements PerformerService {
         
         // Check if current performer has replied to this order
         if (currentPerformer != null) {
-            boolean hasReplied = replyService.existsByOrderIdAndPerformerId(
-                    order.getId(), currentPerformer.getId());
+            boolean hasReplied = replyService.findRepliedOrderIds(
+                    currentPerformer.getId(), List.of(order.getId())).contains(order.getId());
             dto.setHasReplied(hasReplied);
         }
         
@@ -280,39 +308,16 @@ public class PerformerServiceImpl implements PerformerService {
         Performer performer = repository.findByAccountId(accountId)
                 .orElseThrow(() -> new NotFoundException("Performer", accountId));
         
-        List<Chat> chats = chatService.findByPerformerId(performer.getId());
-        
-        List<ChatDto> chatDtos = chats.stream()
-                .map(chat -> {
-                    ChatDto dto = chatMapper.toDto(chat);
-                    // Подсчитываем непрочитанные сообщения (сообщения от customer после последней проверки)
-                    Long unreadCount = messageService.countUnreadMessages(
-                        chat.getId(), 
-                        accountId, 
-                        chat.getLastCheckedByPerformerTime()
-                    );
-                    dto.setUnreadCount(unreadCount != null ? unreadCount.intValue() : 0);
-                    
-                    // Заполняем информацию о заказе для проверки возможности удаления
-                    Integer orderId = extractOrderIdFromRoomName(chat.getRoomName());
-                    if (orderId != null) {
-                        dto.setOrderId(orderId);
-                        ordersService.findById(orderId).ifPresent(order -> {
-                            dto.setOrderIsDone(order.getStatus() == com.fomov.tasktroveapi.model.OrderStatus.DONE);
-                            dto.setOrderPerformerId(order.getPerformer() != null ? order.getPerformer().getId() : null);
-                        });
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        // Непрочитанные сообщения (от customer после последней проверки) и состояние заказов считаются пакетно
+        List<ChatDto> chatDtos = chatSummaryService.getPerformerChatSummaries(performer.getId(), accountId);
         
         return Map.of("chats", chatDtos);
     }
 
     @Override
     @Transactional
-    public Map<String, Object> getChatMessages(Integer accountId, Integer chatId) {
+    public Map<String, Object> getChatMessages(Integer accountId, Integer chatId,
+                                               Integer beforeId, Integer afterId, Integer limit) {
         Performer performer = repository.findByAccountId(accountId)
                 .orElseThrow(() -> new NotFoundException("Performer", accountId));
         
@@ -327,16 +332,21 @@ public class PerformerServiceImpl implements PerformerService {
         }
         
         // Помечаем чат как прочитанный для performer и обновляем время последней проверки
-        chat.setCheckByPerformer(true);
-        chat.setLastCheckedByPerformerTime(java.time.OffsetDateTime.now());
-        chatService.save(chat);
+        // Подгрузка более старой истории не означает, что пользователь увидел новые сообщения
+        if (beforeId == null) {
+            chat.setCheckByPerformer(true);
+            java.time.OffsetDateTime readAt = java.time.OffsetDateTime.now();
+            chat.setLastCheckedByPerformerTime(readAt);
+            chatService.save(chat);
+            unreadCounterService.markRead(chat.getId(), accountId, readAt);
+        }
         
-        List<Message> messages = messageService.findByChatId(chatId);
-        List<MessageDto> messageDtos = messages.stream()
+        Slice<Message> page = messageService.findChatPage(chatId, beforeId, afterId, limit != null ? limit : 0);
+        List<MessageDto> messageDtos = page.getContent().stream()
                 .map(messageMapper::toDto)
                 .collect(Collectors.toList());
         
-        return Map.of("messages", messageDtos);
+        return Map.of("messages", messageDtos, "hasMore", page.hasNext());
     }
 
     @Override
@@ -354,8 +364,10 @@ public class PerformerServiceImpl implements PerformerService {
         
         // Помечаем чат как прочитанный для performer и обновляем время последней проверки
         chat.setCheckByPerformer(true);
-        chat.setLastCheckedByPerformerTime(java.time.OffsetDateTime.now());
+        java.time.OffsetDateTime readAt = java.time.OffsetDateTime.now();
+        chat.setLastCheckedByPerformerTime(readAt);
         chatService.save(chat);
+        unreadCounterService.markRead(chat.getId(), accountId, readAt);
     }
 
     @Override
@@ -515,19 +527,13 @@ public class PerformerServiceImpl implements PerformerService {
         order.setStatus(com.fomov.tasktroveapi.model.OrderStatus.ACTIVE);
         ordersService.save(order);
         
-        // Создаем уведомление для заказчика об отказе исполнителя
-        if (customer != null && customer.getAccount() != null) {
-            notificationService.createPerformerRefusedNotification(
-                customer.getAccount().getId(),
-                performerId,
-                orderId,
-                orderTitle,
-                performerName
-            );
-        }
-        
-        // Send email to customer
-        sendRefusalEmail(customer, performerName, orderTitle);
+        // Уведомление и письмо заказчику об отказе исполнителя отправляются после коммита
+        orderEventBus.publish(OrderEvent.of(OrderEvent.Type.ORDER_REFUSED_BY_PERFORMER,
+            orderId, orderTitle,
+            customer != null ? customer.getId() : null,
+            customer != null && customer.getAccount() != null ? customer.getAccount().getId() : null,
+            customer != null ? customer.getFullName() : null,
+            performerId, accountId, performerName));
     }
 
     @Override
@@ -560,23 +566,36 @@ public class PerformerServiceImpl implements PerformerService {
 
     // Private helper methods
     
-    private Sort buildSort(String sortBy) {
-        Sort sort = Sort.by(Sort.Direction.ASC, "id");
-        if (sortBy != null && !sortBy.isBlank()) {
-            try {
-                String[] parts = sortBy.split(":");
-                if (parts.length == 2) {
-                    sort = Sort.by("desc".equalsIgnoreCase(parts[1]) ? 
-                        Sort.Direction.DESC : Sort.Direction.ASC, parts[0]);
-                } else {
-                    sort = Sort.by(Sort.Direction.ASC, sortBy);
-                }
-            } catch (Exception e) {
-                // Use default sort
-                logger.warn("Invalid sort parameter: {}, using default sort", sortBy);
-            }
+    private OrderFeedCursor.SortField parseFeedSortField(String sortBy) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return OrderFeedCursor.SortField.PUBLICATION_TIME;
+        }
+        String field = sortBy.split(":")[0].trim();
+        if ("budget".equalsIgnoreCase(field)) {
+            return OrderFeedCursor.SortField.BUDGET;
         }
-        return sort;
+        if (!"publicationTime".equalsIgnoreCase(field)) {
+            logger.warn("Invalid sort parameter: {}, using default sort", sortBy);
+        }
+        return OrderFeedCursor.SortField.PUBLICATION_TIME;
+    }
+
+    private boolean parseFeedSortDescending(String sortBy) {
+        // По умолчанию лента показывает сначала новые заказы
+        if (sortBy == null || sortBy.isBlank()) {
+            return true;
+        }
+        String[] parts = sortBy.split(":");
+        return parts.length == 2 && "desc".equalsIgnoreCase(parts[1].trim());
+    }
+
+    private Sort buildFeedSort(OrderFeedCursor.SortField field, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        if (field == OrderFeedCursor.SortField.BUDGET) {
+            // Порядок совпадает с keyset-запросами: заказы без бюджета в конце
+            return Sort.by(new Sort.Order(direction, "budget").nullsLast(), new Sort.Order(direction, "id"));
+        }
+        return Sort.by(new Sort.Order(direction, "publicationTime"), new Sort.Order(direction, "id"));
     }
 
     private List<Reply> filterRepliesByTab(List<Reply> replies, String tab) {
@@ -631,8 +650,7 @@ public class PerformerServiceImpl implements PerformerService {
                 dto.setOrderPublicationTime(order.getPublicationTime().toString());
             }
             
-            List<Reply> orderReplies = replyService.findByOrderId(order.getId());
-            dto.setOrderHowReplies(orderReplies != null ? orderReplies.size() : 0);
+            dto.setOrderHowReplies(order.getReplyCount() != null ? order.getReplyCount() : 0);
             
             // Определяем, одобрен ли отклик: используем флаг isApprovedByCustomer из модели Reply
             // или проверяем, соответствует ли исполнитель отклика назначенному исполнителю заказа
@@ -671,28 +689,19 @@ public class PerformerServiceImpl implements PerformerService {
         order.setStatus(com.fomov.tasktroveapi.model.OrderStatus.ON_CHECK);
         ordersService.save(order);
         
-        // Send email to customer about completed work
+        // Письмо и уведомление заказчику о завершении работы отправляются после коммита
         Customer customer = customerRepository.findByIdWithAccount(order.getCustomer().getId())
                 .orElse(null);
         String orderTitle = order.getTitle() != null ? order.getTitle() : "заказ #" + order.getId();
         String performerName = performer.getFullName() != null ? performer.getFullName() : "Исполнитель";
         
-        emailNotificationService.sendWorkCompletionEmail(customer, performerName, orderTitle);
-        
-        // Создаем уведомление для заказчика о завершении работы
-        if (customer != null && customer.getAccount() != null) {
-            notificationService.createCompletedNotification(
-                customer.getAccount().getId(),
-                performer.getId(),
-                order.getId(),
-                orderTitle,
-                performerName
-            );
-        }
-    }
-
-    private void sendRefusalEmail(Customer customer, String performerName, String orderTitle) {
-        emailNotificationService.sendCustomerRefusalEmail(customer, performerName, orderTitle);
+        orderEventBus.publish(OrderEvent.of(OrderEvent.Type.WORK_SUBMITTED,
+            order.getId(), orderTitle,
+            customer != null ? customer.getId() : null,
+            customer != null && customer.getAccount() != null ? customer.getAccount().getId() : null,
+            customer != null ? customer.getFullName() : null,
+            performer.getId(), performer.getAccount() != null ? performer.getAccount().getId() : null,
+            performerName));
     }
 
     @Override
@@ -780,42 +789,21 @@ public class PerformerServiceImpl implements PerformerService {
         // Помечаем чат как удаленный для исполнителя (мягкое удаление - чат скрыт только для исполнителя)
         chat.setDeletedByPerformer(true);
         chatService.save(chat);
+        chatAccessService.evict(chatId);
         
         logger.info("Chat {} deleted by performer {} (soft delete)", chatId, performer.getId());
     }
-    
-    private Integer extractOrderIdFromRoomName(String roomName) {
-        if (roomName == null || !roomName.contains("Order #")) {
-            return null;
-        }
-        try {
-            // Формат может быть: "Order #14: Название" или "Order #14: Название, Order #15: Название2"
-            // Извлекаем первый orderId из строки
-            int orderIndex = roomName.indexOf("Order #");
-            if (orderIndex >= 0) {
-                String remaining = roomName.substring(orderIndex + "Order #".length());
-                // Ищем конец числа (пробел, двоеточие или запятая)
-                StringBuilder idStr = new StringBuilder();
-                for (char c : remaining.toCharArray()) {
-                    if (Character.isDigit(c)) {
-                        idStr.append(c);
-                    } else {
-                        break;
-                    }
-                }
-                if (idStr.length() > 0) {
-                    return Integer.parseInt(idStr.toString());
-                }
-            }
-        } catch (NumberFormatException e) {
-            logger.error("Failed to extract order ID from roomName: {}", roomName, e);
-        }
-        return null;
-    }
 
     @Override
     @Transactional(readOnly = true)
     public List<Performer> getTopPerformers() {
         return repository.findAllOrderByRatingDesc();
     }
+
+    @Override
+    public void adjustCompletedOrdersCount(Integer performerId, int delta) {
+        if (performerId != null && delta != 0) {
+            repository.adjustCompletedOrdersCount(performerId, delta);
+        }
+    }
 }
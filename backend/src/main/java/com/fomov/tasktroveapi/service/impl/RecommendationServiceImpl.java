@@ -0,0 +1,62 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.dto.AddOrderDto;
+import com.fomov.tasktroveapi.dto.OrderListItem;
+import com.fomov.tasktroveapi.exception.NotFoundException;
+import com.fomov.tasktroveapi.mapper.OrdersMapper;
+import com.fomov.tasktroveapi.model.OrderStatus;
+import com.fomov.tasktroveapi.model.Performer;
+import com.fomov.tasktroveapi.repository.PerformerRepository;
+import com.fomov.tasktroveapi.search.OrderRecommendationIndex;
+import com.fomov.tasktroveapi.service.OrdersService;
+import com.fomov.tasktroveapi.service.RecommendationService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private final OrderRecommendationIndex recommendationIndex;
+    private final PerformerRepository performerRepository;
+    private final OrdersService ordersService;
+    private final OrdersMapper ordersMapper;
+
+    public RecommendationServiceImpl(OrderRecommendationIndex recommendationIndex,
+                                     PerformerRepository performerRepository,
+                                     OrdersService ordersService,
+                                     OrdersMapper ordersMapper) {
+        this.recommendationIndex = recommendationIndex;
+        this.performerRepository = performerRepository;
+        this.ordersService = ordersService;
+        this.ordersMapper = ordersMapper;
+    }
+
+    @Override
+    public Map<String, Object> getRecommendedOrders(Integer accountId, int limit) {
+        Performer performer = performerRepository.findByAccountId(accountId)
+                .orElseThrow(() -> new NotFoundException("Performer", accountId));
+
+        int size = Math.max(1, Math.min(limit, OrderRecommendationIndex.TOP_K));
+        List<Integer> orderIds = recommendationIndex.recommend(performer.getId(), size).stream()
+                .map(OrderRecommendationIndex.Recommendation::orderId)
+                .collect(Collectors.toList());
+
+        // Индекс обновляется после коммита, поэтому заказ могли взять в работу между обновлениями
+        List<AddOrderDto> orders = ordersService.findListItemsByIds(orderIds).stream()
+                .filter(item -> item.getStatus() == OrderStatus.ACTIVE && item.getPerformerId() == null
+                        && !Boolean.TRUE.equals(item.getIsDeletedByCustomer()))
+                .map(ordersMapper::toListDto)
+                .collect(Collectors.toList());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("orders", orders);
+        result.put("ready", recommendationIndex.isReady());
+        return result;
+    }
+}
@@ -1,22 +1,59 @@
 package com.fomov.tasktroveapi.service.impl;
 
+import com.fomov.tasktroveapi.model.Orders;
 import com.fomov.tasktroveapi.model.Reply;
+import com.fomov.tasktroveapi.repository.OrdersRepository;
 import com.fomov.tasktroveapi.repository.ReplyRepository;
 import com.fomov.tasktroveapi.service.ReplyService;
+import com.fomov.tasktroveapi.service.ResourceVersionService;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
 
 @Service
 @Transactional
 public class ReplyServiceImpl implements ReplyService {
 
+    // Максимальное число исполнителей, чьи отклики держим в памяти
+    private static final int MAX_CACHED_PERFORMERS = 10000;
+    
+    // Время простоя, после которого набор откликов исполнителя выгружается (30 минут)
+    private static final long REPLIED_IDS_IDLE_MILLIS = 30 * 60 * 1000L;
+    
+    private static final int STRIPES = 64;
+    
     private final ReplyRepository repository;
+    private final OrdersRepository ordersRepository;
+    private final ResourceVersionService resourceVersionService;
+    
+    // performerId -> id заказов, на которые исполнитель откликнулся
+    private final Map<Integer, RepliedOrderIds> repliedOrderIds = new ConcurrentHashMap<>();
+    
+    // Исполнители разбиты на полосы: изменение после коммита увеличивает версию полосы,
+    // и набор, загруженный из БД до этого изменения, в кэш уже не попадет
+    private final Object[] stripeLocks = new Object[STRIPES];
+    private final AtomicLongArray stripeVersions = new AtomicLongArray(STRIPES);
 
-    public ReplyServiceImpl(ReplyRepository repository) {
+    public ReplyServiceImpl(ReplyRepository repository, OrdersRepository ordersRepository,
+                            ResourceVersionService resourceVersionService) {
         this.repository = repository;
+        this.ordersRepository = ordersRepository;
+        this.resourceVersionService = resourceVersionService;
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
     }
 
     @Override
@@ -31,12 +68,33 @@ public class ReplyServiceImpl implements ReplyService {
 
     @Override
     public Reply save(Reply reply) {
-        return repository.save(reply);
+        boolean isNew = reply.getId() == null;
+        Reply saved = repository.save(reply);
+        if (isNew && saved.getOrders() != null) {
+            adjustReplyCount(saved.getOrders(), 1);
+        }
+        if (saved.getPerformer() != null && saved.getOrders() != null) {
+            Integer performerId = saved.getPerformer().getId();
+            Integer orderId = saved.getOrders().getId();
+            TransactionCallbacks.afterCommit(() -> updateRepliedOrderIds(performerId, ids -> ids.with(orderId)));
+        }
+        // Отклики входят в списки и карточки заказов
+        resourceVersionService.changed(ResourceVersionService.Resource.ORDERS);
+        return saved;
     }
 
     @Override
     public void deleteById(Integer id) {
-        repository.deleteById(id);
+        repository.findById(id).ifPresent(reply -> {
+            repository.delete(reply);
+            if (reply.getOrders() != null) {
+                adjustReplyCount(reply.getOrders(), -1);
+            }
+            if (reply.getPerformer() != null && reply.getOrders() != null) {
+                forgetReply(reply.getPerformer().getId(), reply.getOrders().getId());
+            }
+            resourceVersionService.changed(ResourceVersionService.Resource.ORDERS);
+        });
     }
 
     @Override
@@ -54,6 +112,32 @@ public class ReplyServiceImpl implements ReplyService {
         return repository.existsByOrders_IdAndPerformer_Id(orderId, performerId);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Integer> findRepliedOrderIds(Integer performerId, Collection<Integer> orderIds) {
+        Set<Integer> result = new HashSet<>();
+        if (performerId == null || orderIds == null || orderIds.isEmpty()) {
+            return result;
+        }
+        
+        RepliedOrderIds ids = repliedOrderIds.get(performerId);
+        if (ids == null) {
+            if (repliedOrderIds.size() >= MAX_CACHED_PERFORMERS) {
+                // Кэш заполнен - отвечаем одним запросом к БД
+                result.addAll(repository.findRepliedOrderIds(performerId, orderIds));
+                return result;
+            }
+            ids = load(performerId);
+        }
+        ids.touch();
+        for (Integer orderId : orderIds) {
+            if (orderId != null && ids.contains(orderId)) {
+                result.add(orderId);
+            }
+        }
+        return result;
+    }
+    
     @Override
     public List<Reply> findByPerformerIdWithRelations(Integer performerId) {
         return repository.findByPerformerIdWithRelations(performerId);
@@ -67,13 +151,135 @@ public class ReplyServiceImpl implements ReplyService {
     @Override
     @org.springframework.transaction.annotation.Transactional
     public int deleteByOrderIdAndPerformerId(Integer orderId, Integer performerId) {
-        return repository.deleteByOrderIdAndPerformerId(orderId, performerId);
+        int deleted = repository.deleteByOrderIdAndPerformerId(orderId, performerId);
+        if (deleted > 0) {
+            ordersRepository.adjustReplyCount(orderId, -deleted);
+            forgetReply(performerId, orderId);
+            resourceVersionService.changed(ResourceVersionService.Resource.ORDERS);
+        }
+        return deleted;
     }
     
     @Override
     @org.springframework.transaction.annotation.Transactional
     public int deleteAllByOrderId(Integer orderId) {
-        return repository.deleteAllByOrderId(orderId);
+        int deleted = repository.deleteAllByOrderId(orderId);
+        if (deleted > 0) {
+            ordersRepository.resetReplyCount(orderId);
+            TransactionCallbacks.afterCommit(() -> {
+                // Сначала версии: загрузка, завершившаяся раньше, уже в кэше и будет исправлена ниже
+                for (int stripe = 0; stripe < STRIPES; stripe++) {
+                    synchronized (stripeLocks[stripe]) {
+                        stripeVersions.incrementAndGet(stripe);
+                    }
+                }
+                repliedOrderIds.replaceAll((performerId, ids) -> ids.without(orderId));
+            });
+            resourceVersionService.changed(ResourceVersionService.Resource.ORDERS);
+        }
+        return deleted;
+    }
+    
+    /**
+     * Периодическая выгрузка наборов откликов неактивных исполнителей (каждые 5 минут)
+     */
+    @Scheduled(fixedRate = 300000) // 5 минут
+    public void evictIdleRepliedOrderIds() {
+        long threshold = System.currentTimeMillis() - REPLIED_IDS_IDLE_MILLIS;
+        repliedOrderIds.entrySet().removeIf(entry -> entry.getValue().lastAccess < threshold);
+    }
+    
+    private void adjustReplyCount(Orders order, int delta) {
+        ordersRepository.adjustReplyCount(order.getId(), delta);
+        // Синхронизируем загруженную сущность, чтобы в этой же транзакции счетчик был актуален
+        if (org.hibernate.Hibernate.isInitialized(order) && order.getReplyCount() != null) {
+            order.setReplyCount(Math.max(order.getReplyCount() + delta, 0));
+        }
+    }
+    
+    private void forgetReply(Integer performerId, Integer orderId) {
+        TransactionCallbacks.afterCommit(() -> updateRepliedOrderIds(performerId, ids -> ids.without(orderId)));
+    }
+    
+    /**
+     * Загружает набор откликов исполнителя. В кэш он попадает, только если за время запроса
+     * отклики исполнителя не менялись: иначе снимок БД мог не включать закоммиченное изменение
+     */
+    private RepliedOrderIds load(Integer performerId) {
+        int stripe = stripe(performerId);
+        long version = stripeVersions.get(stripe);
+        RepliedOrderIds loaded = RepliedOrderIds.of(repository.findOrderIdsByPerformerId(performerId));
+        synchronized (stripeLocks[stripe]) {
+            if (stripeVersions.get(stripe) == version) {
+                RepliedOrderIds cached = repliedOrderIds.putIfAbsent(performerId, loaded);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+        return loaded;
+    }
+    
+    private void updateRepliedOrderIds(Integer performerId, UnaryOperator<RepliedOrderIds> change) {
+        int stripe = stripe(performerId);
+        synchronized (stripeLocks[stripe]) {
+            stripeVersions.incrementAndGet(stripe);
+            repliedOrderIds.computeIfPresent(performerId, (id, ids) -> change.apply(ids));
+        }
+    }
+    
+    private static int stripe(Integer performerId) {
+        return Math.floorMod(performerId.hashCode(), STRIPES);
+    }
+    
+    
+    /**
+     * Компактный неизменяемый набор id заказов: отсортированный массив int с бинарным поиском.
+     * Изменения создают новую копию, поэтому читать набор можно без блокировок.
+     */
+    private static class RepliedOrderIds {
+        final int[] orderIds;
+        volatile long lastAccess = System.currentTimeMillis();
+        
+        RepliedOrderIds(int[] orderIds) {
+            this.orderIds = orderIds;
+        }
+        
+        static RepliedOrderIds of(List<Integer> ids) {
+            return new RepliedOrderIds(ids.stream().mapToInt(Integer::intValue).sorted().distinct().toArray());
+        }
+        
+        boolean contains(int orderId) {
+            return Arrays.binarySearch(orderIds, orderId) >= 0;
+        }
+        
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+        
+        RepliedOrderIds with(int orderId) {
+            int position = Arrays.binarySearch(orderIds, orderId);
+            if (position >= 0) {
+                return this;
+            }
+            int insertAt = -position - 1;
+            int[] copy = new int[orderIds.length + 1];
+            System.arraycopy(orderIds, 0, copy, 0, insertAt);
+            copy[insertAt] = orderId;
+            System.arraycopy(orderIds, insertAt, copy, insertAt + 1, orderIds.length - insertAt);
+            return new RepliedOrderIds(copy);
+        }
+        
+        RepliedOrderIds without(int orderId) {
+            int position = Arrays.binarySearch(orderIds, orderId);
+            if (position < 0) {
+                return this;
+            }
+            int[] copy = new int[orderIds.length - 1];
+            System.arraycopy(orderIds, 0, copy, 0, position);
+            System.arraycopy(orderIds, position + 1, copy, position, orderIds.length - position - 1);
+            return new RepliedOrderIds(copy);
+        }
     }
 }
 
@@ -0,0 +1,163 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.service.ResourceVersionService;
+import com.fomov.tasktroveapi.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версии ресурсов в памяти процесса. Все версии берутся из одной возрастающей
+ * последовательности, поэтому значение, однажды выданное клиенту, не повторится
+ * после изменения данных - в том числе после выгрузки неиспользуемых версий аккаунтов.
+ */
+@Service
+public class ResourceVersionServiceImpl implements ResourceVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceVersionServiceImpl.class);
+
+    // ETag устаревает не реже этого интервала (1 минута): так изменения, не проходящие
+    // через отслеживаемые пути записи (имена, рейтинги), попадают к клиенту с ограниченной задержкой
+    private static final long MAX_ETAG_AGE_MILLIS = 60 * 1000L;
+
+    // Версии аккаунтов, не менявшиеся дольше этого времени (30 минут), выгружаются
+    private static final long IDLE_EVICTION_MILLIS = 30 * 60 * 1000L;
+
+    // Эпоха запуска: после перезапуска сохраненные клиентами ETag не совпадут с новыми
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<Resource, AtomicLong> globalVersions = new EnumMap<>(Resource.class);
+
+    private final Map<AccountResource, AccountVersion> accountVersions = new ConcurrentHashMap<>();
+
+    // Версия выгруженных и еще не менявшихся аккаунтов
+    private volatile long evictedFloor = 0;
+
+    public ResourceVersionServiceImpl() {
+        for (Resource resource : Resource.values()) {
+            if (!resource.isPerAccount()) {
+                globalVersions.put(resource, new AtomicLong());
+            }
+        }
+    }
+
+    @Override
+    public void changed(Resource resource) {
+        if (resource.isPerAccount()) {
+            throw new IllegalArgumentException("Resource " + resource + " is versioned per account");
+        }
+        TransactionCallbacks.afterCommit(() -> bump(resource, null));
+    }
+
+    @Override
+    public void changed(Resource resource, Integer accountId) {
+        if (!resource.isPerAccount()) {
+            changed(resource);
+            return;
+        }
+        if (accountId != null) {
+            TransactionCallbacks.afterCommit(() -> bump(resource, accountId));
+        }
+    }
+
+    @Override
+    public void changed(Resource resource, Collection<Integer> accountIds) {
+        if (!resource.isPerAccount()) {
+            changed(resource);
+            return;
+        }
+        List<Integer> ids = accountIds.stream().filter(id -> id != null).distinct().toList();
+        if (!ids.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> ids.forEach(accountId -> bump(resource, accountId)));
+        }
+    }
+
+    @Override
+    public String etag(Integer accountId, Resource... resources) {
+        StringBuilder etag = new StringBuilder("\"").append(epoch)
+                .append('-').append(accountId)
+                .append('-').append(Long.toString(System.currentTimeMillis() / MAX_ETAG_AGE_MILLIS, 36));
+        for (Resource resource : resources) {
+            etag.append('-').append(Long.toString(version(resource, accountId), 36));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Периодическая выгрузка версий неактивных аккаунтов (каждые 5 минут)
+     */
+    @Scheduled(fixedRate = 300000) // 5 минут
+    public void evictIdleVersions() {
+        long threshold = System.currentTimeMillis() - IDLE_EVICTION_MILLIS;
+        // Сначала поднимаем нижнюю границу: она не меньше любой выгружаемой версии
+        long floor = sequence.get();
+        evictedFloor = floor;
+        int evicted = 0;
+        for (AccountResource key : accountVersions.keySet()) {
+            // Проверка и удаление атомарны относительно bump: версия, измененная после
+            // подъема границы, больше нее и не выгружается, иначе ETag вернулся бы к старому значению
+            boolean[] removed = new boolean[1];
+            accountVersions.computeIfPresent(key, (k, version) -> {
+                if (version.lastChanged < threshold && version.value.get() <= floor) {
+                    removed[0] = true;
+                    return null;
+                }
+                return version;
+            });
+            if (removed[0]) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle resource versions", evicted);
+        }
+    }
+
+    private long version(Resource resource, Integer accountId) {
+        if (!resource.isPerAccount()) {
+            return globalVersions.get(resource).get();
+        }
+        AccountVersion version = accountId != null
+                ? accountVersions.get(new AccountResource(resource, accountId)) : null;
+        return version != null ? version.value.get() : evictedFloor;
+    }
+
+    private void bump(Resource resource, Integer accountId) {
+        long next = sequence.incrementAndGet();
+        if (!resource.isPerAccount()) {
+            globalVersions.get(resource).accumulateAndGet(next, Math::max);
+            return;
+        }
+        // Изменение под блокировкой ключа, как и выгрузка в evictIdleVersions
+        accountVersions.compute(new AccountResource(resource, accountId), (key, version) -> {
+            if (version == null) {
+                return new AccountVersion(next);
+            }
+            version.value.accumulateAndGet(next, Math::max);
+            version.lastChanged = System.currentTimeMillis();
+            return version;
+        });
+    }
+
+    private record AccountResource(Resource resource, int accountId) {
+    }
+
+    private static final class AccountVersion {
+        private final AtomicLong value;
+        private volatile long lastChanged = System.currentTimeMillis();
+
+        AccountVersion(long initial) {
+            this.value = new AtomicLong(initial);
+        }
+    }
+}
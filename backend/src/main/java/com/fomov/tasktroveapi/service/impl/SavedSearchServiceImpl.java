@@ -0,0 +1,166 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.dto.SavedSearchDto;
+import com.fomov.tasktroveapi.exception.NotFoundException;
+import com.fomov.tasktroveapi.mapper.SavedSearchMapper;
+import com.fomov.tasktroveapi.model.OrderStatus;
+import com.fomov.tasktroveapi.model.Orders;
+import com.fomov.tasktroveapi.model.Performer;
+import com.fomov.tasktroveapi.model.SavedSearch;
+import com.fomov.tasktroveapi.repository.OrdersRepository;
+import com.fomov.tasktroveapi.repository.PerformerRepository;
+import com.fomov.tasktroveapi.repository.SavedSearchRepository;
+import com.fomov.tasktroveapi.search.SavedSearchIndex;
+import com.fomov.tasktroveapi.service.NotificationService;
+import com.fomov.tasktroveapi.service.OrdersService;
+import com.fomov.tasktroveapi.service.SavedSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class SavedSearchServiceImpl implements SavedSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchServiceImpl.class);
+
+    private static final int MAX_SAVED_SEARCHES_PER_PERFORMER = 20;
+
+    // Ограничение размера IN-списка при получении аккаунтов совпавших исполнителей
+    private static final int ACCOUNT_LOOKUP_CHUNK_SIZE = 1000;
+
+    private final SavedSearchRepository repository;
+    private final PerformerRepository performerRepository;
+    private final SavedSearchMapper mapper;
+    private final SavedSearchIndex savedSearchIndex;
+    private final OrdersService ordersService;
+    private final OrdersRepository ordersRepository;
+    private final NotificationService notificationService;
+
+    public SavedSearchServiceImpl(SavedSearchRepository repository,
+                                  PerformerRepository performerRepository,
+                                  SavedSearchMapper mapper,
+                                  SavedSearchIndex savedSearchIndex,
+                                  OrdersService ordersService,
+                                  OrdersRepository ordersRepository,
+                                  NotificationService notificationService) {
+        this.repository = repository;
+        this.performerRepository = performerRepository;
+        this.mapper = mapper;
+        this.savedSearchIndex = savedSearchIndex;
+        this.ordersService = ordersService;
+        this.ordersRepository = ordersRepository;
+        this.notificationService = notificationService;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SavedSearchDto> findByPerformerAccountId(Integer accountId) {
+        Performer performer = performerRepository.findByAccountId(accountId)
+                .orElseThrow(() -> new NotFoundException("Performer", accountId));
+        return repository.findByPerformerId(performer.getId()).stream()
+                .map(mapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public SavedSearchDto create(Integer accountId, SavedSearchDto dto) {
+        // Строка исполнителя блокируется до коммита, иначе параллельные запросы
+        // пройдут проверку лимита одновременно
+        Performer performer = performerRepository.findByAccountIdForUpdate(accountId)
+                .orElseThrow(() -> new NotFoundException("Performer", accountId));
+
+        String keywords = trimToNull(dto.getKeywords());
+        String techStack = trimToNull(dto.getTechStack());
+        // Поиск только по бюджету совпадал бы с каждым новым заказом
+        if (keywords == null && techStack == null) {
+            throw new IllegalArgumentException("Укажите ключевые слова или технологии");
+        }
+        if (dto.getBudgetMin() != null && dto.getBudgetMax() != null
+                && dto.getBudgetMin().compareTo(dto.getBudgetMax()) > 0) {
+            throw new IllegalArgumentException("Минимальный бюджет больше максимального");
+        }
+        if (repository.countByPerformerId(performer.getId()) >= MAX_SAVED_SEARCHES_PER_PERFORMER) {
+            throw new IllegalArgumentException(
+                    "Можно сохранить не более " + MAX_SAVED_SEARCHES_PER_PERFORMER + " поисков");
+        }
+
+        SavedSearch savedSearch = new SavedSearch(performer, trimToNull(dto.getName()), keywords, techStack,
+                dto.getBudgetMin(), dto.getBudgetMax());
+        return mapper.toDto(repository.save(savedSearch));
+    }
+
+    @Override
+    public void delete(Integer accountId, Integer savedSearchId) {
+        Performer performer = performerRepository.findByAccountId(accountId)
+                .orElseThrow(() -> new NotFoundException("Performer", accountId));
+        SavedSearch savedSearch = repository.findByIdAndPerformerId(savedSearchId, performer.getId())
+                .orElseThrow(() -> new NotFoundException("SavedSearch", savedSearchId));
+        repository.delete(savedSearch);
+    }
+
+    @Override
+    public void markForMatching(Integer orderId) {
+        ordersRepository.markSavedSearchMatchPending(orderId);
+    }
+
+    @Override
+    public void notifyMatchingPerformers(Integer orderId) {
+        if (!savedSearchIndex.isReady()) {
+            // Заказ остается отмеченным и будет сверен после построения индекса
+            logger.debug("Saved search index is not ready, orderId={} stays pending", orderId);
+            return;
+        }
+        // Отметка снимается в той же транзакции, что и создание уведомлений:
+        // при ошибке она откатится и сверка повторится
+        if (ordersRepository.claimSavedSearchMatch(orderId) == 0) {
+            return;
+        }
+        Orders order = ordersService.findById(orderId).orElse(null);
+        // Заказ могли успеть взять в работу или удалить до обработки события
+        if (order == null || order.getStatus() != OrderStatus.ACTIVE || order.getPerformer() != null) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        Set<Integer> performerIds = savedSearchIndex.match(order);
+        long matchMicros = (System.nanoTime() - started) / 1000;
+        if (performerIds.isEmpty()) {
+            logger.debug("Order id={} matched no saved searches ({} µs)", orderId, matchMicros);
+            return;
+        }
+
+        List<Integer> performerIdList = new ArrayList<>(performerIds);
+        List<Integer> accountIds = new ArrayList<>(performerIdList.size());
+        for (int from = 0; from < performerIdList.size(); from += ACCOUNT_LOOKUP_CHUNK_SIZE) {
+            List<Integer> chunk = performerIdList.subList(from,
+                    Math.min(from + ACCOUNT_LOOKUP_CHUNK_SIZE, performerIdList.size()));
+            accountIds.addAll(performerRepository.findAccountIdsByIds(chunk));
+        }
+
+        String orderTitle = order.getTitle() != null ? order.getTitle() : "Заказ #" + order.getId();
+        notificationService.createSavedSearchMatchNotifications(accountIds, order.getId(), orderTitle);
+        logger.info("Order id={} matched saved searches of {} performers in {} µs",
+                orderId, accountIds.size(), matchMicros);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Integer> findPendingMatchOrderIds(int limit) {
+        return ordersRepository.findSavedSearchMatchPendingIds(PageRequest.of(0, limit));
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+}
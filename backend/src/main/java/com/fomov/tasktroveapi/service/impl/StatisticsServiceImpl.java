@@ -0,0 +1,148 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.model.OrderStatus;
+import com.fomov.tasktroveapi.repository.AccountRepository;
+import com.fomov.tasktroveapi.repository.AdministratorRepository;
+import com.fomov.tasktroveapi.repository.CustomerRepository;
+import com.fomov.tasktroveapi.repository.OrdersRepository;
+import com.fomov.tasktroveapi.repository.PerformerRepository;
+import com.fomov.tasktroveapi.service.StatisticsService;
+import com.fomov.tasktroveapi.util.DaemonThreadPools;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Статистика для панели администратора на агрегирующих запросах COUNT ... GROUP BY.
+ * Результат хранится в снимке с коротким временем жизни: устаревший снимок
+ * отдается сразу, а обновляется в фоне, поэтому опрос панели не ждет БД.
+ * Снимок старше {@link #MAX_SNAPSHOT_AGE_MILLIS} (панель долго не открывали
+ * или фоновое обновление падает) не отдается - он пересчитывается в запросе.
+ */
+@Service
+public class StatisticsServiceImpl implements StatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsServiceImpl.class);
+
+    // Время жизни снимка статистики
+    private static final long SNAPSHOT_TTL_MILLIS = 30_000; // 30 секунд
+
+    // Предельный возраст отдаваемого снимка
+    private static final long MAX_SNAPSHOT_AGE_MILLIS = 120_000; // 2 минуты
+
+    private final AccountRepository accountRepository;
+    private final CustomerRepository customerRepository;
+    private final PerformerRepository performerRepository;
+    private final AdministratorRepository administratorRepository;
+    private final OrdersRepository ordersRepository;
+
+    // Один поток и очередь на одну задачу: параллельные обновления снимка не нужны
+    private final ThreadPoolExecutor refresher;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    private volatile Snapshot snapshot;
+
+    public StatisticsServiceImpl(AccountRepository accountRepository,
+                                 CustomerRepository customerRepository,
+                                 PerformerRepository performerRepository,
+                                 AdministratorRepository administratorRepository,
+                                 OrdersRepository ordersRepository) {
+        this.accountRepository = accountRepository;
+        this.customerRepository = customerRepository;
+        this.performerRepository = performerRepository;
+        this.administratorRepository = administratorRepository;
+        this.ordersRepository = ordersRepository;
+        this.refresher = DaemonThreadPools.newFixedPool("admin-statistics-refresh", 1, 1,
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Object> getStatistics() {
+        // Без собственной транзакции: при попадании в снимок соединение с БД не берется
+        Snapshot current = snapshot;
+        if (current == null || current.isTooOld()) {
+            // Первый запрос после старта или слишком старый снимок: считаем в запросе
+            current = load();
+            snapshot = current;
+            return current.values();
+        }
+        if (current.isExpired()) {
+            scheduleRefresh();
+        }
+        return current.values();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                snapshot = load();
+            } catch (Exception e) {
+                // Остаемся на предыдущем снимке, следующий запрос повторит попытку
+                logger.error("Failed to refresh admin statistics", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private Snapshot load() {
+        Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status, 0L);
+        }
+        long totalOrders = 0;
+        List<Object[]> rows = ordersRepository.countGroupedByStatus();
+        for (Object[] row : rows) {
+            long count = ((Number) row[1]).longValue();
+            ordersByStatus.put((OrderStatus) row[0], count);
+            totalOrders += count;
+        }
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        ordersByStatus.forEach((status, count) -> byStatus.put(status.name(), count));
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("totalUsers", accountRepository.count());
+        values.put("totalCustomers", customerRepository.count());
+        values.put("totalPerformers", performerRepository.count());
+        values.put("totalAdministrators", administratorRepository.count());
+        values.put("totalOrders", totalOrders);
+        values.put("activeOrders", ordersByStatus.get(OrderStatus.ACTIVE));
+        values.put("doneOrders", ordersByStatus.get(OrderStatus.DONE));
+        values.put("ordersByStatus", Collections.unmodifiableMap(byStatus));
+        values.put("generatedAt", OffsetDateTime.now());
+        return new Snapshot(Collections.unmodifiableMap(values), System.currentTimeMillis());
+    }
+
+    private record Snapshot(Map<String, Object> values, long loadedAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() - loadedAt > SNAPSHOT_TTL_MILLIS;
+        }
+
+        boolean isTooOld() {
+            return System.currentTimeMillis() - loadedAt > MAX_SNAPSHOT_AGE_MILLIS;
+        }
+    }
+}
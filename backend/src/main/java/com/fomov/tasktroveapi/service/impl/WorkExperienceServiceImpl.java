@@ -1,6 +1,8 @@
 package com.fomov.tasktroveapi.service.impl;
 
+import com.fomov.tasktroveapi.model.ReviewerType;
 import com.fomov.tasktroveapi.model.WorkExperience;
+import com.fomov.tasktroveapi.repository.PerformerRepository;
 import com.fomov.tasktroveapi.repository.WorkExperienceRepository;
 import com.fomov.tasktroveapi.service.WorkExperienceService;
 import org.springframework.stereotype.Service;
@@ -14,9 +16,12 @@ import java.util.Optional;
 public class WorkExperienceServiceImpl implements WorkExperienceService {
 
     private final WorkExperienceRepository repository;
+    private final PerformerRepository performerRepository;
 
-    public WorkExperienceServiceImpl(WorkExperienceRepository repository) {
+    public WorkExperienceServiceImpl(WorkExperienceRepository repository,
+                                     PerformerRepository performerRepository) {
         this.repository = repository;
+        this.performerRepository = performerRepository;
     }
 
     @Override
@@ -33,12 +38,49 @@ public class WorkExperienceServiceImpl implements WorkExperienceService {
 
     @Override
     public WorkExperience save(WorkExperience workExperience) {
-        return repository.save(workExperience);
+        // Вклад предыдущей версии отзыва запоминаем до merge: он перезапишет загруженную сущность
+        RatingContribution previous = workExperience.getId() != null
+                ? repository.findById(workExperience.getId()).map(RatingContribution::of).orElse(null)
+                : null;
+        WorkExperience saved = repository.save(workExperience);
+        RatingContribution current = RatingContribution.of(saved);
+        if (previous != null) {
+            applyRating(previous, -1);
+        }
+        applyRating(current, 1);
+        return saved;
     }
 
     @Override
     public void deleteById(Integer id) {
-        repository.deleteById(id);
+        repository.findById(id).ifPresent(workExperience -> {
+            RatingContribution contribution = RatingContribution.of(workExperience);
+            repository.delete(workExperience);
+            applyRating(contribution, -1);
+        });
+    }
+
+    /**
+     * Обновляет сумму и количество оценок исполнителя в той же транзакции, что и сам отзыв.
+     * В рейтинг исполнителя идут только отзывы заказчиков.
+     */
+    private void applyRating(RatingContribution contribution, int sign) {
+        if (contribution == null) {
+            return;
+        }
+        performerRepository.adjustRating(contribution.performerId(), sign * contribution.rate(), sign);
+    }
+
+    private record RatingContribution(Integer performerId, int rate) {
+        static RatingContribution of(WorkExperience workExperience) {
+            if (workExperience.getReviewerType() != ReviewerType.CUSTOMER
+                    || workExperience.getPerformer() == null
+                    || workExperience.getPerformer().getId() == null) {
+                return null;
+            }
+            int rate = workExperience.getRate() != null ? workExperience.getRate() : 0;
+            return new RatingContribution(workExperience.getPerformer().getId(), rate);
+        }
     }
 
     @Override
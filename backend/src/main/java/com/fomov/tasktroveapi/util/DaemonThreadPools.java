@@ -0,0 +1,50 @@
+package com.fomov.tasktroveapi.util;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пулы фоновых потоков фиксированного размера с ограниченной очередью
+ */
+public final class DaemonThreadPools {
+
+    private DaemonThreadPools() {
+    }
+
+    /**
+     * @param threadNamePrefix потоки называются prefix-1, prefix-2, ...
+     * @param rejectionHandler что делать с задачей, если очередь заполнена или пул остановлен
+     */
+    public static ThreadPoolExecutor newFixedPool(String threadNamePrefix, int threads, int queueCapacity,
+                                                  RejectedExecutionHandler rejectionHandler) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                rejectionHandler);
+    }
+
+    /**
+     * Останавливает пул, давая запущенным задачам завершиться
+     * @return задачи из очереди, которые так и не были запущены
+     */
+    public static List<Runnable> shutdown(ThreadPoolExecutor executor, long timeoutSeconds) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                return List.of();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return executor.shutdownNow();
+    }
+}
@@ -0,0 +1,62 @@
+package com.fomov.tasktroveapi.util;
+
+import org.slf4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Действия, привязанные к завершению текущей транзакции.
+ * Вне транзакции действие выполняется сразу.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Выполняет действие после коммита; при откате транзакции действие отбрасывается
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Как {@link #afterCommit(Runnable)}, но ошибка действия только логируется.
+     * Для обновления индексов из JPA-слушателей: сбой индекса не должен ломать сохранение сущности.
+     */
+    public static void afterCommitSafely(Runnable action, Logger logger, String failureMessage) {
+        afterCommit(() -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                logger.error(failureMessage, e);
+            }
+        });
+    }
+
+    /**
+     * Выполняет действие после завершения транзакции независимо от ее исхода.
+     * Для сброса кэшей, которые могли перечитать до коммита.
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,12 +1,9 @@
 package com.fomov.tasktroveapi.websocket;
 
-import com.fomov.tasktroveapi.model.Account;
-import com.fomov.tasktroveapi.model.Chat;
-import com.fomov.tasktroveapi.model.Message;
-import com.fomov.tasktroveapi.repository.AccountRepository;
 import com.fomov.tasktroveapi.service.ChatAccessService;
-import com.fomov.tasktroveapi.service.ChatService;
-import com.fomov.tasktroveapi.service.MessageService;
+import com.fomov.tasktroveapi.service.ChatUnreadCounterService;
+import com.fomov.tasktroveapi.service.ChatUpdatePushService;
+import com.fomov.tasktroveapi.service.MessageWriteBehindService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -17,29 +14,37 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Controller
 public class ChatWebSocketController {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketController.class);
     
-    private final MessageService messageService;
-    private final ChatService chatService;
     private final ChatAccessService chatAccessService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final AccountRepository accountRepository;
+    private final MessageWriteBehindService writeBehindService;
+    private final ChatUpdatePushService chatUpdatePushService;
+    private final ChatUnreadCounterService unreadCounterService;
+
+    // Временные id сообщений до записи в БД отрицательные, чтобы не пересекаться с настоящими
+    private final AtomicInteger provisionalIds = new AtomicInteger();
 
     public ChatWebSocketController(
-            MessageService messageService, 
-            ChatService chatService,
             ChatAccessService chatAccessService,
             SimpMessagingTemplate messagingTemplate,
-            AccountRepository accountRepository) {
-        this.messageService = messageService;
-        this.chatService = chatService;
+            MessageWriteBehindService writeBehindService,
+            ChatUpdatePushService chatUpdatePushService,
+            ChatUnreadCounterService unreadCounterService) {
         this.chatAccessService = chatAccessService;
         this.messagingTemplate = messagingTemplate;
-        this.accountRepository = accountRepository;
+        this.writeBehindService = writeBehindService;
+        this.chatUpdatePushService = chatUpdatePushService;
+        this.unreadCounterService = unreadCounterService;
     }
 
     @MessageMapping("/chat.sendMessage")
@@ -60,32 +65,30 @@ public class ChatWebSocketController {
             return;
         }
         
-        // Проверяем доступ к чату
+        // Проверяем доступ к чату по закэшированному описанию чата, без обращения к БД
+        ChatAccessService.ChatDescriptor chat = chatAccessService.getDescriptor(chatMessage.getChatId()).orElse(null);
+        if (chat == null) {
+            logger.error("Chat not found: chatId={}", chatMessage.getChatId());
+            return;
+        }
         if (!chatAccessService.hasAccessToChat(chatMessage.getChatId(), userId, userRole)) {
             logger.error("Access denied: userId={} attempted to send message to chatId={}", 
                 userId, chatMessage.getChatId());
             return;
         }
         
-        // Получаем чат
-        Chat chat = chatService.findById(chatMessage.getChatId()).orElse(null);
-        if (chat == null) {
-            logger.error("Chat not found: chatId={}", chatMessage.getChatId());
-            return;
-        }
-        
         // Проверяем, не удален ли чат другим участником
         boolean isChatDeletedByOther = false;
         String deletedByMessage = null;
         if ("Customer".equals(userRole)) {
             // Если заказчик пытается отправить сообщение, проверяем, не удалил ли исполнитель чат
-            if (Boolean.TRUE.equals(chat.getDeletedByPerformer())) {
+            if (chat.deletedByPerformer()) {
                 isChatDeletedByOther = true;
                 deletedByMessage = "Чат был удален исполнителем. Вы не можете отправлять сообщения в этот чат.";
             }
         } else if ("Performer".equals(userRole)) {
             // Если исполнитель пытается отправить сообщение, проверяем, не удалил ли заказчик чат
-            if (Boolean.TRUE.equals(chat.getDeletedByCustomer())) {
+            if (chat.deletedByCustomer()) {
                 isChatDeletedByOther = true;
                 deletedByMessage = "Чат был удален заказчиком. Вы не можете отправлять сообщения в этот чат.";
             }
@@ -113,44 +116,92 @@ public class ChatWebSocketController {
         // Получаем имя отправителя
         String senderName = getSenderName(chat, userId, userRole);
         
-        // Получаем Account для отправителя
-        Account senderAccount = accountRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Account not found for userId: " + userId));
-        
-        // Создаем и сохраняем сообщение
-        Message message = new Message();
-        message.setText(chatMessage.getContent());
-        message.setChat(chat);
-        message.setSender(senderAccount);
-        message.setSenderType(userRole);
-        message.setCreated(OffsetDateTime.now());
-        
-        Message savedMessage = messageService.save(message);
-        
-        // Помечаем чат как непрочитанный для получателя
-        if ("Customer".equals(userRole)) {
-            chat.setCheckByCustomer(true); // Отправитель прочитал (отправил сообщение)
-            chat.setCheckByPerformer(false); // Получатель не прочитал
-        } else if ("Performer".equals(userRole)) {
-            chat.setCheckByPerformer(true); // Отправитель прочитал (отправил сообщение)
-            chat.setCheckByCustomer(false); // Получатель не прочитал
+        // Сообщение непрочитано для всех участников чата, кроме отправителя
+        List<Integer> recipientAccountIds = new ArrayList<>(2);
+        Integer customerAccountId = chat.customerAccountId();
+        Integer performerAccountId = chat.performerAccountId();
+        if (customerAccountId != null && !customerAccountId.equals(userId)) {
+            recipientAccountIds.add(customerAccountId);
         }
-        chatService.save(chat);
+        if (performerAccountId != null && !performerAccountId.equals(userId)) {
+            recipientAccountIds.add(performerAccountId);
+        }
+        
+        // Рассылаем сообщение сразу с временным id и временем, запись в БД выполняется пакетно в фоне.
+        // После записи участники получают ACK с настоящим id и временем сообщения.
+        Integer chatId = chat.chatId();
+        int provisionalId = provisionalIds.decrementAndGet();
         
-        // Обновляем chatMessage с реальными данными
         chatMessage.setSenderId(userId);
         chatMessage.setSenderType(userRole);
         chatMessage.setSender(senderName);
         chatMessage.setType(ChatMessage.MessageType.CHAT);
-        chatMessage.setMessageId(savedMessage.getId());
-        chatMessage.setCreatedAt(savedMessage.getCreated());
+        chatMessage.setProvisionalId(provisionalId);
+        chatMessage.setMessageId(null);
+        chatMessage.setCreatedAt(OffsetDateTime.now());
         
         // Отправляем сообщение только участникам чата
-        String destination = "/topic/chat." + chatMessage.getChatId();
+        String destination = "/topic/chat." + chatId;
         messagingTemplate.convertAndSend(destination, chatMessage);
         
-        logger.info("Message sent: userId={}, chatId={}, messageId={}", 
-            userId, chatMessage.getChatId(), savedMessage.getId());
+        MessageWriteBehindService.PendingMessage pending = new MessageWriteBehindService.PendingMessage(
+                chatId, userId, userRole, chatMessage.getContent(), recipientAccountIds);
+        boolean accepted = writeBehindService.enqueue(pending, new MessageWriteBehindService.WriteCallback() {
+            @Override
+            public void onStored(Integer messageId, OffsetDateTime storedAt) {
+                ChatMessage ack = new ChatMessage();
+                ack.setChatId(chatId);
+                ack.setType(ChatMessage.MessageType.ACK);
+                ack.setProvisionalId(provisionalId);
+                ack.setMessageId(messageId);
+                ack.setCreatedAt(storedAt);
+                ack.setSenderId(userId);
+                ack.setSenderType(userRole);
+                messagingTemplate.convertAndSend(destination, ack);
+                // Получатели обновляют список чатов и счетчики без перезапроса списка.
+                // Счетчики берутся только из памяти: колбэк выполняется в потоке записи сообщений
+                Map<Integer, Integer> unreadCounts = new LinkedHashMap<>();
+                for (Integer recipientAccountId : recipientAccountIds) {
+                    unreadCounts.put(recipientAccountId,
+                            unreadCounterService.findCachedUnreadCount(chatId, recipientAccountId));
+                }
+                chatUpdatePushService.messageStored(chatId, messageId, storedAt, pending.text(), unreadCounts);
+                logger.info("Message sent: userId={}, chatId={}, messageId={}", userId, chatId, messageId);
+            }
+
+            @Override
+            public void onFailed(Exception error) {
+                reportSendFailure(chatId, userId, userRole, provisionalId,
+                        "Не удалось сохранить сообщение. Попробуйте отправить его еще раз.");
+            }
+        });
+        if (!accepted) {
+            logger.warn("Message queue is full, rejected message from userId={} to chatId={}", userId, chatId);
+            reportSendFailure(chatId, userId, userRole, provisionalId,
+                    "Сервер перегружен. Попробуйте отправить сообщение еще раз.");
+        }
+    }
+
+    /**
+     * Сообщает отправителю об ошибке записи, а участникам чата - что временное сообщение нужно убрать
+     */
+    private void reportSendFailure(Integer chatId, Integer userId, String userRole, int provisionalId, String text) {
+        ChatMessage failed = new ChatMessage();
+        failed.setChatId(chatId);
+        failed.setType(ChatMessage.MessageType.FAILED);
+        failed.setProvisionalId(provisionalId);
+        failed.setSenderId(userId);
+        failed.setSenderType(userRole);
+        messagingTemplate.convertAndSend("/topic/chat." + chatId, failed);
+        
+        ChatMessage errorMessage = new ChatMessage();
+        errorMessage.setChatId(chatId);
+        errorMessage.setType(ChatMessage.MessageType.ERROR);
+        errorMessage.setContent(text);
+        errorMessage.setProvisionalId(provisionalId);
+        errorMessage.setSenderId(userId);
+        errorMessage.setSenderType(userRole);
+        messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/errors", errorMessage);
     }
 
     @MessageMapping("/chat.addUser")
@@ -198,19 +249,9 @@ public class ChatWebSocketController {
     /**
      * Получает имя отправителя из чата по userId и роли
      */
-    private String getSenderName(Chat chat, Integer userId, String userRole) {
-        if ("Customer".equals(userRole) && chat.getCustomer() != null) {
-            if (chat.getCustomer().getAccount() != null && 
-                chat.getCustomer().getAccount().getId().equals(userId)) {
-                return chat.getCustomer().getFullName();
-            }
-        } else if ("Performer".equals(userRole) && chat.getPerformer() != null) {
-            if (chat.getPerformer().getAccount() != null && 
-                chat.getPerformer().getAccount().getId().equals(userId)) {
-                return chat.getPerformer().getFullName();
-            }
-        }
-        return "Пользователь";
+    private String getSenderName(ChatAccessService.ChatDescriptor chat, Integer userId, String userRole) {
+        String name = chat.participantName(userId, userRole);
+        return name != null ? name : "Пользователь";
     }
 
     public static class ChatMessage {
@@ -222,10 +263,11 @@ public class ChatWebSocketController {
         private String senderType;
         private MessageType type;
         private Integer messageId;
+        private Integer provisionalId;
         private OffsetDateTime createdAt;
 
         public enum MessageType {
-            CHAT, JOIN, LEAVE, ERROR
+            CHAT, JOIN, LEAVE, ERROR, ACK, FAILED
         }
 
         public String getContent() {
@@ -292,6 +334,14 @@ public class ChatWebSocketController {
             this.messageId = messageId;
         }
 
+        public Integer getProvisionalId() {
+            return provisionalId;
+        }
+
+        public void setProvisionalId(Integer provisionalId) {
+            this.provisionalId = provisionalId;
+        }
+
         public OffsetDateTime getCreatedAt() {
             return createdAt;
         }
@@ -0,0 +1,306 @@
+package com.fomov.tasktroveapi.service.impl;
+
+import com.fomov.tasktroveapi.model.MailOutbox;
+import com.fomov.tasktroveapi.model.MailOutboxStatus;
+import com.fomov.tasktroveapi.repository.MailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Очередь писем против локального SMTP-сервера: отправка, отказ сервера, повтор и перевод в DEAD.
+ * Таблица mail_outbox заменена хранилищем в памяти с той же семантикой захвата.
+ */
+class MailQueueServiceImplTest {
+
+    private static final long WAIT_MILLIS = 10_000;
+
+    private FakeSmtpServer smtpServer;
+    private Map<Integer, MailOutbox> outbox;
+    private MailQueueServiceImpl mailQueueService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtpServer = new FakeSmtpServer();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtpServer.getPort());
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "5000");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "5000");
+        EmailServiceImpl emailService = new EmailServiceImpl(mailSender);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@tasktrove.test");
+
+        outbox = new ConcurrentHashMap<>();
+        mailQueueService = new MailQueueServiceImpl(inMemoryRepository(outbox), emailService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailQueueService.shutdown();
+        smtpServer.close();
+    }
+
+    @Test
+    void enqueuedMailIsDeliveredAndMarkedSent() throws InterruptedException {
+        mailQueueService.enqueue("performer@tasktrove.test", "Order approved", "Body", null);
+
+        MailOutbox mail = awaitMail(m -> m.getStatus() == MailOutboxStatus.SENT);
+        assertThat(mail.getAttempts()).isEqualTo(1);
+        assertThat(mail.getLastError()).isNull();
+        assertThat(smtpServer.getMessages()).hasSize(1);
+        assertThat(smtpServer.getMessages().get(0))
+                .contains("Subject: Order approved")
+                .contains("performer@tasktrove.test");
+    }
+
+    @Test
+    void rejectedMailIsRescheduledAndSentOnRetry() throws InterruptedException {
+        smtpServer.setRejecting(true);
+        OffsetDateTime enqueuedAt = OffsetDateTime.now();
+        mailQueueService.enqueue("customer@tasktrove.test", "Order completed", "Body", null);
+
+        MailOutbox failed = awaitMail(m -> m.getStatus() == MailOutboxStatus.PENDING && m.getAttempts() == 1);
+        assertThat(failed.getLastError()).isNotBlank();
+        assertThat(failed.getNextAttemptAt()).isAfter(enqueuedAt.plusSeconds(25));
+        assertThat(smtpServer.getMessages()).isEmpty();
+
+        // Время повтора наступило, сервер снова принимает письма
+        smtpServer.setRejecting(false);
+        synchronized (failed) {
+            failed.setNextAttemptAt(OffsetDateTime.now().minusSeconds(1));
+        }
+        mailQueueService.dispatchDueMail();
+
+        MailOutbox sent = awaitMail(m -> m.getStatus() == MailOutboxStatus.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        assertThat(sent.getLastError()).isNull();
+        assertThat(smtpServer.getMessages()).hasSize(1);
+    }
+
+    @Test
+    void mailIsMovedToDeadLettersAfterLastAttempt() throws InterruptedException {
+        smtpServer.setRejecting(true);
+        mailQueueService.enqueue("customer@tasktrove.test", "Order completed", "Body", null);
+        MailOutbox mail = awaitMail(m -> m.getStatus() == MailOutboxStatus.PENDING && m.getAttempts() == 1);
+
+        // Предыдущие попытки уже исчерпаны, осталась последняя
+        synchronized (mail) {
+            mail.setAttempts(5);
+            mail.setNextAttemptAt(OffsetDateTime.now().minusSeconds(1));
+        }
+        mailQueueService.dispatchDueMail();
+
+        MailOutbox dead = awaitMail(m -> m.getStatus() == MailOutboxStatus.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(6);
+        assertThat(dead.getLastError()).isNotBlank();
+
+        // Письма в DEAD планировщиком больше не берутся
+        smtpServer.setRejecting(false);
+        mailQueueService.dispatchDueMail();
+        assertThat(dead.getStatus()).isEqualTo(MailOutboxStatus.DEAD);
+        assertThat(smtpServer.getMessages()).isEmpty();
+    }
+
+    private MailOutbox awaitMail(Predicate<MailOutbox> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            for (MailOutbox mail : outbox.values()) {
+                synchronized (mail) {
+                    if (condition.test(mail)) {
+                        return mail;
+                    }
+                }
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Mail did not reach the expected state: " + outbox.values());
+    }
+
+    /**
+     * Репозиторий mail_outbox в памяти: условные UPDATE выполняются атомарно под монитором письма
+     */
+    private static MailOutboxRepository inMemoryRepository(Map<Integer, MailOutbox> outbox) {
+        AtomicInteger ids = new AtomicInteger();
+        MailOutboxRepository repository = mock(MailOutboxRepository.class);
+
+        when(repository.save(any(MailOutbox.class))).thenAnswer(invocation -> {
+            MailOutbox mail = invocation.getArgument(0);
+            mail.setId(ids.incrementAndGet());
+            mail.setCreatedAt(OffsetDateTime.now());
+            mail.setNextAttemptAt(mail.getCreatedAt());
+            outbox.put(mail.getId(), mail);
+            return mail;
+        });
+        when(repository.findById(anyInt())).thenAnswer(invocation ->
+                Optional.ofNullable(outbox.get(invocation.<Integer>getArgument(0))));
+        when(repository.findDueIds(any(OffsetDateTime.class), any(Pageable.class))).thenAnswer(invocation -> {
+            OffsetDateTime now = invocation.getArgument(0);
+            return outbox.values().stream()
+                    .filter(mail -> mail.getStatus() == MailOutboxStatus.PENDING && !mail.getNextAttemptAt().isAfter(now))
+                    .map(MailOutbox::getId)
+                    .toList();
+        });
+        when(repository.releaseStuck(any(OffsetDateTime.class))).thenReturn(0);
+        when(repository.claim(anyInt(), any(OffsetDateTime.class))).thenAnswer(invocation ->
+                update(outbox, invocation.getArgument(0), mail -> {
+                    if (mail.getStatus() != MailOutboxStatus.PENDING) {
+                        return false;
+                    }
+                    mail.setStatus(MailOutboxStatus.SENDING);
+                    mail.setNextAttemptAt(invocation.getArgument(1));
+                    return true;
+                }));
+        when(repository.markSent(anyInt(), any(OffsetDateTime.class))).thenAnswer(invocation ->
+                update(outbox, invocation.getArgument(0), mail -> {
+                    mail.setStatus(MailOutboxStatus.SENT);
+                    mail.setSentAt(invocation.getArgument(1));
+                    mail.setAttempts(mail.getAttempts() + 1);
+                    mail.setLastError(null);
+                    return true;
+                }));
+        when(repository.scheduleRetry(anyInt(), any(OffsetDateTime.class), anyString())).thenAnswer(invocation ->
+                update(outbox, invocation.getArgument(0), mail -> {
+                    mail.setStatus(MailOutboxStatus.PENDING);
+                    mail.setAttempts(mail.getAttempts() + 1);
+                    mail.setNextAttemptAt(invocation.getArgument(1));
+                    mail.setLastError(invocation.getArgument(2));
+                    return true;
+                }));
+        when(repository.markDead(anyInt(), anyString())).thenAnswer(invocation ->
+                update(outbox, invocation.getArgument(0), mail -> {
+                    mail.setStatus(MailOutboxStatus.DEAD);
+                    mail.setAttempts(mail.getAttempts() + 1);
+                    mail.setLastError(invocation.getArgument(1));
+                    return true;
+                }));
+        return repository;
+    }
+
+    private static int update(Map<Integer, MailOutbox> outbox, Integer id, Predicate<MailOutbox> change) {
+        MailOutbox mail = outbox.get(id);
+        if (mail == null) {
+            return 0;
+        }
+        synchronized (mail) {
+            return change.test(mail) ? 1 : 0;
+        }
+    }
+
+    /**
+     * Минимальный SMTP-сервер: принимает письма или отвечает временной ошибкой 451 на MAIL FROM
+     */
+    private static class FakeSmtpServer {
+
+        private final ServerSocket serverSocket;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean rejecting = new AtomicBoolean(false);
+        private final Thread acceptor;
+
+        FakeSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            acceptor = new Thread(this::acceptLoop, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        List<String> getMessages() {
+            return messages;
+        }
+
+        void setRejecting(boolean rejecting) {
+            this.rejecting.set(rejecting);
+        }
+
+        void close() {
+            try {
+                serverSocket.close();
+            } catch (IOException ignored) {
+                // сервер уже остановлен
+            }
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    handle(socket);
+                } catch (SocketException e) {
+                    return;
+                } catch (IOException e) {
+                    // обрыв соединения клиентом - ждем следующее
+                }
+            }
+        }
+
+        private void handle(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            reply(out, "220 localhost ESMTP fake");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(out, "250 localhost");
+                } else if (command.startsWith("MAIL FROM")) {
+                    reply(out, rejecting.get() ? "451 4.3.0 Try again later" : "250 OK");
+                } else if (command.startsWith("RCPT TO")) {
+                    reply(out, "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        data.append(line).append('\n');
+                    }
+                    messages.add(data.toString());
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    // RSET, NOOP и прочее
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private static void reply(PrintWriter out, String response) {
+            out.print(response + "\r\n");
+            out.flush();
+        }
+    }
+}
@@ -5,8 +5,9 @@ import { LogOut, Home, Briefcase, MessageSquare, User, Bell, Check, Settings, Us
 import { toast } from 'react-hot-toast';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { notificationApi } from '../services/api';
+import { notificationSocket, type NotificationEvent } from '../services/notificationSocket';
 import { useState, useRef, useEffect } from 'react';
-import type { Notification } from '../types';
+import type { Chat, ChatUpdate, Notification } from '../types';
 import SettingsModal from './SettingsModal';
 
 interface LayoutProps {
@@ -23,12 +24,11 @@ export default function Layout({ children }: LayoutProps) {
   const [isSettingsOpen, setIsSettingsOpen] = useState(false);
   const dropdownRef = useRef<HTMLDivElement>(null);
 
-  // Запрос для счетчика непрочитанных (работает всегда)
+  // Запрос для счетчика непрочитанных; дальше счетчик обновляется через WebSocket
   const { data: countData } = useQuery({
     queryKey: ['notifications', 'count'],
     queryFn: () => notificationApi.getUnreadCount().then((res) => res.data),
     enabled: isAuthenticated,
-    refetchInterval: 1000, // Обновляем каждую секунду
   });
 
   // Запрос для полного списка уведомлений (только когда dropdown открыт)
@@ -36,9 +36,101 @@ export default function Layout({ children }: LayoutProps) {
     queryKey: ['notifications'],
     queryFn: () => notificationApi.getAll().then((res) => res.data),
     enabled: isAuthenticated && isNotificationsOpen,
-    refetchInterval: isNotificationsOpen ? 1000 : false,
   });
 
+  // Новые уведомления приходят из персональной очереди и добавляются в кэш запросов
+  useEffect(() => {
+    if (!isAuthenticated) {
+      return;
+    }
+
+    type NotificationsData = { notifications: Notification[]; unreadCount: number };
+
+    const mergeNotifications = (incoming: Notification[], unread: number) => {
+      queryClient.setQueryData(['notifications', 'count'], { count: unread });
+      queryClient.setQueryData<NotificationsData>(['notifications'], (old) => {
+        if (!old) {
+          return old;
+        }
+        const incomingIds = new Set(incoming.map((n) => n.id));
+        const fresh = [...incoming].sort((a, b) => b.id - a.id);
+        return {
+          notifications: [...fresh, ...old.notifications.filter((n) => !incomingIds.has(n.id))],
+          unreadCount: unread,
+        };
+      });
+    };
+
+    const unsubscribeNotification = notificationSocket.onNotification((event: NotificationEvent) => {
+      if (event.notification) {
+        mergeNotifications([event.notification], event.unreadCount);
+      } else {
+        // Изменился только счетчик (прочитано/удалено в другой вкладке)
+        queryClient.setQueryData(['notifications', 'count'], { count: event.unreadCount });
+        queryClient.invalidateQueries({ queryKey: ['notifications'], exact: true });
+      }
+    });
+
+    // Новое сообщение в чате: обновляем строку списка чатов и счетчик без перезапроса списка
+    const chatsQueryKey = user?.role === 'Customer' ? 'customerChats' : 'performerChats';
+    const unsubscribeChatUpdate = notificationSocket.onChatUpdate((update: ChatUpdate) => {
+      const cached = queryClient.getQueryData<Chat[]>([chatsQueryKey]);
+      if (!cached) {
+        return;
+      }
+      if (!cached.some((chat) => chat.id === update.chatId) || update.unreadCount == null) {
+        // Новый или восстановленный чат, или счетчик неизвестен - загружаем список целиком
+        queryClient.invalidateQueries({ queryKey: [chatsQueryKey] });
+        return;
+      }
+      const unreadCount = update.unreadCount;
+      const lastMessageId = update.lastMessageId;
+      if (lastMessageId == null) {
+        // Чат прочитан в другой вкладке
+        queryClient.setQueryData<Chat[]>([chatsQueryKey], (old) => old?.map((chat) =>
+          chat.id === update.chatId ? { ...chat, unreadCount } : chat
+        ));
+        return;
+      }
+      queryClient.setQueryData<Chat[]>([chatsQueryKey], (old) => old?.map((chat) =>
+        chat.id === update.chatId && (chat.lastMessageId ?? 0) <= lastMessageId
+          ? {
+              ...chat,
+              lastMessageId,
+              lastMessageTime: update.lastMessageTime,
+              lastMessagePreview: update.lastMessagePreview,
+              unreadCount,
+            }
+          : chat
+      ));
+    });
+
+    // При переподключении догружаем уведомления, пропущенные пока соединения не было
+    const unsubscribeConnect = notificationSocket.onConnect(() => {
+      // Изменения списка чатов за время разрыва соединения не приходят - перезапрашиваем его
+      queryClient.invalidateQueries({ queryKey: [chatsQueryKey] });
+      const cached = queryClient.getQueryData<NotificationsData>(['notifications']);
+      if (!cached || cached.notifications.length === 0) {
+        queryClient.invalidateQueries({ queryKey: ['notifications'] });
+        return;
+      }
+      const lastId = Math.max(...cached.notifications.map((n) => n.id));
+      notificationApi
+        .getSince(lastId)
+        .then((res) => mergeNotifications(res.data.notifications, res.data.unreadCount))
+        .catch(() => queryClient.invalidateQueries({ queryKey: ['notifications'] }));
+    });
+
+    notificationSocket.connect();
+
+    return () => {
+      unsubscribeNotification();
+      unsubscribeChatUpdate();
+      unsubscribeConnect();
+      notificationSocket.disconnect();
+    };
+  }, [isAuthenticated, user?.role, queryClient]);
+
   const notifications = notificationsData?.notifications || [];
   const unreadCount = countData?.count || 0;
 
@@ -104,6 +196,8 @@ export default function Layout({ children }: LayoutProps) {
         return '✏️';
       case 'REFUSED':
         return '❌';
+      case 'SAVED_SEARCH_MATCH':
+        return '🔍';
       default:
         return '🔔';
     }
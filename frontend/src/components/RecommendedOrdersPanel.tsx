@@ -0,0 +1,44 @@
+import { useQuery } from '@tanstack/react-query';
+import { useNavigate } from 'react-router-dom';
+import { Sparkles } from 'lucide-react';
+import { performerApi } from '../services/api';
+
+const RECOMMENDED_LIMIT = 5;
+
+// Заказы, подобранные сервером по специализациям и опыту из портфолио исполнителя
+export default function RecommendedOrdersPanel() {
+  const navigate = useNavigate();
+
+  const { data: orders = [] } = useQuery({
+    queryKey: ['performerRecommendedOrders'],
+    queryFn: () => performerApi.getRecommendedOrders(RECOMMENDED_LIMIT).then((res) => res.data.orders),
+    staleTime: 60 * 1000,
+  });
+
+  if (orders.length === 0) {
+    return null;
+  }
+
+  return (
+    <div className="border border-primary-200 dark:border-slate-700 rounded-lg p-4">
+      <h3 className="flex items-center text-sm font-medium text-gray-700 dark:text-slate-300 mb-2">
+        <Sparkles className="w-4 h-4 mr-2" />
+        Рекомендуем по вашему портфолио
+      </h3>
+      <ul className="space-y-1">
+        {orders.map((order) => (
+          <li key={order.id}>
+            <button
+              type="button"
+              onClick={() => navigate(`/performer/orders/${order.id}`)}
+              className="text-sm text-primary-600 hover:underline text-left"
+            >
+              {order.title}
+              {order.stackS && <span className="text-gray-500 dark:text-slate-400"> • {order.stackS}</span>}
+            </button>
+          </li>
+        ))}
+      </ul>
+    </div>
+  );
+}
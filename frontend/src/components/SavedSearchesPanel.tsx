@@ -0,0 +1,164 @@
+import { useState } from 'react';
+import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
+import { Bookmark, Trash2, Loader2 } from 'lucide-react';
+import { performerApi } from '../services/api';
+import type { SavedSearch } from '../types';
+import { showErrorToast, showSuccessToast } from '../utils/errorHandler';
+
+interface SavedSearchesPanelProps {
+  // Текущая строка поиска ленты подставляется в ключевые слова нового поиска
+  currentSearchTerm?: string;
+}
+
+const describeSearch = (search: SavedSearch) => {
+  const parts = [];
+  if (search.keywords) parts.push(search.keywords);
+  if (search.techStack) parts.push(search.techStack);
+  if (search.budgetMin != null || search.budgetMax != null) {
+    parts.push(`бюджет ${search.budgetMin ?? 0} – ${search.budgetMax ?? '∞'}`);
+  }
+  return parts.join(' • ');
+};
+
+// Сохраненные поиски исполнителя: вместо постоянного обновления ленты
+// сервер присылает уведомление, когда публикуется подходящий заказ
+export default function SavedSearchesPanel({ currentSearchTerm }: SavedSearchesPanelProps) {
+  const queryClient = useQueryClient();
+  const [isOpen, setIsOpen] = useState(false);
+  const [form, setForm] = useState<{ keywords: string; techStack: string; budgetMin: string; budgetMax: string }>({
+    keywords: '',
+    techStack: '',
+    budgetMin: '',
+    budgetMax: '',
+  });
+
+  const { data: savedSearches = [] } = useQuery({
+    queryKey: ['performerSavedSearches'],
+    queryFn: () => performerApi.getSavedSearches().then((res) => res.data.savedSearches),
+    enabled: isOpen,
+  });
+
+  const createMutation = useMutation({
+    mutationFn: (data: SavedSearch) => performerApi.createSavedSearch(data),
+    onSuccess: () => {
+      queryClient.invalidateQueries({ queryKey: ['performerSavedSearches'] });
+      setForm({ keywords: '', techStack: '', budgetMin: '', budgetMax: '' });
+      showSuccessToast('Поиск сохранен');
+    },
+    onError: (error) => {
+      showErrorToast(error);
+    },
+  });
+
+  const deleteMutation = useMutation({
+    mutationFn: (id: number) => performerApi.deleteSavedSearch(id),
+    onSuccess: () => {
+      queryClient.invalidateQueries({ queryKey: ['performerSavedSearches'] });
+    },
+    onError: (error) => {
+      showErrorToast(error);
+    },
+  });
+
+  const handleOpen = () => {
+    if (!isOpen && currentSearchTerm && !form.keywords) {
+      setForm((current) => ({ ...current, keywords: currentSearchTerm }));
+    }
+    setIsOpen(!isOpen);
+  };
+
+  const handleSubmit = (e: React.FormEvent) => {
+    e.preventDefault();
+    createMutation.mutate({
+      keywords: form.keywords.trim() || undefined,
+      techStack: form.techStack.trim() || undefined,
+      budgetMin: form.budgetMin ? Number(form.budgetMin) : undefined,
+      budgetMax: form.budgetMax ? Number(form.budgetMax) : undefined,
+    });
+  };
+
+  const canSubmit = (form.keywords.trim() || form.techStack.trim()) && !createMutation.isPending;
+
+  return (
+    <div className="border border-gray-200 dark:border-slate-700 rounded-lg">
+      <button
+        type="button"
+        onClick={handleOpen}
+        className="w-full flex items-center justify-between px-4 py-2 text-sm font-medium text-gray-700 dark:text-slate-300"
+      >
+        <span className="flex items-center">
+          <Bookmark className="w-4 h-4 mr-2" />
+          Сохраненные поиски
+        </span>
+        <span className="text-gray-400">{isOpen ? '▲' : '▼'}</span>
+      </button>
+
+      {isOpen && (
+        <div className="px-4 pb-4 space-y-3">
+          <form onSubmit={handleSubmit} className="grid grid-cols-1 sm:grid-cols-5 gap-2">
+            <input
+              type="text"
+              placeholder="Ключевые слова"
+              value={form.keywords}
+              onChange={(e) => setForm({ ...form, keywords: e.target.value })}
+              className="input sm:col-span-2"
+              maxLength={255}
+            />
+            <input
+              type="text"
+              placeholder="Технологии"
+              value={form.techStack}
+              onChange={(e) => setForm({ ...form, techStack: e.target.value })}
+              className="input"
+              maxLength={255}
+            />
+            <div className="flex gap-2">
+              <input
+                type="number"
+                min={0}
+                placeholder="Бюджет от"
+                value={form.budgetMin}
+                onChange={(e) => setForm({ ...form, budgetMin: e.target.value })}
+                className="input"
+              />
+              <input
+                type="number"
+                min={0}
+                placeholder="до"
+                value={form.budgetMax}
+                onChange={(e) => setForm({ ...form, budgetMax: e.target.value })}
+                className="input"
+              />
+            </div>
+            <button type="submit" disabled={!canSubmit} className="btn btn-primary flex items-center justify-center">
+              {createMutation.isPending && <Loader2 className="w-4 h-4 mr-2 animate-spin" />}
+              Сохранить
+            </button>
+          </form>
+
+          {savedSearches.length > 0 ? (
+            <ul className="divide-y divide-gray-200 dark:divide-slate-700">
+              {savedSearches.map((search) => (
+                <li key={search.id} className="flex items-center justify-between py-2 text-sm">
+                  <span className="text-gray-700 dark:text-slate-300">{search.name || describeSearch(search)}</span>
+                  <button
+                    type="button"
+                    onClick={() => search.id && deleteMutation.mutate(search.id)}
+                    className="text-red-600 hover:text-red-800"
+                    title="Удалить"
+                  >
+                    <Trash2 className="w-4 h-4" />
+                  </button>
+                </li>
+              ))}
+            </ul>
+          ) : (
+            <p className="text-sm text-gray-500 dark:text-slate-400">
+              Сохраните поиск, чтобы получать уведомления о новых подходящих заказах
+            </p>
+          )}
+        </div>
+      )}
+    </div>
+  );
+}
@@ -1,4 +1,4 @@
-import { useEffect, useState, useRef } from 'react';
+import { useEffect, useState, useRef, useCallback } from 'react';
 import { useParams } from 'react-router-dom';
 import { useTranslation } from 'react-i18next';
 import { useQuery, useQueryClient } from '@tanstack/react-query';
@@ -9,7 +9,38 @@ import { useNavigate } from 'react-router-dom';
 import { format } from 'date-fns';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
-import type { Message } from '../types';
+import type { Message, MessagePageParams } from '../types';
+
+// Интервал догрузки новых сообщений: запрашиваются только сообщения после последнего известного
+const POLL_INTERVAL_MS = 1000;
+
+// Сколько показывается ошибка отправки сообщения
+const SEND_ERROR_TIMEOUT_MS = 5000;
+
+// Отправленное сообщение до записи на сервере имеет временный отрицательный id
+const isProvisional = (message: Message) => message.id < 0;
+
+// Объединяет сообщения без дубликатов и сортирует их по времени отправки
+function mergeMessages(current: Message[], incoming: Message[]): Message[] {
+  if (incoming.length === 0) return current;
+  const byId = new Map<number, Message>();
+  current.forEach((m) => byId.set(m.id, m));
+  incoming.forEach((m) => {
+    // Временное сообщение заменяется сохраненной копией, если она пришла раньше подтверждения.
+    // Каждая новая копия заменяет не больше одного, самого раннего временного сообщения,
+    // поэтому одинаковые сообщения, отправленные подряд, не склеиваются
+    if (!isProvisional(m) && !byId.has(m.id)) {
+      const provisional = Array.from(byId.values()).find((p) =>
+        isProvisional(p) && p.authorUserId === m.authorUserId && p.content === m.content);
+      if (provisional) byId.delete(provisional.id);
+    }
+    byId.set(m.id, m);
+  });
+  return Array.from(byId.values()).sort((a, b) => {
+    const diff = new Date(a.sentAt || 0).getTime() - new Date(b.sentAt || 0).getTime();
+    return diff !== 0 ? diff : a.id - b.id;
+  });
+}
 
 export default function ChatPage() {
   const { t } = useTranslation();
@@ -21,8 +52,14 @@ export default function ChatPage() {
   const [newMessage, setNewMessage] = useState('');
   const [isConnected, setIsConnected] = useState(false);
   const [chatDeletedMessage, setChatDeletedMessage] = useState<string | null>(null);
+  const [sendError, setSendError] = useState<string | null>(null);
+  const [hasOlder, setHasOlder] = useState(false);
+  const [isLoadingOlder, setIsLoadingOlder] = useState(false);
   const messagesEndRef = useRef<HTMLDivElement>(null);
   const stompClientRef = useRef<Client | null>(null);
+  // Id последнего сообщения, полученного с сервера, - курсор для догрузки новых сообщений
+  const newestServerIdRef = useRef<number | null>(null);
+  const lastRenderedIdRef = useRef<number | null>(null);
 
   const isCustomer = user?.role === 'Customer';
   const isPerformer = user?.role === 'Performer';
@@ -51,21 +88,34 @@ export default function ChatPage() {
     },
   });
 
-  const { data: initialMessages } = useQuery({
-    queryKey: ['chatMessages', chatId],
-    queryFn: () => {
+  const fetchMessagePage = useCallback(
+    (cursor?: MessagePageParams) => {
       if (isCustomer) {
-        return customerApi.getMessages(Number(chatId)).then((res) => res.data.messages);
+        return customerApi.getMessages(Number(chatId), cursor).then((res) => res.data);
       } else if (isPerformer) {
-        return performerApi.getMessages(Number(chatId)).then((res) => res.data.messages);
+        return performerApi.getMessages(Number(chatId), cursor).then((res) => res.data);
       }
-      return Promise.resolve([]);
+      return Promise.resolve({ messages: [] as Message[], hasMore: false });
     },
+    [chatId, isCustomer, isPerformer]
+  );
+
+  const rememberNewest = (page: Message[]) => {
+    page.forEach((m) => {
+      if (newestServerIdRef.current === null || m.id > newestServerIdRef.current) {
+        newestServerIdRef.current = m.id;
+      }
+    });
+  };
+
+  // Первая загрузка - только последняя страница истории, более старые сообщения подгружаются по запросу
+  const { data: initialPage } = useQuery({
+    queryKey: ['chatMessages', chatId],
+    queryFn: () => fetchMessagePage(),
     enabled: !!chatId && (isCustomer || isPerformer),
     refetchOnMount: true, // Всегда загружаем при монтировании (открытии чата)
     refetchOnWindowFocus: true, // Обновляем при возврате на вкладку
-    refetchInterval: 1000, // Автоматическое обновление каждую секунду для синхронизации
-    // При каждом запросе getChatMessages бэкенд автоматически обновляет lastCheckedTime,
+    // При запросе последних сообщений бэкенд автоматически обновляет lastCheckedTime,
     // что помечает все сообщения как прочитанные и обновляет счетчик непрочитанных
     onSuccess: () => {
       // Сразу обновляем список чатов после успешной загрузки сообщений
@@ -130,17 +180,79 @@ export default function ChatPage() {
   useEffect(() => {
     // Очищаем сообщения при смене чата
     setMessages([]);
+    setHasOlder(false);
+    newestServerIdRef.current = null;
+    lastRenderedIdRef.current = null;
   }, [chatId]);
 
   useEffect(() => {
-    if (initialMessages) {
+    if (initialPage) {
       // Фильтруем сообщения по chatId для безопасности
-      const filteredMessages = initialMessages.filter(m => 
+      const filteredMessages = initialPage.messages.filter(m => 
         !m.chatId || m.chatId === Number(chatId)
       );
-      setMessages(filteredMessages);
+      const isFirstPage = newestServerIdRef.current === null;
+      rememberNewest(filteredMessages);
+      setMessages((prev) => mergeMessages(prev, filteredMessages));
+      if (isFirstPage) {
+        setHasOlder(initialPage.hasMore);
+      }
     }
-  }, [initialMessages, chatId]);
+  }, [initialPage, chatId]);
+
+  // Догрузка новых сообщений: сервер возвращает только сообщения после курсора
+  useEffect(() => {
+    if (!chatId || !(isCustomer || isPerformer)) return;
+
+    let cancelled = false;
+    const timer = setInterval(() => {
+      if (newestServerIdRef.current === null) return;
+      fetchMessagePage({ afterId: newestServerIdRef.current })
+        .then((page) => {
+          if (cancelled || page.messages.length === 0) return;
+          rememberNewest(page.messages);
+          setMessages((prev) => mergeMessages(prev, page.messages));
+          // Обновляем список чатов только при появлении новых сообщений
+          if (isCustomer) {
+            queryClient.invalidateQueries({ queryKey: ['customerChats'] });
+          } else if (isPerformer) {
+            queryClient.invalidateQueries({ queryKey: ['performerChats'] });
+          }
+        })
+        .catch((error) => {
+          // Сообщение-курсор удалено - начинаем заново с последней страницы
+          if (error?.response?.status === 400) {
+            return fetchMessagePage().then((page) => {
+              if (cancelled) return;
+              newestServerIdRef.current = null;
+              rememberNewest(page.messages);
+              setMessages((prev) => mergeMessages(prev, page.messages));
+            });
+          }
+          console.error('Error polling messages:', error);
+        });
+    }, POLL_INTERVAL_MS);
+
+    return () => {
+      cancelled = true;
+      clearInterval(timer);
+    };
+  }, [chatId, isCustomer, isPerformer, fetchMessagePage, queryClient]);
+
+  const handleLoadOlder = () => {
+    const oldest = messages.find((m) => !isProvisional(m) && newestServerIdRef.current !== null && m.id <= newestServerIdRef.current);
+    if (!oldest || isLoadingOlder) return;
+    setIsLoadingOlder(true);
+    fetchMessagePage({ beforeId: oldest.id })
+      .then((page) => {
+        setMessages((prev) => mergeMessages(prev, page.messages));
+        setHasOlder(page.hasMore);
+      })
+      .catch((error) => {
+        console.error('Error loading older messages:', error);
+      })
+      .finally(() => setIsLoadingOlder(false));
+  };
 
   // Проверяем, удален ли чат другим участником
   useEffect(() => {
@@ -196,10 +308,33 @@ export default function ChatPage() {
             return;
           }
           
+          if (data.type === 'ACK' && data.provisionalId && data.messageId) {
+            // Сообщение записано на сервере: заменяем временный id настоящим
+            setMessages((prev) => {
+              const provisional = prev.find((m) => m.id === data.provisionalId);
+              if (!provisional) return prev;
+              if (prev.some((m) => m.id === data.messageId)) {
+                return prev.filter((m) => m.id !== data.provisionalId);
+              }
+              // Заменяем на месте: через mergeMessages копия заняла бы место другого временного сообщения с тем же текстом
+              return prev.map((m) => m.id === data.provisionalId
+                ? { ...m, id: data.messageId, sentAt: data.createdAt || m.sentAt }
+                : m);
+            });
+            return;
+          }
+
+          if (data.type === 'FAILED' && data.provisionalId) {
+            // Сообщение не удалось сохранить - убираем его из переписки
+            setMessages((prev) => prev.filter((m) => m.id !== data.provisionalId));
+            return;
+          }
+
           if (data.type === 'CHAT' && data.content) {
             // Добавляем сообщение в локальное состояние
             const newMessage: Message = {
-              id: data.messageId || Date.now(), // Используем ID из бэкенда, если есть
+              // До записи в БД сервер присылает временный id, настоящий придет в ACK
+              id: data.messageId ?? data.provisionalId ?? Date.now(),
               content: data.content,
               text: data.content,
               sender: data.sender,
@@ -209,10 +344,12 @@ export default function ChatPage() {
             };
             
             setMessages((prev) => {
-              // Проверяем, нет ли уже такого сообщения (избегаем дубликатов)
+              // Проверяем, нет ли уже такого сообщения (избегаем дубликатов).
+              // Сообщения с id сервера сравниваются только по id: одинаковый текст - не дубликат
               const exists = prev.some(m => 
                 m.id === newMessage.id || 
-                (m.content === newMessage.content && 
+                (data.messageId == null && data.provisionalId == null &&
+                 m.content === newMessage.content && 
                  m.authorUserId === newMessage.authorUserId &&
                  Math.abs(new Date(m.sentAt).getTime() - new Date(newMessage.sentAt).getTime()) < 1000)
               );
@@ -220,9 +357,6 @@ export default function ChatPage() {
               return [...prev, newMessage];
             });
 
-            // Инвалидируем запрос сообщений, чтобы при следующей загрузке данные были актуальными
-            queryClient.invalidateQueries({ queryKey: ['chatMessages', chatId] });
-            
             // Обновляем список чатов для обновления счетчика непрочитанных
             if (isCustomer) {
               queryClient.invalidateQueries({ queryKey: ['customerChats'] });
@@ -243,7 +377,12 @@ export default function ChatPage() {
             const data = JSON.parse(message.body);
             console.log('Received error:', data);
             if (data.type === 'ERROR' && data.content) {
-              setChatDeletedMessage(data.content);
+              if (data.provisionalId) {
+                // Ошибка записи отдельного сообщения не блокирует чат
+                setSendError(data.content);
+              } else {
+                setChatDeletedMessage(data.content);
+              }
             }
           } catch (error) {
             console.error('Error parsing error message:', error);
@@ -283,7 +422,18 @@ export default function ChatPage() {
   }, [chatId, user?.email || user?.login]);
 
   useEffect(() => {
-    messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
+    if (!sendError) return;
+    const timer = setTimeout(() => setSendError(null), SEND_ERROR_TIMEOUT_MS);
+    return () => clearTimeout(timer);
+  }, [sendError]);
+
+  useEffect(() => {
+    // Прокручиваем вниз только при появлении нового последнего сообщения, но не при подгрузке истории
+    const lastId = messages.length > 0 ? messages[messages.length - 1].id : null;
+    if (lastId !== lastRenderedIdRef.current) {
+      lastRenderedIdRef.current = lastId;
+      messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
+    }
   }, [messages]);
 
   const handleSendMessage = () => {
@@ -308,11 +458,9 @@ export default function ChatPage() {
       });
       setNewMessage('');
       
-      // Инвалидируем запрос сообщений после отправки, чтобы данные обновились
-      // Это гарантирует, что при возврате на страницу сообщение будет в списке
+      // Отправленное сообщение придет через подписку или при следующей догрузке новых сообщений
       setTimeout(() => {
-        queryClient.invalidateQueries({ queryKey: ['chatMessages', chatId] });
-        // Также обновляем список чатов, чтобы обновилось время последнего сообщения
+        // Обновляем список чатов, чтобы обновилось время последнего сообщения
         if (isCustomer) {
           queryClient.invalidateQueries({ queryKey: ['customerChats'] });
         } else if (isPerformer) {
@@ -358,7 +506,23 @@ export default function ChatPage() {
             <p className="text-yellow-800 dark:text-yellow-300 text-sm font-medium">{chatDeletedMessage}</p>
           </div>
         )}
+        {sendError && (
+          <div className="mb-4 p-4 bg-red-50 dark:bg-red-950/40 border border-red-200 dark:border-red-800 rounded-lg flex-shrink-0">
+            <p className="text-red-800 dark:text-red-300 text-sm font-medium">{sendError}</p>
+          </div>
+        )}
         <div className="flex-1 overflow-y-auto space-y-4 mb-4 min-h-0 px-1">
+          {hasOlder && (
+            <div className="flex justify-center">
+              <button
+                onClick={handleLoadOlder}
+                disabled={isLoadingOlder}
+                className="btn btn-secondary text-sm disabled:opacity-50"
+              >
+                {t('chat.loadEarlier')}
+              </button>
+            </div>
+          )}
           {messages.map((message) => {
             const isOwn = message.authorUserId === user?.id;
             return (
@@ -88,6 +88,8 @@ export default function NotificationsPage() {
         return '✏️';
       case 'REFUSED':
         return '❌';
+      case 'SAVED_SEARCH_MATCH':
+        return '🔍';
       default:
         return '🔔';
     }
@@ -208,9 +208,16 @@ export default function AdminOrdersPage() {
     },
   });
 
-  const handleViewOrder = (order: Order) => {
+  const handleViewOrder = async (order: Order) => {
     setSelectedOrder(order);
     setShowViewModal(true);
+    // В списке приходит только начало описания - полную карточку догружаем отдельно
+    try {
+      const response = await adminApi.getOrder(order.id);
+      setSelectedOrder((current) => (current?.id === order.id ? { ...current, ...response.data } : current));
+    } catch (error) {
+      console.error('Error loading order:', error);
+    }
   };
 
   const handleViewUser = async (userId: number, role: 'Customer' | 'Performer') => {
@@ -427,7 +434,7 @@ export default function AdminOrdersPage() {
     // Фильтр по поисковому запросу
     const matchesSearch = !searchTerm || (
     order.title?.toLowerCase().includes(searchTerm.toLowerCase()) ||
-    order.description?.toLowerCase().includes(searchTerm.toLowerCase()) ||
+    (order.description ?? order.descriptionPreview)?.toLowerCase().includes(searchTerm.toLowerCase()) ||
     order.customerName?.toLowerCase().includes(searchTerm.toLowerCase()) ||
     order.performerName?.toLowerCase().includes(searchTerm.toLowerCase())
     );
@@ -732,7 +739,7 @@ export default function AdminOrdersPage() {
               </div>
               <div>
                 <p className="text-sm font-medium text-gray-500 dark:text-slate-400">Описание</p>
-                <p className="text-lg whitespace-pre-wrap">{selectedOrder.description}</p>
+                <p className="text-lg whitespace-pre-wrap">{selectedOrder.description ?? selectedOrder.descriptionPreview}</p>
               </div>
               <div>
                 <p className="text-sm font-medium text-gray-500 dark:text-slate-400">Область</p>
@@ -37,7 +37,7 @@ export default function CustomerChatsPage() {
   const { data, isLoading } = useQuery({
     queryKey: ['customerChats'],
     queryFn: () => customerApi.getChats().then((res) => res.data.chats),
-    refetchInterval: 1000, // Автоматическое обновление каждую секунду
+    // Новые сообщения и счетчики непрочитанных приходят через WebSocket (/user/queue/chats)
   });
 
   useEffect(() => {
@@ -190,6 +190,11 @@ export default function CustomerChatsPage() {
                             {chat.orderTitle}
                         </p>
                         )}
+                        {chat.lastMessagePreview && (
+                          <p className="text-sm text-gray-500 dark:text-slate-400 mt-1 truncate">
+                            {chat.lastMessagePreview}
+                          </p>
+                        )}
                         {renderLastMessageTime(chat)}
                       </div>
                     </div>
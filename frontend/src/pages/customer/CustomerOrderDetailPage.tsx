@@ -119,7 +119,7 @@ export default function CustomerOrderDetailPage() {
   const { data: notificationsData } = useQuery({
     queryKey: ['notifications'],
     queryFn: () => notificationApi.getAll().then((res) => res.data),
-    refetchInterval: 1000, // Проверяем уведомления каждую секунду
+    // Новые уведомления добавляются в кэш из WebSocket-подписки в Layout
     enabled: true,
   });
 
@@ -1,6 +1,6 @@
 import { useState, useEffect, useRef } from 'react';
 import { useTranslation } from 'react-i18next';
-import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { useNavigate, useSearchParams } from 'react-router-dom';
 import { customerApi, notificationApi } from '../../services/api';
 import { Plus, Search, Eye, Trash2, CheckCircle, Clock, XCircle, AlertTriangle, Loader2 } from 'lucide-react';
@@ -15,6 +15,7 @@ type SortOrder = 'newest' | 'oldest';
 type TabType = 'all' | 'in-progress' | 'done';
 
 const PAGE_KEY = 'customerOrders';
+const ORDERS_PAGE_SIZE = 50;
 
 export default function CustomerOrdersPage() {
   const { t, i18n } = useTranslation();
@@ -96,7 +97,7 @@ export default function CustomerOrdersPage() {
   const { data: notificationsData } = useQuery({
     queryKey: ['notifications'],
     queryFn: () => notificationApi.getAll().then((res) => res.data),
-    refetchInterval: 1000, // Проверяем уведомления каждую секунду
+    // Новые уведомления добавляются в кэш из WebSocket-подписки в Layout
     enabled: true,
   });
 
@@ -125,36 +126,80 @@ export default function CustomerOrdersPage() {
     }
   }, [notificationsData, queryClient]);
 
-  const { data: allOrders, isLoading: isLoadingAll } = useQuery({
-    queryKey: ['customerOrders', debouncedSearchTerm],
-    queryFn: async () => {
-      const response = await customerApi.getOrders(debouncedSearchTerm || undefined);
-      console.log('Fetched orders:', response.data.orders);
-      return response.data.orders;
+  // Статус и сортировка применяются на сервере, фильтр хранит подпись статуса - переводим ее в код
+  const statusCodesByLabel: Record<string, string> = {
+    [t('orderStatus.onReview')]: 'ON_REVIEW',
+    [t('orderStatus.rejected')]: 'REJECTED',
+    [t('orderStatus.done')]: 'DONE',
+    [t('orderStatus.onCheck')]: 'ON_CHECK',
+    [t('orderStatus.inProcess')]: 'IN_PROCESS',
+    [t('orderStatus.active')]: 'ACTIVE',
+  };
+  const serverStatus = activeTab === 'in-progress'
+    ? 'IN_PROCESS,ON_CHECK'
+    : statusFilter !== 'all' ? statusCodesByLabel[statusFilter] : undefined;
+  const sortDirection = sortOrder === 'newest' ? 'desc' : 'asc';
+
+  const {
+    data: allOrdersData,
+    isLoading: isLoadingAll,
+    fetchNextPage: fetchMoreOrders,
+    hasNextPage: hasMoreOrders,
+    isFetchingNextPage: isFetchingMoreOrders,
+  } = useInfiniteQuery({
+    queryKey: ['customerOrders', debouncedSearchTerm, serverStatus, sortDirection],
+    queryFn: async ({ pageParam }) => {
+      const response = await customerApi.getOrders({
+        searchTerm: debouncedSearchTerm || undefined,
+        status: serverStatus,
+        sortBy: `publicationTime:${sortDirection}`,
+        page: pageParam,
+        pageSize: ORDERS_PAGE_SIZE,
+      });
+      return response.data;
     },
+    initialPageParam: 1,
+    getNextPageParam: (lastPage) => (lastPage.hasMore ? lastPage.page + 1 : undefined),
+    enabled: activeTab !== 'done',
     refetchOnWindowFocus: true,
     refetchOnMount: true,
     refetchInterval: 1000, // Автоматическое обновление каждую секунду
   });
-
-  const { data: doneOrders, isLoading: isLoadingDone } = useQuery({
-    queryKey: ['customerDoneOrders'],
-    queryFn: async () => {
+  const allOrders = allOrdersData?.pages.flatMap((page) => page.orders);
+
+  const {
+    data: doneOrdersData,
+    isLoading: isLoadingDone,
+    fetchNextPage: fetchMoreDoneOrders,
+    hasNextPage: hasMoreDoneOrders,
+    isFetchingNextPage: isFetchingMoreDoneOrders,
+  } = useInfiniteQuery({
+    queryKey: ['customerDoneOrders', sortDirection],
+    queryFn: async ({ pageParam }) => {
       try {
-        const response = await customerApi.getDoneOrders();
-        console.log('Fetched done orders:', response.data.orders);
-        return response.data.orders || [];
+        const response = await customerApi.getDoneOrders({
+          sortBy: `endTime:${sortDirection}`,
+          page: pageParam,
+          pageSize: ORDERS_PAGE_SIZE,
+        });
+        return response.data;
       } catch (error) {
         console.error('Error fetching done orders:', error);
-        return [];
+        return { orders: [], page: pageParam, hasMore: false };
       }
     },
+    initialPageParam: 1,
+    getNextPageParam: (lastPage) => (lastPage.hasMore ? lastPage.page + 1 : undefined),
+    enabled: activeTab === 'done',
     refetchOnWindowFocus: true,
     refetchOnMount: true,
     refetchInterval: 1000, // Автоматическое обновление каждую секунду
-    enabled: true, // Всегда загружаем выполненные заказы
   });
+  const doneOrders = doneOrdersData?.pages.flatMap((page) => page.orders);
 
+  const hasMore = activeTab === 'done' ? hasMoreDoneOrders : hasMoreOrders;
+  const isFetchingMore = activeTab === 'done' ? isFetchingMoreDoneOrders : isFetchingMoreOrders;
+  const loadMore = () => (activeTab === 'done' ? fetchMoreDoneOrders() : fetchMoreOrders());
 
   // Определяем какие данные использовать в зависимости от вкладки
   const isLoading = activeTab === 'done' ? isLoadingDone : isLoadingAll;
@@ -481,6 +526,19 @@ export default function CustomerOrdersPage() {
               </div>
             ))}
             
+            {hasMore && (
+              <div className="flex justify-center">
+                <button
+                  onClick={loadMore}
+                  disabled={isFetchingMore}
+                  className="btn btn-secondary flex items-center"
+                >
+                  {isFetchingMore && <Loader2 className="w-4 h-4 mr-2 animate-spin" />}
+                  Показать еще
+                </button>
+              </div>
+            )}
+            
             {/* Сообщение если все заказы скрыты фильтром */}
             {activeTab === 'all' && sortOrders(displayData).length === 0 && getFilteredOrders().length > 0 && (
               <div className="text-center py-12">
@@ -22,7 +22,7 @@ export default function PerformerOrderDetailPage() {
   const { data: notificationsData } = useQuery({
     queryKey: ['notifications'],
     queryFn: () => notificationApi.getAll().then((res) => res.data),
-    refetchInterval: 1000, // Проверяем уведомления каждую секунду
+    // Новые уведомления добавляются в кэш из WebSocket-подписки в Layout
     enabled: true,
   });
 
@@ -7,6 +7,8 @@ import { Search, Eye, CheckCircle, Clock, X, AlertTriangle, Loader2, Trash2 } fr
 import { format } from 'date-fns';
 import { ru } from 'date-fns/locale';
 import Modal from '../../components/Modal';
+import SavedSearchesPanel from '../../components/SavedSearchesPanel';
+import RecommendedOrdersPanel from '../../components/RecommendedOrdersPanel';
 import type { Order, Reply, UpdateReplyDto, Notification } from '../../types';
 import { showErrorToast, showSuccessToast } from '../../utils/errorHandler';
 import { saveState, loadState } from '../../utils/stateStorage';
@@ -95,7 +97,7 @@ export default function PerformerOrdersPage() {
   const { data: notificationsData } = useQuery({
     queryKey: ['notifications'],
     queryFn: () => notificationApi.getAll().then((res) => res.data),
-    refetchInterval: 1000, // Проверяем уведомления каждую секунду
+    // Новые уведомления добавляются в кэш из WebSocket-подписки в Layout
     enabled: true,
   });
 
@@ -106,8 +108,8 @@ export default function PerformerOrdersPage() {
       const currentNotifications = notificationsData.notifications;
       const previousNotifications = previousNotificationsRef.current;
 
-      // Проверяем, есть ли новые непрочитанные уведомления ASSIGNED, REFUSED, CORRECTION, COMPLETED
-      const relevantNotificationTypes = ['ASSIGNED', 'REFUSED', 'CORRECTION', 'COMPLETED'];
+      // Проверяем, есть ли новые непрочитанные уведомления ASSIGNED, REFUSED, CORRECTION, COMPLETED, SAVED_SEARCH_MATCH
+      const relevantNotificationTypes = ['ASSIGNED', 'REFUSED', 'CORRECTION', 'COMPLETED', 'SAVED_SEARCH_MATCH'];
       const newRelevantNotifications = currentNotifications.filter(
         (notif: Notification) =>
           !notif.isRead &&
@@ -275,7 +277,7 @@ export default function PerformerOrdersPage() {
         order.title?.toLowerCase().includes(searchLower) ||
         order.scope?.toLowerCase().includes(searchLower) ||
         order.stackS?.toLowerCase().includes(searchLower) ||
-        order.description?.toLowerCase().includes(searchLower)
+        (order.description ?? order.descriptionPreview)?.toLowerCase().includes(searchLower)
       );
     } else {
       // Поиск по откликам
@@ -365,6 +367,9 @@ export default function PerformerOrdersPage() {
             />
           </div>
           
+          {activeTab === 'new' && <RecommendedOrdersPanel />}
+          {activeTab === 'new' && <SavedSearchesPanel currentSearchTerm={debouncedSearchTerm} />}
+          
           <div className="flex flex-col gap-4 pb-4 border-b border-gray-200">
             <div className="flex flex-col sm:flex-row sm:items-center sm:justify-between gap-4">
               <div className="flex items-center gap-4">
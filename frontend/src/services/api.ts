@@ -4,10 +4,13 @@ import type {
   RegisterCustomerRequest,
   RegisterPerformerRequest,
   Order,
+  OrdersPage,
+  SavedSearch,
   Reply,
   UpdateReplyDto,
   Chat,
-  Message,
+  MessagePage,
+  MessagePageParams,
   Portfolio,
   UpdatePortfolioDto,
   WorkExperience,
@@ -86,11 +89,19 @@ export const authApi = {
 
 // Customer API
 export const customerApi = {
-  getOrders: (searchTerm?: string) => api.get<{ orders: Order[] }>('/customers', { params: { searchTerm } }),
+  getOrders: (params?: {
+    searchTerm?: string;
+    status?: string;
+    sortBy?: string;
+    page?: number;
+    pageSize?: number;
+  }) => api.get<OrdersPage>('/customers', { params }),
   getOrder: (id: number) => api.get<Order>(`/customers/${id}`),
-  getDoneOrders: () => api.get<{ orders: Order[] }>('/customers/done'),
+  getDoneOrders: (params?: { sortBy?: string; page?: number; pageSize?: number }) =>
+    api.get<OrdersPage>('/customers/done', { params }),
   getChats: (tab?: string) => api.get<{ chats: Chat[] }>('/customers/chats', { params: { tab } }),
-  getMessages: (chatId: number) => api.get<{ messages: Message[] }>('/customers/messages', { params: { chatId } }),
+  getMessages: (chatId: number, cursor?: MessagePageParams) =>
+    api.get<MessagePage>('/customers/messages', { params: { chatId, ...cursor } }),
   markChatAsRead: (chatId: number) => api.put(`/customers/chats/${chatId}/read`),
   addOrder: (data: Partial<Order>) => api.post('/customers/addorder', data),
   updateOrder: (orderId: number, data: Partial<Order>) => api.put(`/customers/orders/${orderId}`, data),
@@ -133,14 +144,17 @@ export const performerApi = {
   getOrders: (params?: {
     searchTerm?: string;
     sortBy?: string;
+    cursor?: string;
     page?: number;
     pageSize?: number;
-  }) => api.get<{ orders: Order[] }>('/performers/orders', { params }),
-  getMyActiveOrders: (searchTerm?: string) => api.get<{ orders: Order[] }>('/performers/my-orders', { params: { searchTerm } }),
+  }) => api.get<{ orders: Order[]; nextCursor?: string | null }>('/performers/orders', { params }),
+  getMyActiveOrders: (params?: { searchTerm?: string; page?: number; pageSize?: number }) =>
+    api.get<OrdersPage>('/performers/my-orders', { params }),
   getOrder: (id: number) => api.get<Order>(`/performers/orders/${id}`),
   getReplies: (tab?: string) => api.get<{ reply: Reply[] }>('/performers/replies', { params: { tab } }),
   getChats: (tab?: string) => api.get<{ chats: Chat[] }>('/performers/chats', { params: { tab } }),
-  getMessages: (chatId: number) => api.get<{ messages: Message[] }>('/performers/messages', { params: { chatId } }),
+  getMessages: (chatId: number, cursor?: MessagePageParams) =>
+    api.get<MessagePage>('/performers/messages', { params: { chatId, ...cursor } }),
   markChatAsRead: (chatId: number) => api.put(`/performers/chats/${chatId}/read`),
   addReply: (data: Partial<Reply>) => api.post<number>('/performers/addreply', data),
   updateTaskStatus: (data: UpdateReplyDto) => api.put('/performers/readytask', data),
@@ -158,6 +172,11 @@ export const performerApi = {
   addReview: (data: WorkExperience) => api.post('/performers/addreview', data),
   deleteChat: (chatId: number) => api.delete(`/performers/chats/${chatId}`),
   getTopPerformers: () => api.get<{ performers: any[] }>('/performers/top-performers'),
+  getSavedSearches: () => api.get<{ savedSearches: SavedSearch[] }>('/performers/saved-searches'),
+  createSavedSearch: (data: SavedSearch) => api.post<SavedSearch>('/performers/saved-searches', data),
+  deleteSavedSearch: (id: number) => api.delete(`/performers/saved-searches/${id}`),
+  getRecommendedOrders: (limit?: number) =>
+    api.get<{ orders: Order[]; ready: boolean }>('/performers/recommended', { params: { limit } }),
 };
 
 // Admin API
@@ -206,6 +225,10 @@ export const notificationApi = {
   getAll: () => api.get<{ notifications: Notification[]; unreadCount: number }>('/notifications'),
   getUnread: () => api.get<{ notifications: Notification[] }>('/notifications/unread'),
   getUnreadCount: () => api.get<{ count: number }>('/notifications/count'),
+  getSince: (afterId: number) =>
+    api.get<{ notifications: Notification[]; unreadCount: number }>('/notifications/since', {
+      params: { afterId },
+    }),
   markAsRead: (id: number) => api.put(`/notifications/${id}/read`),
   markAllAsRead: () => api.put('/notifications/read-all'),
   deleteAll: () => api.delete('/notifications/all'),
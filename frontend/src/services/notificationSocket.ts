@@ -0,0 +1,118 @@
+import SockJS from 'sockjs-client';
+import { Client, IMessage, StompSubscription } from '@stomp/stompjs';
+import type { ChatUpdate, Notification } from '../types';
+
+export interface NotificationEvent {
+  notification?: Notification;
+  unreadCount: number;
+}
+
+type NotificationListener = (event: NotificationEvent) => void;
+type ChatUpdateListener = (update: ChatUpdate) => void;
+type ConnectListener = () => void;
+
+// Отдельное STOMP-подключение для персональных уведомлений пользователя.
+// Сервер отправляет в /user/queue/notifications новое уведомление и счетчик непрочитанных,
+// а в /user/queue/chats - изменения списка чатов при новых сообщениях.
+class NotificationSocketService {
+  private stompClient: Client | null = null;
+  private subscription: StompSubscription | null = null;
+  private chatSubscription: StompSubscription | null = null;
+  private notificationListeners: NotificationListener[] = [];
+  private chatUpdateListeners: ChatUpdateListener[] = [];
+  private connectListeners: ConnectListener[] = [];
+  private reconnectDelay = 3000;
+
+  connect() {
+    if (this.stompClient?.active) {
+      return;
+    }
+
+    const token = localStorage.getItem('token');
+    if (!token) {
+      return;
+    }
+
+    this.stompClient = new Client({
+      webSocketFactory: () => new SockJS('http://localhost:8080/chat') as any,
+      connectHeaders: {
+        Authorization: `Bearer ${token}`
+      },
+      reconnectDelay: this.reconnectDelay,
+      heartbeatIncoming: 4000,
+      heartbeatOutgoing: 4000,
+    });
+
+    this.stompClient.onConnect = () => {
+      this.subscription = this.stompClient!.subscribe(
+        '/user/queue/notifications',
+        (message: IMessage) => {
+          try {
+            const data = JSON.parse(message.body) as NotificationEvent;
+            this.notificationListeners.forEach((listener) => listener(data));
+          } catch (error) {
+            console.error('Error parsing notification:', error);
+          }
+        }
+      );
+      this.chatSubscription = this.stompClient!.subscribe(
+        '/user/queue/chats',
+        (message: IMessage) => {
+          try {
+            const data = JSON.parse(message.body) as ChatUpdate;
+            this.chatUpdateListeners.forEach((listener) => listener(data));
+          } catch (error) {
+            console.error('Error parsing chat update:', error);
+          }
+        }
+      );
+      // После (пере)подключения клиент догружает пропущенные уведомления
+      this.connectListeners.forEach((listener) => listener());
+    };
+
+    this.stompClient.onStompError = (frame: any) => {
+      console.error('Notification STOMP error:', frame);
+    };
+
+    this.stompClient.activate();
+  }
+
+  disconnect() {
+    if (this.subscription) {
+      this.subscription.unsubscribe();
+      this.subscription = null;
+    }
+    if (this.chatSubscription) {
+      this.chatSubscription.unsubscribe();
+      this.chatSubscription = null;
+    }
+
+    if (this.stompClient) {
+      this.stompClient.deactivate();
+      this.stompClient = null;
+    }
+  }
+
+  onNotification(listener: NotificationListener) {
+    this.notificationListeners.push(listener);
+    return () => {
+      this.notificationListeners = this.notificationListeners.filter((l) => l !== listener);
+    };
+  }
+
+  onChatUpdate(listener: ChatUpdateListener) {
+    this.chatUpdateListeners.push(listener);
+    return () => {
+      this.chatUpdateListeners = this.chatUpdateListeners.filter((l) => l !== listener);
+    };
+  }
+
+  onConnect(listener: ConnectListener) {
+    this.connectListeners.push(listener);
+    return () => {
+      this.connectListeners = this.connectListeners.filter((l) => l !== listener);
+    };
+  }
+}
+
+export const notificationSocket = new NotificationSocketService();
@@ -40,7 +40,10 @@ export interface RegisterPerformerRequest {
 export interface Order {
   id: number;
   title: string;
-  description: string;
+  // Полное описание приходит только в карточке заказа; списки отдают descriptionPreview
+  description?: string;
+  descriptionPreview?: string;
+  descriptionTruncated?: boolean;
   scope: string;
   stackS?: string;
   customerId?: number;
@@ -111,6 +114,19 @@ export interface Chat {
   deletedByCustomer?: boolean;
   deletedByPerformer?: boolean;
   lastMessageTime?: string;
+  lastMessageId?: number;
+  lastMessagePreview?: string;
+}
+
+// Изменение строки списка чатов, приходящее через /user/queue/chats.
+// Без lastMessageId - только новый счетчик (чат прочитан в другой вкладке);
+// unreadCount null - сервер не знает счетчик, список нужно перечитать
+export interface ChatUpdate {
+  chatId: number;
+  lastMessageId?: number;
+  lastMessageTime?: string;
+  lastMessagePreview?: string;
+  unreadCount: number | null;
 }
 
 export interface Message {
@@ -124,6 +140,36 @@ export interface Message {
   sentAt?: string;
 }
 
+// Курсор истории чата: beforeId - более старые сообщения, afterId - более новые
+// Страница списка заказов; следующая страница запрашивается с page + 1, пока hasMore
+export interface OrdersPage {
+  orders: Order[];
+  page: number;
+  hasMore: boolean;
+}
+
+// Сохраненный поиск исполнителя: о новых подходящих заказах приходит уведомление SAVED_SEARCH_MATCH
+export interface SavedSearch {
+  id?: number;
+  name?: string;
+  keywords?: string;
+  techStack?: string;
+  budgetMin?: number;
+  budgetMax?: number;
+  createdAt?: string;
+}
+
+export interface MessagePageParams {
+  beforeId?: number;
+  afterId?: number;
+  limit?: number;
+}
+
+export interface MessagePage {
+  messages: Message[];
+  hasMore: boolean;
+}
+
 export interface Portfolio {
   id?: number;
   userId?: number;